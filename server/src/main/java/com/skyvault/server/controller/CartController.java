@@ -118,6 +118,7 @@ public class CartController {
         // Check all content are from the same creator
         String creatorId = null;
         List<String> contentTitles = new ArrayList<>();
+        List<Double> contentPrices = new ArrayList<>();
         for (String cid : contentIds) {
             DroneContent c = contentRepository.findById(cid).orElse(null);
             if (c == null) return ResponseEntity.badRequest().body(Map.of("message", "Invalid content in cart"));
@@ -126,6 +127,7 @@ public class CartController {
                 return ResponseEntity.badRequest().body(Map.of("message", "All items must be from the same creator"));
             }
             contentTitles.add(c.getTitle());
+            contentPrices.add(c.getPrice());
         }
 
         // Upload slip to S3 (private)
@@ -144,6 +146,7 @@ public class CartController {
             order.setBuyerEmail(buyerEmail);
             order.setContentIds(contentIds);
             order.setContentTitles(contentTitles);
+            order.setContentPrices(contentPrices);
             order.setSlipUrl(slipResult.s3Url); // Store S3 reference (not public URL)
             order.setStatus(Order.Status.PENDING);
             order.setCreatorId(creatorId);
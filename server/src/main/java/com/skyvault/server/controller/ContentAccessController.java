@@ -160,14 +160,15 @@ public class ContentAccessController {
     }
     
     /**
-     * Get thumbnail URL for public content browsing
+     * Get thumbnail URL for public content browsing; width picks the closest preview size
      */
     @GetMapping("/{contentId}/thumbnail")
     public ResponseEntity<?> getThumbnailUrl(
-            @PathVariable String contentId) {
+            @PathVariable String contentId,
+            @RequestParam(required = false) Integer width) {
         
         try {
-            String thumbnailUrl = contentAccessService.generateThumbnailUrl(contentId);
+            String thumbnailUrl = contentAccessService.generateThumbnailUrl(contentId, width);
             
             if (thumbnailUrl == null) {
                 Map<String, String> error = new HashMap<>();
@@ -6,22 +6,44 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.skyvault.server.dto.ContentResponse;
 import com.skyvault.server.dto.ContentSearchRequest;
 import com.skyvault.server.dto.ContentUploadRequest;
+import com.skyvault.server.dto.CreatorStatsResponse;
+import com.skyvault.server.dto.CursorPage;
+import com.skyvault.server.dto.FacetedSearchResponse;
+import com.skyvault.server.dto.MapMarker;
+import com.skyvault.server.dto.Suggestion;
+import com.skyvault.server.dto.TimeSeriesPoint;
+import com.skyvault.server.dto.TrendingTag;
 import com.skyvault.server.model.DroneContent;
 import com.skyvault.server.repository.ContentRepository;
 import com.skyvault.server.repository.UserRepository;
+import com.skyvault.server.service.AnalyticsService;
 import com.skyvault.server.service.ContentService;
 import com.skyvault.server.service.JwtService;
+import com.skyvault.server.service.MapClusterService;
+import com.skyvault.server.service.StreamingUploadService;
+import com.skyvault.server.service.SuggestionService;
+import com.skyvault.server.service.TrendingService;
+import com.skyvault.server.util.MediaProbe;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +60,11 @@ public class ContentController {
     private final JwtService jwtService;
     private final ContentRepository contentRepository;
     private final UserRepository userRepository;
+    private final MapClusterService mapClusterService;
+    private final SuggestionService suggestionService;
+    private final AnalyticsService analyticsService;
+    private final TrendingService trendingService;
+    private final StreamingUploadService streamingUploadService;
     
     // Public endpoints for browsing content
     @GetMapping("/public/search")
@@ -48,6 +75,12 @@ public class ContentController {
             @RequestParam(required = false) String resolution,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String licenseType,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
         
@@ -59,6 +92,27 @@ public class ContentController {
             searchRequest.setResolution(resolution);
             searchRequest.setMinPrice(minPrice);
             searchRequest.setMaxPrice(maxPrice);
+            searchRequest.setTags(tags);
+            searchRequest.setLicenseType(licenseType);
+            // Keyword searches rank by relevance unless the caller asks for another order
+            if (sortBy != null && !sortBy.isEmpty()) {
+                searchRequest.setSortBy(sortBy);
+            } else if (!keyword.trim().isEmpty()) {
+                searchRequest.setSortBy(ContentService.RELEVANCE_SORT);
+            }
+            searchRequest.setSortDirection(sortDir);
+            
+            // Results and facet counts together from one aggregation
+            if (facets) {
+                FacetedSearchResponse content = contentService.searchContentWithFacets(searchRequest, page, size);
+                return ResponseEntity.ok(content);
+            }
+            
+            // Cursor mode (cursor= on the first request) for infinite scroll: no skip, no total count
+            if (cursor != null) {
+                CursorPage<ContentResponse> content = contentService.searchContentByCursor(searchRequest, cursor, size);
+                return ResponseEntity.ok(content);
+            }
             
             Page<ContentResponse> content = contentService.searchContent(searchRequest, page, size);
             return ResponseEntity.ok(content);
@@ -69,12 +123,161 @@ public class ContentController {
         }
     }
     
+    @GetMapping("/public/nearby")
+    public ResponseEntity<?> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        try {
+            List<ContentResponse> content = contentService.findNearby(lat, lng, radiusKm, limit);
+            return ResponseEntity.ok(content);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Error searching content near {},{}", lat, lng, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to search nearby content");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/within-box")
+    public ResponseEntity<?> findWithinBox(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        try {
+            List<ContentResponse> content = contentService.findWithinBox(minLat, minLng, maxLat, maxLng, limit);
+            return ResponseEntity.ok(content);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Error searching content within bounding box", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to search content in area");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/clusters/{z}/{x}/{y}")
+    public ResponseEntity<?> getMapClusters(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y) {
+        
+        try {
+            List<MapMarker> markers = mapClusterService.getTile(z, x, y);
+            Map<String, Object> response = new HashMap<>();
+            response.put("zoom", z);
+            response.put("x", x);
+            response.put("y", y);
+            response.put("markers", markers);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Error loading map clusters for tile {}/{}/{}", z, x, y, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load map clusters");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        try {
+            List<Suggestion> suggestions = suggestionService.suggest(query, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            log.error("Error loading suggestions for: {}", query, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load suggestions");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/top")
+    public ResponseEntity<?> getTopContent(
+            @RequestParam(defaultValue = "views") String metric,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        try {
+            List<ContentResponse> top = contentService.getTopContent(metric, limit);
+            return ResponseEntity.ok(top);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Invalid metric: " + metric);
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Error loading top content by {}", metric, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load top content");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/trending")
+    public ResponseEntity<?> getTrendingContent(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<ContentResponse> trending = contentService.getTrendingContent(limit);
+            return ResponseEntity.ok(trending);
+        } catch (Exception e) {
+            log.error("Error loading trending content", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load trending content");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/trending-tags")
+    public ResponseEntity<?> getTrendingTags(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<TrendingTag> tags = trendingService.trendingTags(limit);
+            return ResponseEntity.ok(tags);
+        } catch (Exception e) {
+            log.error("Error loading trending tags", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load trending tags");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
+    @GetMapping("/public/{contentId}/related")
+    public ResponseEntity<?> getRelatedContent(
+            @PathVariable String contentId,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        try {
+            List<ContentResponse> related = contentService.getRelatedContent(contentId, limit);
+            return ResponseEntity.ok(related);
+        } catch (Exception e) {
+            log.error("Error loading related content for {}", contentId, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to load related content");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @GetMapping("/public/{contentId}")
-    public ResponseEntity<?> getContentById(@PathVariable String contentId) {
+    public ResponseEntity<?> getContentById(@PathVariable String contentId, HttpServletRequest httpRequest) {
         try {
-            // Increment view count
-            contentService.incrementViews(contentId);
             ContentResponse content = contentService.getContentById(contentId);
+            // Count the view only once the content is known to exist
+            contentService.incrementViews(contentId, viewerKey(httpRequest));
             return ResponseEntity.ok(content);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -176,6 +379,43 @@ public class ContentController {
         }
     }
     
+    /**
+     * Same contract as /creator/upload ("data" part first, then "files"), but
+     * the body is parsed as it arrives and each file is piped straight to S3.
+     */
+    @PostMapping("/creator/upload/stream")
+    public ResponseEntity<?> uploadContentStreaming(
+            @RequestHeader("Authorization") String token,
+            HttpServletRequest httpRequest) {
+        
+        try {
+            String jwt = token.replace("Bearer ", "");
+            String creatorId = jwtService.extractUserId(jwt);
+            
+            if (creatorId == null || creatorId.trim().isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Invalid authentication token");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            }
+            
+            ContentResponse response = streamingUploadService.upload(
+                    creatorId, httpRequest.getContentType(), httpRequest.getInputStream());
+            log.info("Streaming upload successful for content: {}", response.getId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            
+        } catch (RuntimeException e) {
+            log.error("Runtime error during streaming upload", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            log.error("Unexpected error during streaming upload", e);
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to upload content: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @GetMapping("/creator/my-content")
     public ResponseEntity<?> getCreatorContent(
             @RequestHeader("Authorization") String token,
@@ -246,7 +486,7 @@ public class ContentController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
             
-            ContentResponse stats = contentService.getCreatorContentStats(creatorId);
+            CreatorStatsResponse stats = contentService.getCreatorContentStats(creatorId);
             return ResponseEntity.ok(stats);
             
         } catch (Exception e) {
@@ -257,6 +497,54 @@ public class ContentController {
         }
     }
     
+    @GetMapping("/creator/stats/timeseries")
+    public ResponseEntity<?> getCreatorTimeSeries(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "daily") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String contentId) {
+        
+        try {
+            String jwt = token.replace("Bearer ", "");
+            String creatorId = jwtService.extractUserId(jwt);
+            
+            // Default to the last 30 days (daily) or 48 hours (hourly)
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from
+                    : end.minus("hourly".equalsIgnoreCase(granularity) ? 48 : 30 * 24, ChronoUnit.HOURS);
+            
+            List<TimeSeriesPoint> series = contentId != null
+                    ? analyticsService.getContentTimeSeries(contentId, creatorId, granularity, start, end)
+                    : analyticsService.getCreatorTimeSeries(creatorId, granularity, start, end);
+            return ResponseEntity.ok(series);
+            
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    @GetMapping("/creator/{contentId}/unique-viewers")
+    public ResponseEntity<?> getUniqueViewers(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String contentId) {
+        
+        try {
+            String jwt = token.replace("Bearer ", "");
+            String creatorId = jwtService.extractUserId(jwt);
+            
+            Map<String, Object> stats = contentService.getUniqueViewers(contentId, creatorId);
+            return ResponseEntity.ok(stats);
+            
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @PutMapping("/creator/{contentId}")
     public ResponseEntity<?> updateContent(
             @RequestHeader("Authorization") String token,
@@ -358,11 +646,23 @@ public class ContentController {
     
     @GetMapping("/explore")
     public Map<String, Object> exploreContent(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "30") int size
     ) {
         // Use ContentService to fetch all approved content with all fields
         var searchRequest = new ContentSearchRequest();
+        
+        // Keyset mode for the infinite-scroll feed; totals are not computed
+        if (cursor != null) {
+            var cursorPage = contentService.searchContentByCursor(searchRequest, cursor, size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", cursorPage.getContent());
+            response.put("nextCursor", cursorPage.getNextCursor());
+            response.put("hasNext", cursorPage.isHasNext());
+            return response;
+        }
+        
         var pageResult = contentService.searchContent(searchRequest, page, size);
 
         List<ContentResponse> contentList = pageResult.getContent();
@@ -374,14 +674,28 @@ public class ContentController {
         return response;
     }
     
+    // Signed-in users are counted by ID; anonymous viewers by client address and user agent (hashed in the sketch)
+    private String viewerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        String address = forwardedFor != null && !forwardedFor.isEmpty()
+                ? forwardedFor.split(",")[0].trim()
+                : request.getRemoteAddr();
+        return "anon:" + address + "|" + request.getHeader("User-Agent");
+    }
+    
     private boolean isValidFileType(MultipartFile file) {
-        String contentType = file.getContentType();
-        if (contentType == null) return false;
-        
-        return contentType.equals("video/mp4") ||
-               contentType.equals("video/quicktime") ||
-               contentType.equals("image/jpeg") ||
-               contentType.equals("image/jpg") ||
-               contentType.equals("image/png");
+        // Judge by the file's magic bytes; the declared Content-Type is whatever the client says
+        try (InputStream input = file.getInputStream()) {
+            String contentType = MediaProbe.detectType(input.readNBytes(MediaProbe.SNIFF_BYTES));
+            return contentType != null && ContentService.ALLOWED_MEDIA_TYPES.contains(contentType);
+        } catch (IOException e) {
+            log.warn("Could not read file header: {}", file.getOriginalFilename(), e);
+            return false;
+        }
     }
 }
@@ -0,0 +1,127 @@
+package com.skyvault.server.controller;
+
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.service.DeepZoomService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep Zoom tiles for large stills, in the layout DZI viewers such as
+ * OpenSeadragon expect: {name}.dzi for the descriptor and
+ * {name}_files/{level}/{column}_{row}.jpg for tiles. Public, but levels above
+ * publicMaxLevel need a signed-in user with access to the content, sent as a
+ * bearer token, so viewers must fetch those tiles rather than use <img>.
+ */
+@RestController
+@RequestMapping("/api/content/public/deep-zoom")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true")
+public class DeepZoomController {
+
+    private static final String BASE_PATH = "/api/content/public/deep-zoom/";
+
+    private final DeepZoomService deepZoomService;
+
+    @GetMapping("/{contentId}")
+    public ResponseEntity<?> getTileSets(@PathVariable String contentId) {
+        try {
+            List<Map<String, Object>> tileSets = new ArrayList<>();
+            for (DroneContent.DeepZoom tileSet : deepZoomService.getTileSets(contentId, currentUserId())) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("dziUrl", BASE_PATH + contentId + "/" + DeepZoomService.tileSetName(tileSet) + ".dzi");
+                entry.put("width", tileSet.getWidth());
+                entry.put("height", tileSet.getHeight());
+                entry.put("tileSize", tileSet.getTileSize());
+                entry.put("maxLevel", tileSet.getMaxLevel());
+                entry.put("publicMaxLevel", tileSet.getPublicMaxLevel());
+                if (tileSet.getMaxLevel() > tileSet.getPublicMaxLevel()) {
+                    entry.put("authNote", DeepZoomService.AUTH_NOTE.formatted(tileSet.getPublicMaxLevel()));
+                }
+                tileSets.add(entry);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("contentId", contentId);
+            response.put("tileSets", tileSets);
+            return ResponseEntity.ok(response);
+        } catch (SecurityException e) {
+            return error(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{contentId}/{name}.dzi")
+    public ResponseEntity<?> getDescriptor(@PathVariable String contentId, @PathVariable String name) {
+        try {
+            DroneContent.DeepZoom tileSet = deepZoomService.getTileSet(contentId, name, currentUserId());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_XML)
+                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                    .body(DeepZoomService.descriptor(tileSet));
+        } catch (SecurityException e) {
+            return error(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{contentId}/{name}_files/{level}/{column}_{row}.jpg")
+    public ResponseEntity<?> getTile(
+            @PathVariable String contentId,
+            @PathVariable String name,
+            @PathVariable int level,
+            @PathVariable int column,
+            @PathVariable int row) {
+        try {
+            String userId = currentUserId();
+            DroneContent.DeepZoom tileSet = deepZoomService.getTileSet(contentId, name, userId);
+            byte[] tile = deepZoomService.getTile(contentId, tileSet, level, column, row, userId);
+            if (tile == null) {
+                return error(HttpStatus.NOT_FOUND, "Tile not found");
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .header(HttpHeaders.CACHE_CONTROL, DeepZoomService.cacheControl(tileSet, level))
+                    .body(tile);
+        } catch (SecurityException e) {
+            return error(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to load tile {}/{} of content {}", level, column + "_" + row, contentId, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load tile");
+        }
+    }
+
+    // Signed-in users get their user ID from the JWT filter; anonymous callers get null
+    private String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return null;
+    }
+
+    private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,146 @@
+package com.skyvault.server.controller;
+
+import com.skyvault.server.dto.ResumableUploadRequest;
+import com.skyvault.server.dto.ResumableUploadStatus;
+import com.skyvault.server.service.JwtService;
+import com.skyvault.server.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable uploads (tus-style): POST to create, PATCH consecutive chunks
+ * with an Upload-Offset header, HEAD (or GET) to find where to resume after a
+ * dropped connection, DELETE to give up.
+ */
+@RestController
+@RequestMapping("/api/content/creator/resumable-uploads")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true",
+        exposedHeaders = {"Location", "Upload-Offset", "Upload-Length"})
+public class ResumableUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+    private final JwtService jwtService;
+
+    @PostMapping
+    public ResponseEntity<?> createUpload(
+            @RequestHeader("Authorization") String token,
+            @Valid @RequestBody ResumableUploadRequest request) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            ResumableUploadStatus status = resumableUploadService.createUpload(creatorId, request);
+            return ResponseEntity.created(URI.create("/api/content/creator/resumable-uploads/" + status.getUploadId()))
+                    .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                    .header(UPLOAD_LENGTH, String.valueOf(status.getLength()))
+                    .body(status);
+        } catch (RuntimeException e) {
+            log.error("Failed to create resumable upload", e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/{uploadId}", method = {RequestMethod.HEAD, RequestMethod.GET})
+    public ResponseEntity<?> getStatus(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String uploadId) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            ResumableUploadStatus status = resumableUploadService.getStatus(creatorId, uploadId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                    .header(UPLOAD_LENGTH, String.valueOf(status.getLength()))
+                    .body(status);
+        } catch (RuntimeException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @PatchMapping(value = "/{uploadId}",
+            consumes = {"application/offset+octet-stream", "application/octet-stream"})
+    public ResponseEntity<?> appendChunk(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @PathVariable String uploadId,
+            HttpServletRequest httpRequest) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            ResumableUploadStatus status = resumableUploadService.appendChunk(
+                    creatorId, uploadId, offset, httpRequest.getInputStream());
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                    .body(status);
+        } catch (ResumableUploadService.OffsetMismatchException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET, String.valueOf(e.getCurrentOffset()))
+                    .body(error);
+        } catch (RuntimeException e) {
+            log.warn("Rejected chunk for resumable upload {}: {}", uploadId, e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            // Usually the client went away mid-chunk; it will resume from the stored offset
+            log.info("Chunk for resumable upload {} was interrupted: {}", uploadId, e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, "Chunk was interrupted: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abortUpload(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String uploadId) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            resumableUploadService.abortUpload(creatorId, uploadId);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Upload aborted");
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.error("Failed to abort resumable upload {}", uploadId, e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private String extractCreatorId(String token) {
+        String creatorId = jwtService.extractUserId(token.replace("Bearer ", ""));
+        return creatorId == null || creatorId.trim().isEmpty() ? null : creatorId;
+    }
+
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        return error(HttpStatus.UNAUTHORIZED, "Invalid authentication token");
+    }
+
+    private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,123 @@
+package com.skyvault.server.controller;
+
+import com.skyvault.server.dto.UploadSessionRequest;
+import com.skyvault.server.dto.UploadSessionResponse;
+import com.skyvault.server.dto.UploadSessionStatus;
+import com.skyvault.server.service.JwtService;
+import com.skyvault.server.service.UploadSessionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Direct browser-to-S3 uploads: open a session to get presigned upload URLs,
+ * PUT the files to S3, then complete the session to create the content.
+ * Sessions with multipart files finish verifying in the background.
+ */
+@RestController
+@RequestMapping("/api/content/creator/upload-sessions")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+    private final JwtService jwtService;
+
+    @PostMapping
+    public ResponseEntity<?> createSession(
+            @RequestHeader("Authorization") String token,
+            @Valid @RequestBody UploadSessionRequest request) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            UploadSessionResponse response = uploadSessionService.createSession(creatorId, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            log.error("Failed to open upload session", e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * 201 with the content ID once completed; 202 while multipart files are
+     * still being verified, in which case poll GET /{sessionId}.
+     */
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<?> completeSession(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String sessionId) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            UploadSessionStatus status = uploadSessionService.completeSession(creatorId, sessionId);
+            if (status.getContentId() == null) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+            }
+            log.info("Direct upload completed for content: {}", status.getContentId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(status);
+        } catch (RuntimeException e) {
+            log.error("Failed to complete upload session {}", sessionId, e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<?> getSession(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String sessionId) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            return ResponseEntity.ok(uploadSessionService.getStatus(creatorId, sessionId));
+        } catch (RuntimeException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<?> abortSession(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String sessionId) {
+        try {
+            String creatorId = extractCreatorId(token);
+            if (creatorId == null) {
+                return unauthorized();
+            }
+            uploadSessionService.abortSession(creatorId, sessionId);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Upload session aborted");
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.error("Failed to abort upload session {}", sessionId, e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private String extractCreatorId(String token) {
+        String creatorId = jwtService.extractUserId(token.replace("Bearer ", ""));
+        return creatorId == null || creatorId.trim().isEmpty() ? null : creatorId;
+    }
+
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        return error(HttpStatus.UNAUTHORIZED, "Invalid authentication token");
+    }
+
+    private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -27,10 +27,12 @@ public class ContentResponse {
     private DroneContent.MediaFile thumbnailFile;
     private DroneContent.ContentStatus status;
     private Integer views;
+    private Long uniqueViewers;
     private Integer downloads;
     private Double earnings;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Double distanceKm; // set only on spatial search results
     
     // Creator information
     private String creatorName;
@@ -0,0 +1,16 @@
+package com.skyvault.server.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class CreatorStatsResponse {
+    private long views;
+    private long downloads;
+    private double earnings;
+    private long totalContent;
+    private Map<String, Long> statusCounts; // keyed by status value, e.g. "approved"
+    private LocalDateTime rebuiltAt;
+}
@@ -0,0 +1,19 @@
+package com.skyvault.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResponse {
+    private List<ContentResponse> content;
+    private long totalElements;
+    private int totalPages;
+    // facet name (category, resolution, licenseType, price) -> buckets ordered by count
+    private Map<String, List<FacetBucket>> facets;
+}
@@ -0,0 +1,16 @@
+package com.skyvault.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapMarker {
+    private double lat;
+    private double lng;
+    private long count;
+    private String contentId; // set only for individual (unclustered) markers
+    private String title;
+}
@@ -0,0 +1,23 @@
+package com.skyvault.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class ResumableUploadRequest {
+
+    @Valid
+    @NotNull(message = "Content data is required")
+    private ContentUploadRequest data;
+
+    @NotBlank(message = "File name is required")
+    private String name;
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be greater than 0")
+    private Long size;
+}
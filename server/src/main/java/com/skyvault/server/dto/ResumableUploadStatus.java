@@ -0,0 +1,16 @@
+package com.skyvault.server.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ResumableUploadStatus {
+    private String uploadId;
+    private long offset;
+    private long length;
+    private int chunkSize; // every chunk except the last must be exactly this long
+    private String status;
+    private String contentId;
+    private Instant expiresAt;
+}
@@ -0,0 +1,13 @@
+package com.skyvault.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingTag {
+    private String tag;
+    private double score; // decayed activity, comparable only within one response
+}
@@ -0,0 +1,37 @@
+package com.skyvault.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UploadSessionRequest {
+
+    @Valid
+    @NotNull(message = "Content data is required")
+    private ContentUploadRequest data;
+
+    @Valid
+    @NotEmpty(message = "At least one media file is required")
+    private List<FileSpec> files;
+
+    @Data
+    public static class FileSpec {
+
+        @NotBlank(message = "File name is required")
+        private String name;
+
+        @NotBlank(message = "Content type is required")
+        private String contentType;
+
+        @NotNull(message = "File size is required")
+        @Positive(message = "File size must be greater than 0")
+        private Long size;
+
+        @NotBlank(message = "SHA-256 checksum is required")
+        @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "SHA-256 checksum must be 64 hex characters")
+        private String sha256;
+    }
+}
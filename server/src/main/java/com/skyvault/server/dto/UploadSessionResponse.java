@@ -0,0 +1,38 @@
+package com.skyvault.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class UploadSessionResponse {
+    private String sessionId;
+    private Instant expiresAt;
+    private List<FileTarget> files; // same order as the request
+
+    /**
+     * Where to send one file: either a single PUT to url with the given
+     * headers, which are part of its signature, or one PUT per part of
+     * partSize bytes (the last part may be shorter).
+     */
+    @Data
+    public static class FileTarget {
+        private String name;
+        private String url; // single-PUT files only
+        private Map<String, String> headers; // single-PUT files only
+        private Long partSize; // multipart files only
+        private List<PartTarget> parts;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartTarget {
+        private int partNumber;
+        private String url;
+    }
+}
@@ -0,0 +1,14 @@
+package com.skyvault.server.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class UploadSessionStatus {
+    private String sessionId;
+    private String status;
+    private String contentId; // once completed
+    private String message; // why completion failed
+    private Instant expiresAt;
+}
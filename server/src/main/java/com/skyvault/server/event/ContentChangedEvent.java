@@ -0,0 +1,36 @@
+package com.skyvault.server.event;
+
+import com.skyvault.server.model.DroneContent;
+
+/**
+ * Published after a DroneContent document is created, saved or deleted so the
+ * in-memory read models (search index, map clusters, ...) can update
+ * incrementally instead of re-reading the collection.
+ *
+ * @param content        the document as saved, or as it was before deletion
+ * @param previousStatus status before this change; null for new uploads
+ * @param deleted        true when the document no longer exists
+ */
+public record ContentChangedEvent(DroneContent content, DroneContent.ContentStatus previousStatus, boolean deleted) {
+
+    public static ContentChangedEvent created(DroneContent content) {
+        return new ContentChangedEvent(content, null, false);
+    }
+
+    public static ContentChangedEvent updated(DroneContent content, DroneContent.ContentStatus previousStatus) {
+        return new ContentChangedEvent(content, previousStatus, false);
+    }
+
+    public static ContentChangedEvent deleted(DroneContent content) {
+        return new ContentChangedEvent(content, content.getStatus(), true);
+    }
+
+    public String contentId() {
+        return content.getId();
+    }
+
+    // Approved and still present, i.e. visible on public read paths
+    public boolean isPubliclyVisible() {
+        return !deleted && content.getStatus() == DroneContent.ContentStatus.APPROVED;
+    }
+}
@@ -0,0 +1,25 @@
+package com.skyvault.server.event;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch of counter increments that has just been written to drone_content,
+ * keyed by content ID. Published by ContentCounterService after each flush
+ * and when an approved order credits earnings, so derived stores (analytics
+ * buckets, creator stats, leaderboards) stay in step without re-reading.
+ */
+public record ContentCountersEvent(Map<String, Long> views,
+                                   Map<String, Long> downloads,
+                                   Map<String, Double> earnings,
+                                   Instant occurredAt) {
+
+    public Set<String> contentIds() {
+        Set<String> ids = new HashSet<>(views.keySet());
+        ids.addAll(downloads.keySet());
+        ids.addAll(earnings.keySet());
+        return ids;
+    }
+}
@@ -0,0 +1,56 @@
+package com.skyvault.server.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Pre-aggregated counters for one content item or creator over one UTC hour
+ * or day. Written with $inc upserts so a time range is read as a handful of
+ * buckets instead of scanning individual events.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "analytics_buckets")
+@CompoundIndexes({
+    @CompoundIndex(name = "scope_owner_granularity_bucketStart",
+            def = "{'scope': 1, 'ownerId': 1, 'granularity': 1, 'bucketStart': 1}"),
+    @CompoundIndex(name = "granularity_scope_bucketStart",
+            def = "{'granularity': 1, 'scope': 1, 'bucketStart': 1}")
+})
+public class AnalyticsBucket {
+    @Id
+    private String id; // scope:ownerId:granularity:bucketStart epoch seconds
+    private Scope scope;
+    private String ownerId;
+    private Granularity granularity;
+    private Instant bucketStart;
+    private Long views;
+    private Long downloads;
+    private Double earnings;
+    @Indexed(expireAfter = "0s")
+    private Instant expireAt; // only set on hourly buckets
+
+    public enum Scope {
+        CONTENT, CREATOR
+    }
+
+    public enum Granularity {
+        HOURLY, DAILY;
+
+        public static Granularity fromString(String value) {
+            return Granularity.valueOf(value.toUpperCase());
+        }
+    }
+
+    public static String bucketId(Scope scope, String ownerId, Granularity granularity, Instant bucketStart) {
+        return scope.name().toLowerCase() + ":" + ownerId + ":" + granularity.name().toLowerCase()
+                + ":" + bucketStart.getEpochSecond();
+    }
+}
@@ -0,0 +1,29 @@
+package com.skyvault.server.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materialized dashboard totals for one creator, kept current with $inc
+ * updates as counters and statuses change and rebuilt from drone_content by
+ * aggregation when missing or during reconciliation.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "creator_stats")
+public class CreatorStats {
+    @Id
+    private String creatorId;
+    private Long views;
+    private Long downloads;
+    private Double earnings;
+    private Long totalContent;
+    private Map<String, Long> statusCounts = new HashMap<>(); // keyed by ContentStatus name
+    private LocalDateTime rebuiltAt;
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,6 +16,32 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "drone_content")
+@CompoundIndexes({
+    // Browse and filtered search: equality filters first, then the sort field and the
+    // _id tiebreak ContentQueryBuilder.sort adds, in the same direction
+    @CompoundIndex(name = "status_createdAt", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_category_createdAt", def = "{'status': 1, 'category': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_resolution_createdAt", def = "{'status': 1, 'resolution': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_licenseType_createdAt", def = "{'status': 1, 'licenseType': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_tags_createdAt", def = "{'status': 1, 'tags': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_price", def = "{'status': 1, 'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "status_title", def = "{'status': 1, 'title': 1, '_id': 1}"),
+    // Top-performing lists, and browse/cursor sorts by the same counters
+    @CompoundIndex(name = "status_views", def = "{'status': 1, 'views': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_downloads", def = "{'status': 1, 'downloads': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_earnings", def = "{'status': 1, 'earnings': -1}"),
+    // Creator dashboards and content management
+    @CompoundIndex(name = "creatorId_createdAt", def = "{'creatorId': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "creatorId_status_createdAt", def = "{'creatorId': 1, 'status': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "creatorId_category_createdAt", def = "{'creatorId': 1, 'category': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "creatorId_tags", def = "{'creatorId': 1, 'tags': 1}"),
+    // Content backed by a stored object: upload recovery and shared rendition/tile lookups
+    @CompoundIndex(name = "mediaFiles_id", def = "{'mediaFiles._id': 1}"),
+    // Rendition and tile backfills only examine content that has image files
+    @CompoundIndex(name = "mediaFiles_format", def = "{'mediaFiles.format': 1}"),
+    // Spatial search; the only 2dsphere index on the collection so $geoNear can pick it implicitly
+    @CompoundIndex(name = "geoLocation_status", def = "{'geoLocation': '2dsphere', 'status': 1}")
+})
 public class DroneContent {
     @Id
     private String id;
@@ -25,6 +54,7 @@ public class DroneContent {
     private List<String> tags;
     private String location;
     private Coordinates coordinates;
+    private GeoJsonPoint geoLocation; // [lng, lat] mirror of coordinates for spatial queries
     private String resolution;
     private Integer duration; // in seconds
     private String youtubePreview;
@@ -38,6 +68,7 @@ public class DroneContent {
     private MediaFile thumbnailFile;
     private ContentStatus status;
     private Integer views;
+    private Long uniqueViewers; // HyperLogLog estimate, refreshed by UniqueViewerService
     private Integer downloads;
     private Double earnings;
     private LocalDateTime createdAt;
@@ -49,6 +80,20 @@ public class DroneContent {
     public static class Coordinates {
         private String lat;
         private String lng;
+
+        // GeoJSON point for these coordinates, or null when they are missing or out of range
+        public GeoJsonPoint toGeoJsonPoint() {
+            try {
+                double latitude = Double.parseDouble(lat.trim());
+                double longitude = Double.parseDouble(lng.trim());
+                if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                    return null;
+                }
+                return new GeoJsonPoint(longitude, latitude);
+            } catch (NullPointerException | NumberFormatException e) {
+                return null;
+            }
+        }
     }
 
     @Data
@@ -64,6 +109,44 @@ public class DroneContent {
         private Integer width;
         private Integer height;
         private String originalName;
+        private String sha256; // content hash; identical uploads share one stored object (see BlobRegistryService)
+        private CaptureMetadata capture; // from the file's EXIF/XMP, if any
+        private List<Rendition> renditions; // downscaled JPEG copies, smallest first; empty if the file cannot be rendered
+        private DeepZoom deepZoom; // tile pyramid for large stills; prefix is null if the file could not be tiled
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rendition {
+        private String key; // S3 key, derived from the original's key
+        private Integer width;
+        private Integer height;
+        private Long size;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeepZoom {
+        private String prefix; // S3 key prefix; tiles are <prefix>/<level>/<column>_<row>.jpg
+        private Integer width;
+        private Integer height;
+        private Integer tileSize;
+        private Integer maxLevel; // full resolution
+        private Integer publicMaxLevel; // this level and below are watermarked and served to anyone
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CaptureMetadata {
+        private Double latitude;
+        private Double longitude;
+        private Double relativeAltitude; // metres above the take-off point
+        private Double absoluteAltitude; // metres above sea level
+        private LocalDateTime capturedAt;
+        private String cameraModel;
     }
 
     public enum LicenseType {
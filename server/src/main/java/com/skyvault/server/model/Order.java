@@ -2,6 +2,9 @@ package com.skyvault.server.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -9,16 +12,23 @@ import java.util.List;
 
 @Data
 @Document(collection = "orders")
+@CompoundIndexes({
+    @CompoundIndex(name = "creatorId_createdAt", def = "{'creatorId': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "buyerId_status", def = "{'buyerId': 1, 'status': 1}")
+})
 public class Order {
     @Id
     private String id;
     private String buyerId;
     private String buyerEmail;
+    @Indexed
     private List<String> contentIds;
     private String slipUrl;
     private Status status;
     private String creatorId;
     private List<String> contentTitles;
+    // Price paid for each entry of contentIds, captured at checkout
+    private List<Double> contentPrices;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,50 @@
+package com.skyvault.server.model;
+
+import com.skyvault.server.dto.ContentUploadRequest;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Server-side state of a resumable (tus-style) upload of one file. Each
+ * chunk becomes one part of an S3 multipart upload, and offset only moves
+ * forward once that part is stored, so a client that loses its connection
+ * asks for the offset and carries on from there. The SHA-256 is carried
+ * forward the same way, chunk by chunk, so the file never has to be read back.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "resumable_uploads")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}"),
+    @CompoundIndex(name = "status_updatedAt", def = "{'status': 1, 'updatedAt': 1}")
+})
+public class ResumableUpload {
+    @Id
+    private String id;
+    private String creatorId;
+    private ContentUploadRequest request;
+    private String originalName;
+    private String contentType;
+    private Long length; // declared total size in bytes
+    private Long offset; // bytes stored so far; always a multiple of chunkSize until the end
+    private Integer chunkSize;
+    private String s3Key;
+    private String uploadId;
+    private String sha256State; // Sha256State after offset bytes; null for uploads begun before chunks were hashed
+    private String sha256; // of the whole file, once the last chunk is stored
+    private Status status;
+    private String contentId; // set once completed
+    private Instant createdAt;
+    private Instant expiresAt; // pushed back by every chunk
+    private Instant updatedAt; // last status change; a COMPLETING upload left alone too long was abandoned
+
+    public enum Status {
+        OPEN, COMPLETING, COMPLETED, FAILED, ABORTED, EXPIRED
+    }
+}
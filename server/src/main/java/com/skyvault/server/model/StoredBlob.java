@@ -0,0 +1,27 @@
+package com.skyvault.server.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One stored media object, keyed by the SHA-256 of its bytes. refCount is
+ * the number of MediaFile entries across all content that point at s3Key;
+ * the object is deleted when the last of them goes.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "stored_blobs")
+public class StoredBlob {
+    @Id
+    private String sha256;
+    @Indexed(unique = true)
+    private String s3Key;
+    private Long size;
+    private Long refCount;
+    private Instant createdAt;
+}
@@ -0,0 +1,57 @@
+package com.skyvault.server.model;
+
+import com.skyvault.server.dto.ContentUploadRequest;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A direct-to-S3 upload in progress. The browser PUTs each file to the
+ * presigned URLs issued when the session was opened; on completion the
+ * stored objects are checked against the declared sizes and checksums
+ * before the content item is created. Sessions with multipart files are
+ * checked in the background, so they stay COMPLETING until that finishes.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "upload_sessions")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}"),
+    @CompoundIndex(name = "status_updatedAt", def = "{'status': 1, 'updatedAt': 1}")
+})
+public class UploadSession {
+    @Id
+    private String id;
+    private String creatorId;
+    private ContentUploadRequest request;
+    private List<SessionFile> files = new ArrayList<>();
+    private Status status;
+    private String contentId; // set once completed
+    private String error; // why a background completion failed
+    private Instant createdAt;
+    private Instant expiresAt;
+    private Instant updatedAt; // last status change; a COMPLETING session left alone too long was abandoned
+
+    public enum Status {
+        OPEN, COMPLETING, COMPLETED, FAILED, ABORTED, EXPIRED
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SessionFile {
+        private String originalName;
+        private String contentType;
+        private Long size;
+        private String sha256; // lowercase hex, as declared by the client
+        private String s3Key;
+        private String uploadId; // null for single-PUT files
+        private Integer partCount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.skyvault.server.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted HyperLogLog registers of distinct viewers for one content item.
+ * Kept out of drone_content so listings do not drag 4 KB of registers along.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "content_viewer_sketches")
+public class ViewerSketch {
+    @Id
+    private String contentId;
+    private byte[] registers;
+    private Long estimate;
+    @Version
+    private Long version;
+    private LocalDateTime updatedAt;
+}
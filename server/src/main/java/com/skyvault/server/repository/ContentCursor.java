@@ -0,0 +1,89 @@
+package com.skyvault.server.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor. Keyset cursors carry the sort field, its value
+ * and the _id of the last row served, so the next page continues in the
+ * same order; relevance-ranked keyword results come from the in-memory
+ * index and carry a rank offset instead, which costs nothing to skip.
+ */
+public record ContentCursor(String field, Object value, String id, int offset) {
+
+    private static final String KEYSET = "k";
+    private static final String OFFSET = "o";
+
+    public static ContentCursor after(String field, Object value, String id) {
+        return new ContentCursor(field, value, id, 0);
+    }
+
+    public static ContentCursor atOffset(int offset) {
+        return new ContentCursor(null, null, null, offset);
+    }
+
+    public boolean isKeyset() {
+        return id != null;
+    }
+
+    public String encode() {
+        // The value goes last, so a title containing the separator still decodes
+        String raw = isKeyset()
+                ? KEYSET + "|" + field + "|" + id + "|" + typeTag(value) + "|" + (value == null ? "" : value)
+                : OFFSET + "|" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a request. Blank means the first page and yields null.
+     */
+    public static ContentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (KEYSET.equals(parts[0]) && parts.length == 5) {
+                return after(parts[1], parseValue(parts[3], parts[4]), parts[2]);
+            }
+            if (OFFSET.equals(parts[0]) && parts.length == 2) {
+                return atOffset(Math.max(0, Integer.parseInt(parts[1])));
+            }
+        } catch (RuntimeException e) {
+            // fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    private static String typeTag(Object value) {
+        if (value == null) {
+            return "n";
+        }
+        if (value instanceof LocalDateTime) {
+            return "t";
+        }
+        if (value instanceof Double) {
+            return "d";
+        }
+        if (value instanceof Integer) {
+            return "i";
+        }
+        if (value instanceof String) {
+            return "s";
+        }
+        throw new IllegalArgumentException("Unsupported cursor value: " + value.getClass().getSimpleName());
+    }
+
+    private static Object parseValue(String tag, String value) {
+        return switch (tag) {
+            case "n" -> null;
+            case "t" -> LocalDateTime.parse(value);
+            case "d" -> Double.parseDouble(value);
+            case "i" -> Integer.parseInt(value);
+            case "s" -> value;
+            default -> throw new IllegalArgumentException("Invalid cursor");
+        };
+    }
+}
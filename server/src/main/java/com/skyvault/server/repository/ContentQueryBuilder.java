@@ -0,0 +1,162 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.dto.ContentSearchRequest;
+import com.skyvault.server.model.DroneContent;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a ContentSearchRequest into one Mongo query. Equality filters come
+ * first so the compound (status, field, createdAt, _id) indexes on DroneContent
+ * can serve the filter and the default sort from a single index scan.
+ */
+public final class ContentQueryBuilder {
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of(
+            "createdAt", "price", "views", "downloads", "title");
+
+    private ContentQueryBuilder() {
+    }
+
+    public static Criteria criteria(ContentSearchRequest request) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(Criteria.where("status").is(DroneContent.ContentStatus.APPROVED));
+
+        if (hasText(request.getCategory())) {
+            clauses.add(Criteria.where("category").is(request.getCategory().trim()));
+        }
+        if (hasText(request.getResolution())) {
+            clauses.add(Criteria.where("resolution").is(request.getResolution().trim()));
+        }
+        DroneContent.LicenseType licenseType = licenseType(request.getLicenseType());
+        if (licenseType != null) {
+            clauses.add(Criteria.where("licenseType").is(licenseType));
+        }
+        if (request.getTags() != null && !request.getTags().isEmpty()) {
+            clauses.add(Criteria.where("tags").in(request.getTags()));
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (request.getMinPrice() != null) {
+                price = price.gte(request.getMinPrice());
+            }
+            if (request.getMaxPrice() != null) {
+                price = price.lte(request.getMaxPrice());
+            }
+            clauses.add(price);
+        }
+        // Location is free text; it is only evaluated on documents the indexed predicates already matched
+        if (hasText(request.getLocation())) {
+            clauses.add(Criteria.where("location")
+                    .regex(Pattern.compile(Pattern.quote(request.getLocation().trim()), Pattern.CASE_INSENSITIVE)));
+        }
+
+        return new Criteria().andOperator(clauses);
+    }
+
+    /**
+     * Query for the request, restricted to the given IDs unless they are null.
+     * Sort and paging are left to the caller.
+     */
+    public static Query query(ContentSearchRequest request, Collection<String> restrictToIds) {
+        Criteria criteria = criteria(request);
+        if (restrictToIds != null) {
+            criteria = new Criteria().andOperator(criteria, Criteria.where("_id").in(restrictToIds));
+        }
+        return new Query(criteria);
+    }
+
+    /**
+     * Up to limit rows strictly past the cursor row in (field, _id) order, or
+     * from the start when there is no cursor.
+     */
+    public static Query keysetQuery(ContentSearchRequest request, Collection<String> restrictToIds,
+                                    String field, ContentCursor after, Sort.Direction direction, int limit) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(criteria(request));
+        if (restrictToIds != null) {
+            clauses.add(Criteria.where("_id").in(restrictToIds));
+        }
+        if (after != null && after.isKeyset()) {
+            clauses.add(pastCursor(field, after, direction == Sort.Direction.DESC));
+        }
+        return new Query(new Criteria().andOperator(clauses))
+                .with(Sort.by(direction, field).and(Sort.by(direction, "_id")))
+                .limit(limit);
+    }
+
+    public static boolean hasFilters(ContentSearchRequest request) {
+        return hasText(request.getCategory())
+                || hasText(request.getResolution())
+                || licenseType(request.getLicenseType()) != null
+                || (request.getTags() != null && !request.getTags().isEmpty())
+                || request.getMinPrice() != null
+                || request.getMaxPrice() != null
+                || hasText(request.getLocation());
+    }
+
+    /**
+     * Sort for the request, falling back to newest first. _id breaks ties so
+     * paging over equal sort keys is stable.
+     */
+    public static Sort sort(ContentSearchRequest request) {
+        String field = sortField(request);
+        Sort.Direction direction = "asc".equalsIgnoreCase(request.getSortDirection())
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+        return Sort.by(direction, field).and(Sort.by(direction, "_id"));
+    }
+
+    // The requested sort field if it is sortable, otherwise createdAt
+    public static String sortField(ContentSearchRequest request) {
+        return request.getSortBy() != null && SORTABLE_FIELDS.contains(request.getSortBy())
+                ? request.getSortBy()
+                : "createdAt";
+    }
+
+    // (field, _id) strictly past the cursor row. Mongo sorts missing/null values lowest,
+    // so they come first ascending and last descending; $lt/$gt never match them.
+    private static Criteria pastCursor(String field, ContentCursor after, boolean desc) {
+        Criteria sameValueLaterId = desc
+                ? Criteria.where(field).is(after.value()).and("_id").lt(after.id())
+                : Criteria.where(field).is(after.value()).and("_id").gt(after.id());
+        if (after.value() == null) {
+            return desc
+                    ? sameValueLaterId
+                    : new Criteria().orOperator(sameValueLaterId, Criteria.where(field).ne(null));
+        }
+        Criteria beyondValue = desc
+                ? Criteria.where(field).lt(after.value())
+                : Criteria.where(field).gt(after.value());
+        Criteria past = desc
+                ? new Criteria().orOperator(beyondValue, sameValueLaterId, Criteria.where(field).is(null))
+                : new Criteria().orOperator(beyondValue, sameValueLaterId);
+        // The $or is only a filter; this range gives the (status, field, _id) index scan its start at the cursor row
+        Criteria fromCursor = desc
+                ? Criteria.where(field).not().gt(after.value())
+                : Criteria.where(field).gte(after.value());
+        return new Criteria().andOperator(fromCursor, past);
+    }
+
+    private static DroneContent.LicenseType licenseType(String value) {
+        if (!hasText(value)) {
+            return null;
+        }
+        try {
+            return DroneContent.LicenseType.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface ContentRepository extends MongoRepository<DroneContent, String> {
+public interface ContentRepository extends MongoRepository<DroneContent, String>, ContentRepositoryCustom {
     
     // Creator-specific queries
     Page<DroneContent> findByCreatorId(String creatorId, Pageable pageable);
@@ -77,4 +77,8 @@ public interface ContentRepository extends MongoRepository<DroneContent, String>
     
     @Query("{ 'creatorId': ?0, 'tags': { $in: [?1] } }")
     Page<DroneContent> findByCreatorIdAndTagsContaining(String creatorId, String tag, Pageable pageable);
+    
+    // Whether any of these stored objects already backs a content item
+    @Query(value = "{ 'mediaFiles._id': { $in: ?0 } }", exists = true)
+    boolean existsByMediaFileKeys(List<String> s3Keys);
 }
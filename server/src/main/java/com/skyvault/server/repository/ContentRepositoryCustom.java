@@ -0,0 +1,44 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.dto.ContentSearchRequest;
+import com.skyvault.server.model.DroneContent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ContentRepositoryCustom {
+
+    // Approved content matching every filter on the request, optionally restricted to a candidate ID set
+    Page<DroneContent> searchApproved(ContentSearchRequest request, Collection<String> restrictToIds, Pageable pageable);
+
+    // Keyset page of approved content ordered by (sort field, _id), starting after the cursor row
+    List<DroneContent> searchApprovedAfter(ContentSearchRequest request, Collection<String> restrictToIds,
+                                           String field, ContentCursor after, Sort.Direction direction, int limit);
+
+    // Page of approved content and the category/resolution/licenseType/price facets in one $facet round trip.
+    // A null pageable computes facets only.
+    FacetedContent searchWithFacets(ContentSearchRequest request, Collection<String> restrictToIds, Pageable pageable);
+
+    // Approved content within maxDistance of the point, nearest first
+    GeoResults<DroneContent> findApprovedNear(Point point, Distance maxDistance, int limit);
+
+    // Approved content inside the box, ordered by distance from its centre
+    GeoResults<DroneContent> findApprovedWithinBox(double minLat, double minLng, double maxLat, double maxLng, int limit);
+
+    // IDs from the candidate set that satisfy the request filters (projection on _id only)
+    Set<String> findMatchingIds(ContentSearchRequest request, Collection<String> candidateIds);
+
+    // contentId -> creatorId for the given IDs (projection on creatorId only)
+    Map<String, String> findCreatorIds(Collection<String> contentIds);
+
+    // Content count and counter sums per (creator, status), for one creator or all when creatorId is null
+    List<CreatorStatusTotals> aggregateCreatorTotals(String creatorId);
+}
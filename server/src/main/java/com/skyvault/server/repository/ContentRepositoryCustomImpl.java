@@ -0,0 +1,223 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.dto.ContentSearchRequest;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.dto.FacetBucket;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ContentRepositoryCustomImpl implements ContentRepositoryCustom {
+
+    // Price facet bucket boundaries; upload validation caps price at 10,000
+    private static final Double[] PRICE_BOUNDARIES = {0.0, 25.0, 50.0, 100.0, 250.0, 500.0, 1000.0, 10000.01};
+    private static final List<String> TERM_FACETS = List.of("category", "resolution", "licenseType");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<DroneContent> searchApproved(ContentSearchRequest request, Collection<String> restrictToIds, Pageable pageable) {
+        Query query = ContentQueryBuilder.query(request, restrictToIds).with(pageable);
+        List<DroneContent> content = mongoTemplate.find(query, DroneContent.class);
+
+        // Only pays for the count when the page itself cannot tell us the total
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), DroneContent.class));
+    }
+
+    @Override
+    public List<DroneContent> searchApprovedAfter(ContentSearchRequest request, Collection<String> restrictToIds,
+                                                  String field, ContentCursor after, Sort.Direction direction, int limit) {
+        Query query = ContentQueryBuilder.keysetQuery(request, restrictToIds, field, after, direction, limit);
+        return mongoTemplate.find(query, DroneContent.class);
+    }
+
+    @Override
+    public FacetedContent searchWithFacets(ContentSearchRequest request, Collection<String> restrictToIds, Pageable pageable) {
+        Criteria criteria = ContentQueryBuilder.criteria(request);
+        if (restrictToIds != null) {
+            criteria = new Criteria().andOperator(criteria, Criteria.where("_id").in(restrictToIds));
+        }
+
+        FacetOperation facets = Aggregation.facet(Aggregation.sortByCount("category")).as("category")
+                .and(Aggregation.sortByCount("resolution")).as("resolution")
+                .and(Aggregation.sortByCount("licenseType")).as("licenseType")
+                .and(Aggregation.bucket("price")
+                        .withBoundaries((Object[]) PRICE_BOUNDARIES)
+                        .withDefaultBucket("other")
+                        .andOutputCount().as("count")).as("price");
+        if (pageable != null) {
+            facets = facets
+                    .and(Aggregation.sort(pageable.getSort()),
+                         Aggregation.skip(pageable.getOffset()),
+                         Aggregation.limit(pageable.getPageSize())).as("results")
+                    .and(Aggregation.count().as("total")).as("total");
+        }
+
+        TypedAggregation<DroneContent> aggregation = Aggregation.newAggregation(
+                DroneContent.class, Aggregation.match(criteria), facets);
+        Document output = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (output == null) {
+            return new FacetedContent(List.of(), 0, Map.of());
+        }
+
+        Map<String, List<FacetBucket>> buckets = new LinkedHashMap<>();
+        for (String facet : TERM_FACETS) {
+            List<FacetBucket> values = new ArrayList<>();
+            for (Document bucket : output.getList(facet, Document.class, List.of())) {
+                if (bucket.get("_id") != null) {
+                    values.add(new FacetBucket(bucket.get("_id").toString(), ((Number) bucket.get("count")).longValue()));
+                }
+            }
+            buckets.put(facet, values);
+        }
+        buckets.put("price", priceBuckets(output.getList("price", Document.class, List.of())));
+
+        List<DroneContent> content = new ArrayList<>();
+        long total = 0;
+        if (pageable != null) {
+            for (Document row : output.getList("results", Document.class, List.of())) {
+                content.add(mongoTemplate.getConverter().read(DroneContent.class, row));
+            }
+            List<Document> totals = output.getList("total", Document.class, List.of());
+            total = totals.isEmpty() ? 0 : ((Number) totals.get(0).get("total")).longValue();
+        }
+        return new FacetedContent(content, total, buckets);
+    }
+
+    // Label $bucket output by its range, e.g. "50-100", keeping boundary order
+    private static List<FacetBucket> priceBuckets(List<Document> raw) {
+        List<FacetBucket> buckets = new ArrayList<>();
+        for (Document bucket : raw) {
+            Object lower = bucket.get("_id");
+            long count = ((Number) bucket.get("count")).longValue();
+            if (!(lower instanceof Number)) {
+                buckets.add(new FacetBucket("other", count));
+                continue;
+            }
+            double from = ((Number) lower).doubleValue();
+            String label = String.valueOf((long) from);
+            for (int i = 0; i < PRICE_BOUNDARIES.length - 1; i++) {
+                if (PRICE_BOUNDARIES[i] == from) {
+                    label = (long) from + "-" + Math.round(PRICE_BOUNDARIES[i + 1]);
+                    break;
+                }
+            }
+            buckets.add(new FacetBucket(label, count));
+        }
+        return buckets;
+    }
+
+    @Override
+    public GeoResults<DroneContent> findApprovedNear(Point point, Distance maxDistance, int limit) {
+        NearQuery near = NearQuery.near(new GeoJsonPoint(point))
+                .spherical(true)
+                .maxDistance(maxDistance)
+                .query(new Query(Criteria.where("status").is(DroneContent.ContentStatus.APPROVED)))
+                .limit(limit);
+        return mongoTemplate.geoNear(near, DroneContent.class);
+    }
+
+    @Override
+    public GeoResults<DroneContent> findApprovedWithinBox(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new Point(minLng, minLat), new Point(maxLng, minLat),
+                new Point(maxLng, maxLat), new Point(minLng, maxLat),
+                new Point(minLng, minLat));
+        Point centre = new Point((minLng + maxLng) / 2, (minLat + maxLat) / 2);
+
+        // $geoNear from the centre gives distance ordering; $geoWithin clips results to the box
+        NearQuery near = NearQuery.near(new GeoJsonPoint(centre))
+                .spherical(true)
+                .query(new Query(new Criteria().andOperator(
+                        Criteria.where("status").is(DroneContent.ContentStatus.APPROVED),
+                        Criteria.where("geoLocation").within(box))))
+                .inKilometers()
+                .limit(limit);
+        return mongoTemplate.geoNear(near, DroneContent.class);
+    }
+
+    @Override
+    public Set<String> findMatchingIds(ContentSearchRequest request, Collection<String> candidateIds) {
+        Query query = ContentQueryBuilder.query(request, candidateIds);
+        query.fields().include("_id");
+
+        Set<String> ids = new HashSet<>();
+        for (DroneContent content : mongoTemplate.find(query, DroneContent.class)) {
+            ids.add(content.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<String, String> findCreatorIds(Collection<String> contentIds) {
+        Query query = Query.query(Criteria.where("_id").in(contentIds));
+        query.fields().include("creatorId");
+
+        Map<String, String> creatorIds = new HashMap<>();
+        for (DroneContent content : mongoTemplate.find(query, DroneContent.class)) {
+            if (content.getCreatorId() != null) {
+                creatorIds.put(content.getId(), content.getCreatorId());
+            }
+        }
+        return creatorIds;
+    }
+
+    @Override
+    public List<CreatorStatusTotals> aggregateCreatorTotals(String creatorId) {
+        List<CreatorStatusTotals> totals = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(creatorTotals(creatorId), Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            String status = id.getString("status");
+            totals.add(new CreatorStatusTotals(
+                    id.getString("creatorId"),
+                    status != null ? DroneContent.ContentStatus.valueOf(status) : null,
+                    ((Number) row.get("count")).longValue(),
+                    ((Number) row.get("views")).longValue(),
+                    ((Number) row.get("downloads")).longValue(),
+                    ((Number) row.get("earnings")).doubleValue()));
+        }
+        return totals;
+    }
+
+    // Per creator and status sums; one creator, or every creator when creatorId is null
+    public static TypedAggregation<DroneContent> creatorTotals(String creatorId) {
+        Criteria criteria = creatorId != null
+                ? Criteria.where("creatorId").is(creatorId)
+                : Criteria.where("creatorId").ne(null);
+        return Aggregation.newAggregation(
+                DroneContent.class,
+                Aggregation.match(criteria),
+                Aggregation.group("creatorId", "status")
+                        .count().as("count")
+                        .sum(ConditionalOperators.ifNull("views").then(0)).as("views")
+                        .sum(ConditionalOperators.ifNull("downloads").then(0)).as("downloads")
+                        .sum(ConditionalOperators.ifNull("earnings").then(0)).as("earnings"));
+    }
+}
@@ -0,0 +1,9 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.model.CreatorStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CreatorStatsRepository extends MongoRepository<CreatorStats, String> {
+}
@@ -0,0 +1,8 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.model.DroneContent;
+
+// One (creator, status) group from the creator stats aggregation; null counters count as zero
+public record CreatorStatusTotals(String creatorId, DroneContent.ContentStatus status,
+                                  long count, long views, long downloads, double earnings) {
+}
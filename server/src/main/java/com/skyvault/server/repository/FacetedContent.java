@@ -0,0 +1,14 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.dto.FacetBucket;
+import com.skyvault.server.model.DroneContent;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one $facet aggregation: the requested page (empty when only
+ * facets were asked for), its total, and the facet buckets.
+ */
+public record FacetedContent(List<DroneContent> content, long total, Map<String, List<FacetBucket>> facets) {
+}
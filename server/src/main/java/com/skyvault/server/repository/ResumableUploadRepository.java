@@ -0,0 +1,14 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.model.ResumableUpload;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ResumableUploadRepository extends MongoRepository<ResumableUpload, String> {
+
+    List<ResumableUpload> findTop100ByStatusAndExpiresAtBefore(ResumableUpload.Status status, Instant cutoff);
+}
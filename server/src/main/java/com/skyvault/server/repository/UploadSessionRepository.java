@@ -0,0 +1,14 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.model.UploadSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+
+    List<UploadSession> findTop100ByStatusAndExpiresAtBefore(UploadSession.Status status, Instant cutoff);
+}
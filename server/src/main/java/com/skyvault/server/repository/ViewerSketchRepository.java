@@ -0,0 +1,9 @@
+package com.skyvault.server.repository;
+
+import com.skyvault.server.model.ViewerSketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ViewerSketchRepository extends MongoRepository<ViewerSketch, String> {
+}
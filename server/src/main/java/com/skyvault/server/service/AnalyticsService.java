@@ -0,0 +1,175 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.TimeSeriesPoint;
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.AnalyticsBucket;
+import com.skyvault.server.model.AnalyticsBucket.Granularity;
+import com.skyvault.server.model.AnalyticsBucket.Scope;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-bucketed view/download/earnings analytics. Every counter flush is
+ * folded into hourly and daily buckets per content item and per creator with
+ * one bulk of $inc upserts, so a chart over a year reads at most 366 daily
+ * buckets.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsService {
+
+    private static final long MAX_HOURLY_RANGE_DAYS = 31;
+    private static final long MAX_DAILY_RANGE_DAYS = 366;
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentRepository contentRepository;
+
+    @Value("${analytics.hourly-retention-days:90}")
+    private long hourlyRetentionDays;
+
+    @EventListener
+    public void onCountersFlushed(ContentCountersEvent event) {
+        try {
+            record(event);
+        } catch (Exception e) {
+            // Counters on drone_content are already correct; only the chart loses this batch
+            log.error("Failed to record analytics buckets for {} content items", event.contentIds().size(), e);
+        }
+    }
+
+    public List<TimeSeriesPoint> getCreatorTimeSeries(String creatorId, String granularity, Instant from, Instant to) {
+        return readSeries(Scope.CREATOR, creatorId, parseGranularity(granularity), from, to);
+    }
+
+    public List<TimeSeriesPoint> getContentTimeSeries(String contentId, String creatorId, String granularity,
+                                                      Instant from, Instant to) {
+        DroneContent content = contentRepository.findById(contentId)
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+
+        if (!content.getCreatorId().equals(creatorId)) {
+            throw new RuntimeException("You can only view stats for your own content");
+        }
+        return readSeries(Scope.CONTENT, contentId, parseGranularity(granularity), from, to);
+    }
+
+    private void record(ContentCountersEvent event) {
+        Map<String, String> creatorIds = contentRepository.findCreatorIds(event.contentIds());
+        if (creatorIds.isEmpty()) {
+            return;
+        }
+
+        // Fold per-content deltas into per-creator totals before writing
+        Map<String, long[]> creatorCounts = new HashMap<>();
+        Map<String, Double> creatorEarnings = new HashMap<>();
+        for (Map.Entry<String, String> entry : creatorIds.entrySet()) {
+            String contentId = entry.getKey();
+            long[] counts = creatorCounts.computeIfAbsent(entry.getValue(), id -> new long[2]);
+            counts[0] += event.views().getOrDefault(contentId, 0L);
+            counts[1] += event.downloads().getOrDefault(contentId, 0L);
+            creatorEarnings.merge(entry.getValue(), event.earnings().getOrDefault(contentId, 0.0), Double::sum);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsBucket.class);
+        for (Granularity granularity : Granularity.values()) {
+            Instant bucketStart = truncate(event.occurredAt(), granularity);
+            for (String contentId : creatorIds.keySet()) {
+                upsert(bulk, Scope.CONTENT, contentId, granularity, bucketStart,
+                        event.views().getOrDefault(contentId, 0L),
+                        event.downloads().getOrDefault(contentId, 0L),
+                        event.earnings().getOrDefault(contentId, 0.0));
+            }
+            for (Map.Entry<String, long[]> entry : creatorCounts.entrySet()) {
+                upsert(bulk, Scope.CREATOR, entry.getKey(), granularity, bucketStart,
+                        entry.getValue()[0], entry.getValue()[1], creatorEarnings.get(entry.getKey()));
+            }
+        }
+        bulk.execute();
+    }
+
+    private void upsert(BulkOperations bulk, Scope scope, String ownerId, Granularity granularity,
+                        Instant bucketStart, long views, long downloads, double earnings) {
+        Update update = new Update()
+                .setOnInsert("scope", scope)
+                .setOnInsert("ownerId", ownerId)
+                .setOnInsert("granularity", granularity)
+                .setOnInsert("bucketStart", bucketStart)
+                .inc("views", views)
+                .inc("downloads", downloads)
+                .inc("earnings", earnings);
+        if (granularity == Granularity.HOURLY) {
+            update.setOnInsert("expireAt", bucketStart.plus(hourlyRetentionDays, ChronoUnit.DAYS));
+        }
+        String id = AnalyticsBucket.bucketId(scope, ownerId, granularity, bucketStart);
+        bulk.upsert(Query.query(Criteria.where("_id").is(id)), update);
+    }
+
+    private List<TimeSeriesPoint> readSeries(Scope scope, String ownerId, Granularity granularity,
+                                             Instant from, Instant to) {
+        Instant start = truncate(from, granularity);
+        Instant end = truncate(to, granularity);
+        if (end.isBefore(start)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        long maxDays = granularity == Granularity.HOURLY ? MAX_HOURLY_RANGE_DAYS : MAX_DAILY_RANGE_DAYS;
+        if (Duration.between(start, end).toDays() > maxDays) {
+            throw new RuntimeException("Range too large for " + granularity.name().toLowerCase()
+                    + " buckets (max " + maxDays + " days)");
+        }
+
+        Query query = Query.query(Criteria.where("scope").is(scope)
+                        .and("ownerId").is(ownerId)
+                        .and("granularity").is(granularity)
+                        .and("bucketStart").gte(start).lte(end))
+                .with(Sort.by("bucketStart"));
+        Map<Instant, AnalyticsBucket> buckets = new HashMap<>();
+        for (AnalyticsBucket bucket : mongoTemplate.find(query, AnalyticsBucket.class)) {
+            buckets.put(bucket.getBucketStart(), bucket);
+        }
+
+        // Zero-fill so charts get one point per bucket
+        List<TimeSeriesPoint> series = new ArrayList<>();
+        ChronoUnit step = granularity == Granularity.HOURLY ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        for (Instant bucketStart = start; !bucketStart.isAfter(end); bucketStart = bucketStart.plus(1, step)) {
+            AnalyticsBucket bucket = buckets.get(bucketStart);
+            series.add(bucket == null
+                    ? new TimeSeriesPoint(bucketStart, 0, 0, 0)
+                    : new TimeSeriesPoint(bucketStart,
+                            bucket.getViews() != null ? bucket.getViews() : 0,
+                            bucket.getDownloads() != null ? bucket.getDownloads() : 0,
+                            bucket.getEarnings() != null ? bucket.getEarnings() : 0));
+        }
+        return series;
+    }
+
+    private Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.fromString(granularity);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid granularity: " + granularity);
+        }
+    }
+
+    private static Instant truncate(Instant instant, Granularity granularity) {
+        return instant.truncatedTo(granularity == Granularity.HOURLY ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,135 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Content-addressed storage for uploaded media. Every hashed upload is
+ * registered under its SHA-256; when the hash is already known the new copy
+ * is deleted and the MediaFile is pointed at the existing object instead, so
+ * a re-uploaded clip costs one small document rather than a second object.
+ * Reference counts decide when an object may actually be removed.
+ *
+ * Duplicates are only detected from hashes computed over bytes the server
+ * has seen stored, never from a client's claim, so knowing a file's hash
+ * is not enough to gain a reference to it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobRegistryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final S3Service s3Service;
+
+    /**
+     * Take a reference for each file and return the files as they should be
+     * saved: duplicates point at the existing object. The given MediaFile
+     * objects are not modified, so callers can still clean up what they
+     * uploaded if saving fails.
+     */
+    public List<DroneContent.MediaFile> register(List<DroneContent.MediaFile> files) {
+        List<DroneContent.MediaFile> registered = new ArrayList<>(files.size());
+        try {
+            for (DroneContent.MediaFile file : files) {
+                registered.add(register(file));
+            }
+        } catch (RuntimeException e) {
+            unregister(registered);
+            throw e;
+        }
+        return registered;
+    }
+
+    /**
+     * Drop one reference per file, deleting each object nobody references
+     * any more, together with its renditions and tiles. Files stored before hashing
+     * was introduced are deleted outright.
+     */
+    public void unregister(List<DroneContent.MediaFile> files) {
+        for (DroneContent.MediaFile file : files) {
+            if (file.getSha256() == null || release(file)) {
+                s3Service.deleteFiles(List.of(file));
+                if (file.getRenditions() != null && !file.getRenditions().isEmpty()) {
+                    s3Service.deleteKeys(file.getRenditions().stream().map(DroneContent.Rendition::getKey).toList());
+                }
+                if (file.getDeepZoom() != null && file.getDeepZoom().getPrefix() != null) {
+                    s3Service.deleteKeys(DeepZoomService.tileKeys(file.getDeepZoom()));
+                }
+            }
+        }
+    }
+
+    private DroneContent.MediaFile register(DroneContent.MediaFile file) {
+        if (file.getSha256() == null) {
+            return file;
+        }
+        StoredBlob blob;
+        try {
+            blob = acquire(file);
+        } catch (DuplicateKeyException e) {
+            // Two first uploads of the same bytes raced on the upsert; the loser now finds the winner's entry
+            blob = acquire(file);
+        }
+        if (blob.getS3Key().equals(file.getId())) {
+            return file;
+        }
+
+        log.info("Duplicate upload {} matches stored object {}; reusing it", file.getId(), blob.getS3Key());
+        s3Service.deleteFiles(List.of(file));
+        DroneContent.MediaFile shared = copy(file);
+        shared.setId(blob.getS3Key());
+        shared.setUrl(s3Service.privateUrl(blob.getS3Key()));
+        return shared;
+    }
+
+    private StoredBlob acquire(DroneContent.MediaFile file) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(file.getSha256())),
+                new Update()
+                        .setOnInsert("s3Key", file.getId())
+                        .setOnInsert("size", file.getSize())
+                        .setOnInsert("createdAt", Instant.now())
+                        .inc("refCount", 1),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                StoredBlob.class);
+    }
+
+    // True when the caller should delete the object: its last reference is gone, or it was never registered
+    private boolean release(DroneContent.MediaFile file) {
+        StoredBlob blob = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(file.getSha256()).and("s3Key").is(file.getId())),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                StoredBlob.class);
+        if (blob == null) {
+            return true;
+        }
+        if (blob.getRefCount() > 0) {
+            return false;
+        }
+        // Conditional remove: a concurrent register may have taken a new reference in the meantime
+        return mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(file.getSha256()).and("refCount").lte(0)),
+                StoredBlob.class) != null;
+    }
+
+    private static DroneContent.MediaFile copy(DroneContent.MediaFile file) {
+        return new DroneContent.MediaFile(file.getId(), file.getUrl(), file.getType(), file.getFormat(),
+                file.getSize(), file.getDuration(), file.getWidth(), file.getHeight(), file.getOriginalName(),
+                file.getSha256(), file.getCapture(), file.getRenditions(), file.getDeepZoom());
+    }
+}
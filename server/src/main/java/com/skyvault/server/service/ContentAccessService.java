@@ -20,10 +20,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ContentAccessService {
     
+    private static final int DEFAULT_THUMBNAIL_WIDTH = 320;
+    
     private final ContentRepository contentRepository;
     private final UserRepository userRepository;
     private final S3Service s3Service;
     private final OrderRepository orderRepository; // Add this line
+    private final ContentCounterService contentCounterService;
     
     /**
      * Check if user has access to content
@@ -139,11 +142,13 @@ public class ContentAccessService {
                 .orElseThrow(() -> new RuntimeException("Private file not found"));
         
         // Generate presigned download URL for private S3 file (download-only, no streaming)
-        return s3Service.generateDownloadPresignedUrl(
+        String downloadUrl = s3Service.generateDownloadPresignedUrl(
             fileId, // S3 key
             mediaFile.getOriginalName(), 
             expirationMinutes
         );
+        recordDownload(userId, content);
+        return downloadUrl;
     }
     
     /**
@@ -181,27 +186,48 @@ public class ContentAccessService {
         }
         
         log.info("Generated {} download URLs for private content", downloadUrls.size());
+        if (!downloadUrls.isEmpty()) {
+            recordDownload(userId, content);
+        }
         return downloadUrls;
     }
     
     /**
-     * Check if content has thumbnail available for public display
+     * Count a download against the content unless the creator is fetching their own files
      */
-    public String generateThumbnailUrl(String contentId) {
+    private void recordDownload(String userId, DroneContent content) {
+        if (!userId.equals(content.getCreatorId())) {
+            contentCounterService.recordDownload(content.getId());
+        }
+    }
+    
+    /**
+     * Check if content has thumbnail available for public display.
+     * Serves the closest downscaled rendition to the requested width when
+     * one exists, otherwise the original file.
+     */
+    public String generateThumbnailUrl(String contentId, Integer width) {
         try {
             DroneContent content = contentRepository.findById(contentId).orElse(null);
             if (content == null || content.getMediaFiles() == null || content.getMediaFiles().isEmpty()) {
                 return null;
             }
             
-            // Find first image file for thumbnail or generate from first video
-            DroneContent.MediaFile thumbnailFile = content.getMediaFiles().stream()
-                    .filter(file -> file.getType().equals("image"))
-                    .findFirst()
-                    .orElse(content.getMediaFiles().get(0));
+            // Prefer the chosen thumbnail, then any file that has renditions, then the first file
+            DroneContent.MediaFile thumbnailFile = content.getThumbnailFile();
+            if (thumbnailFile == null || RenditionService.pick(thumbnailFile, 0) == null) {
+                thumbnailFile = content.getMediaFiles().stream()
+                        .filter(file -> RenditionService.pick(file, 0) != null)
+                        .findFirst()
+                        .orElse(thumbnailFile != null ? thumbnailFile : content.getMediaFiles().get(0));
+            }
+            
+            DroneContent.Rendition rendition = RenditionService.pick(thumbnailFile,
+                    width != null && width > 0 ? width : DEFAULT_THUMBNAIL_WIDTH);
+            String key = rendition != null ? rendition.getKey() : thumbnailFile.getId();
             
             // Generate short-lived presigned URL for thumbnail (5 minutes)
-            return s3Service.generatePresignedUrl(thumbnailFile.getId(), 5);
+            return s3Service.generatePresignedUrl(key, 5);
         } catch (Exception e) {
             log.error("Error generating thumbnail URL for content {}", contentId, e);
             return null;
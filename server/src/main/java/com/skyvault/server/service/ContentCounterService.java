@@ -0,0 +1,198 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.DroneContent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind content counters. Views and downloads are buffered in a
+ * LongAdder per content ID and periodically flushed as one unordered bulk of
+ * $inc updates, replacing a findById + full-document save per hit. Every
+ * successful write is announced as a ContentCountersEvent.
+ */
+@Service
+@Slf4j
+public class ContentCounterService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter recordedCounter;
+    private final Counter flushedCounter;
+
+    private final CounterBuffer views = new CounterBuffer();
+    private final CounterBuffer downloads = new CounterBuffer();
+
+    public ContentCounterService(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.recordedCounter = Counter.builder("skyvault.views.recorded")
+                .description("Page views accepted into the write-behind buffer")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("skyvault.views.flushed")
+                .description("Page views written to MongoDB")
+                .register(meterRegistry);
+        Gauge.builder("skyvault.views.buffered", views, CounterBuffer::buffered)
+                .description("Page views waiting for the next flush")
+                .register(meterRegistry);
+        Gauge.builder("skyvault.downloads.buffered", downloads, CounterBuffer::buffered)
+                .description("Downloads waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    public void recordView(String contentId) {
+        views.increment(contentId);
+        recordedCounter.increment();
+    }
+
+    public void recordDownload(String contentId) {
+        downloads.increment(contentId);
+    }
+
+    public long bufferedViews() {
+        return views.buffered();
+    }
+
+    /**
+     * Credit earnings immediately (money is not buffered) and announce them
+     * alongside the buffered counters.
+     */
+    public void creditEarnings(Map<String, Double> earnings) {
+        if (earnings.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DroneContent.class);
+        earnings.forEach((contentId, amount) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(contentId)),
+                new Update().inc("earnings", amount)));
+        bulk.execute();
+        publish(new ContentCountersEvent(Map.of(), Map.of(), Map.copyOf(earnings), Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<String, Long> viewDeltas = views.drain();
+        Map<String, Long> downloadDeltas = downloads.drain();
+        if (viewDeltas.isEmpty() && downloadDeltas.isEmpty()) {
+            return;
+        }
+
+        Set<String> contentIds = new HashSet<>(viewDeltas.keySet());
+        contentIds.addAll(downloadDeltas.keySet());
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DroneContent.class);
+            for (String contentId : contentIds) {
+                Update update = new Update();
+                if (viewDeltas.containsKey(contentId)) {
+                    update.inc("views", viewDeltas.get(contentId));
+                }
+                if (downloadDeltas.containsKey(contentId)) {
+                    update.inc("downloads", downloadDeltas.get(contentId));
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(contentId)), update);
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            // Put the counts back so the next flush retries them
+            log.error("Failed to flush counters for {} content items; will retry", contentIds.size(), e);
+            views.restore(viewDeltas);
+            downloads.restore(downloadDeltas);
+            return;
+        }
+
+        long flushedViews = viewDeltas.values().stream().mapToLong(Long::longValue).sum();
+        flushedCounter.increment(flushedViews);
+        log.debug("Flushed {} views and {} downloads across {} content items",
+                flushedViews, downloadDeltas.size(), contentIds.size());
+        publish(new ContentCountersEvent(viewDeltas, downloadDeltas, Map.of(), Instant.now()));
+    }
+
+    // The counters are already persisted; a failing listener must not cause them to be re-applied
+    private void publish(ContentCountersEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            log.error("Content counter listener failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        // Two passes so idle adders retired by the first are drained by the second
+        flush();
+        flush();
+        log.info("Content counters drained on shutdown");
+    }
+
+    private static final class CounterBuffer {
+
+        private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+        // Adders evicted for being idle; drained once more next time in case a caller still held one
+        private List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+        void increment(String contentId) {
+            pending.computeIfAbsent(contentId, id -> new LongAdder()).increment();
+        }
+
+        long buffered() {
+            long total = 0;
+            for (LongAdder adder : pending.values()) {
+                total += adder.sum();
+            }
+            return total;
+        }
+
+        // Only called from the synchronized flush
+        Map<String, Long> drain() {
+            Map<String, Long> deltas = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : retired) {
+                long late = entry.getValue().sumThenReset();
+                if (late > 0) {
+                    deltas.merge(entry.getKey(), late, Long::sum);
+                }
+            }
+            retired = new ArrayList<>();
+
+            Iterator<Map.Entry<String, LongAdder>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, LongAdder> entry = iterator.next();
+                long count = entry.getValue().sumThenReset();
+                if (count > 0) {
+                    deltas.merge(entry.getKey(), count, Long::sum);
+                } else {
+                    // Idle since the last flush: evict to keep the buffer bounded
+                    iterator.remove();
+                    retired.add(entry);
+                }
+            }
+            return deltas;
+        }
+
+        void restore(Map<String, Long> deltas) {
+            deltas.forEach((id, count) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(count));
+        }
+    }
+}
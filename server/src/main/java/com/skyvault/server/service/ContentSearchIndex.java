@@ -0,0 +1,280 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over APPROVED content, ranked with BM25.
+ * Replaces the unindexable $regex scan behind public keyword search.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentSearchIndex {
+
+    // BM25 tuning constants (standard defaults)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field boosts, applied as repeated term frequency
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in",
+            "is", "it", "of", "on", "or", "the", "this", "to", "with");
+
+    private final ContentRepository contentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (contentId -> weighted term frequency); sorted so the last query term can be prefix-expanded
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    // contentId -> (term -> weighted term frequency), kept so a document can be removed without re-reading it
+    private final Map<String, Map<String, Integer>> documentTerms = new HashMap<>();
+    private final Map<String, Integer> documentLengths = new HashMap<>();
+    private long totalLength = 0;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            documentLengths.clear();
+            totalLength = 0;
+
+            int page = 0;
+            Page<DroneContent> batch;
+            do {
+                batch = contentRepository.findByStatus(DroneContent.ContentStatus.APPROVED,
+                        PageRequest.of(page++, REBUILD_BATCH_SIZE, Sort.by("_id")));
+                for (DroneContent content : batch.getContent()) {
+                    addDocument(content);
+                }
+            } while (batch.hasNext());
+        } catch (Exception e) {
+            log.error("Failed to build content search index", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Content search index built: {} documents, {} terms in {}ms",
+                documentLengths.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Index or re-index a document after it was saved. Anything that is not
+     * APPROVED is dropped from the index.
+     */
+    public void update(DroneContent content) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(content.getId());
+            if (content.getStatus() == DroneContent.ContentStatus.APPROVED) {
+                addDocument(content);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.contentId());
+        } else {
+            update(event.content());
+        }
+    }
+
+    public void remove(String contentId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(contentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank every matching document by BM25 and return the requested slice of IDs.
+     * The last query term also matches as a prefix so partially typed words hit.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documentLengths.size();
+            if (documentCount == 0) {
+                return new SearchResult(Collections.emptyList(), 0);
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<String, Double> scores = new HashMap<>();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean last = i == queryTerms.size() - 1;
+                for (String matched : expand(term, last)) {
+                    Map<String, Integer> posting = postings.get(matched);
+                    double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                    // Prefix expansions score lower than an exact term match
+                    double boost = matched.equals(term) ? 1.0 : 0.5;
+                    for (Map.Entry<String, Integer> entry : posting.entrySet()) {
+                        int tf = entry.getValue();
+                        int length = documentLengths.get(entry.getKey());
+                        double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                        scores.merge(entry.getKey(), boost * idf * norm, Double::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<String> ids = new ArrayList<>();
+            for (int i = offset; i < ranked.size() && ids.size() < limit; i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return new SearchResult(ids, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentLengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                String token = current.toString();
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                current.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private Set<String> expand(String term, boolean allowPrefix) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (postings.containsKey(term)) {
+            terms.add(term);
+        }
+        if (allowPrefix) {
+            for (String candidate : postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet()) {
+                if (terms.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                terms.add(candidate);
+            }
+        }
+        return terms;
+    }
+
+    // Callers must hold the write lock
+    private void addDocument(DroneContent content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, content.getTitle(), TITLE_WEIGHT);
+        addField(frequencies, content.getDescription(), DESCRIPTION_WEIGHT);
+        addField(frequencies, content.getLocation(), LOCATION_WEIGHT);
+        if (content.getTags() != null) {
+            for (String tag : content.getTags()) {
+                addField(frequencies, tag, TAG_WEIGHT);
+            }
+        }
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(content.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documentTerms.put(content.getId(), frequencies);
+        documentLengths.put(content.getId(), length);
+        totalLength += length;
+    }
+
+    // Callers must hold the write lock
+    private void removeDocument(String contentId) {
+        Map<String, Integer> frequencies = documentTerms.remove(contentId);
+        if (frequencies == null) {
+            return;
+        }
+        for (String term : frequencies.keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(contentId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        Integer length = documentLengths.remove(contentId);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+
+    private void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    public record SearchResult(List<String> contentIds, long totalHits) {
+    }
+}
@@ -3,22 +3,45 @@ package com.skyvault.server.service;
 import com.skyvault.server.dto.ContentUploadRequest;
 import com.skyvault.server.dto.ContentResponse;
 import com.skyvault.server.dto.ContentSearchRequest;
+import com.skyvault.server.dto.CreatorStatsResponse;
+import com.skyvault.server.dto.CursorPage;
+import com.skyvault.server.dto.FacetBucket;
+import com.skyvault.server.dto.FacetedSearchResponse;
+import com.skyvault.server.event.ContentChangedEvent;
 import com.skyvault.server.model.DroneContent;
 import com.skyvault.server.model.User;
+import com.skyvault.server.repository.ContentCursor;
+import com.skyvault.server.repository.ContentQueryBuilder;
 import com.skyvault.server.repository.ContentRepository;
+import com.skyvault.server.repository.FacetedContent;
 import com.skyvault.server.repository.UserRepository;
+import com.skyvault.server.util.HyperLogLog;
+import com.skyvault.server.util.TopK;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -26,102 +49,188 @@ import java.util.UUID;
 @Slf4j
 public class ContentService {
     
+    public static final String RELEVANCE_SORT = "relevance";
+    public static final String CONTENT_FOLDER = "skyvault/content";
+    public static final Set<String> ALLOWED_MEDIA_TYPES = Set.of(
+            "video/mp4", "video/quicktime", "image/jpeg", "image/jpg", "image/png");
+    private static final double MAX_RADIUS_KM = 500;
+    private static final int MAX_GEO_RESULTS = 200;
+    
     private final ContentRepository contentRepository;
     private final UserRepository userRepository;
     private final S3Service s3Service; // Changed from CloudinaryService
+    private final CreatorResolver creatorResolver;
+    private final ContentSearchIndex contentSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ContentCounterService contentCounterService;
+    private final UniqueViewerService uniqueViewerService;
+    private final CreatorStatsService creatorStatsService;
+    private final LeaderboardService leaderboardService;
+    private final TrendingService trendingService;
+    private final RecommendationService recommendationService;
+    private final BlobRegistryService blobRegistryService;
+    
+    @Value("${content.facets.cache-ttl-seconds:30}")
+    private long facetCacheTtlSeconds;
+    
+    private volatile CachedFacets unfilteredFacets;
     
     public ContentResponse uploadContent(String creatorId, ContentUploadRequest request, List<MultipartFile> files) {
         // Validate creator exists and is approved
-        User creator = userRepository.findById(creatorId)
-                .orElseThrow(() -> new RuntimeException("Creator not found"));
-        
-        if (creator.getRole() != User.UserRole.creator) {
-            throw new RuntimeException("Only creators can upload content");
-        }
-        
-        if (!creator.getApproved()) {
-            throw new RuntimeException("Creator account must be approved before uploading content");
-        }
+        User creator = requireApprovedCreator(creatorId);
         
         // Validate files
         if (files == null || files.isEmpty()) {
             throw new RuntimeException("At least one media file is required");
         }
         
-        // Validate file types and sizes
+        // Validate sizes; types were checked from the files' magic bytes by the controller
         for (MultipartFile file : files) {
             if (file.isEmpty()) {
                 throw new RuntimeException("Empty files are not allowed");
             }
             
-            String contentType = file.getContentType();
-            if (contentType == null || 
-                (!contentType.startsWith("image/") && !contentType.startsWith("video/"))) {
-                throw new RuntimeException("Invalid file type: " + file.getOriginalFilename());
-            }
-            
             if (file.getSize() > 100 * 1024 * 1024) { // 100MB
                 throw new RuntimeException("File size exceeds 100MB limit: " + file.getOriginalFilename());
             }
         }
         
+        DroneContent content = buildContent(creatorId, request);
         try {
-            DroneContent content = new DroneContent();
-            content.setCreatorId(creatorId);
-            content.setTitle(request.getTitle());
-            content.setDescription(request.getDescription());
-            content.setCategory(request.getCategory());
-            content.setTags(request.getTags());
-            content.setLocation(request.getLocation());
-            
-            // Set coordinates if provided
-            if (request.getLatitude() != null && request.getLongitude() != null) {
-                DroneContent.Coordinates coordinates = new DroneContent.Coordinates();
-                coordinates.setLat(request.getLatitude().toString());
-                coordinates.setLng(request.getLongitude().toString());
-                content.setCoordinates(coordinates);
-            }
-            
-            content.setResolution(request.getResolution());
-            content.setDuration(request.getDuration());
-            content.setYoutubePreview(request.getYoutubePreview());
-            content.setPrice(request.getPrice());
-            content.setLicenseType(DroneContent.LicenseType.valueOf(request.getLicenseType()));
-            content.setDroneModel(request.getDroneModel());
-            content.setShootingDate(request.getShootingDate());
-            content.setWeatherConditions(request.getWeatherConditions());
-            content.setAltitude(request.getAltitude());
-            content.setStatus(DroneContent.ContentStatus.PENDING_REVIEW);
-            content.setViews(0);
-            content.setDownloads(0);
-            content.setEarnings(0.0);
-            content.setCreatedAt(LocalDateTime.now());
-            content.setUpdatedAt(LocalDateTime.now());
-            
             // Upload files to S3 for secure download-only access (no streaming)
-            List<DroneContent.MediaFile> mediaFiles = s3Service.uploadMultipleFiles(files, "skyvault/content");
-            content.setMediaFiles(mediaFiles);
-            
-            // Set thumbnail reference (first image for preview generation)
-            if (!mediaFiles.isEmpty()) {
-                content.setThumbnailFile(mediaFiles.get(0));
-            }
-            
-            DroneContent savedContent = contentRepository.save(content);
-            log.info("Content uploaded successfully with {} files for download-only access: {} by creator: {}", 
-                    mediaFiles.size(), savedContent.getId(), creatorId);
-            
-            return convertToResponse(savedContent, creator);
-            
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid license type for creator: {}", creatorId, e);
-            throw new RuntimeException("Invalid license type: " + request.getLicenseType());
+            List<DroneContent.MediaFile> mediaFiles = s3Service.uploadMultipleFiles(files, CONTENT_FOLDER);
+            return saveUploadedContent(content, mediaFiles, creator);
         } catch (Exception e) {
             log.error("Error uploading content for creator: {}", creatorId, e);
             throw new RuntimeException("Failed to upload content: " + e.getMessage());
         }
     }
     
+    public User requireApprovedCreator(String creatorId) {
+        User creator = userRepository.findById(creatorId)
+                .orElseThrow(() -> new RuntimeException("Creator not found"));
+        
+        if (creator.getRole() != User.UserRole.creator) {
+            throw new RuntimeException("Only creators can upload content");
+        }
+        
+        if (!creator.getApproved()) {
+            throw new RuntimeException("Creator account must be approved before uploading content");
+        }
+        return creator;
+    }
+    
+    /**
+     * Map an upload request onto a new PENDING_REVIEW document (not yet saved).
+     * Fails before any bytes are uploaded if the request is invalid.
+     */
+    public DroneContent buildContent(String creatorId, ContentUploadRequest request) {
+        DroneContent content = new DroneContent();
+        content.setCreatorId(creatorId);
+        content.setTitle(request.getTitle());
+        content.setDescription(request.getDescription());
+        content.setCategory(request.getCategory());
+        content.setTags(request.getTags());
+        content.setLocation(request.getLocation());
+        
+        // Set coordinates if provided
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            DroneContent.Coordinates coordinates = new DroneContent.Coordinates();
+            coordinates.setLat(request.getLatitude().toString());
+            coordinates.setLng(request.getLongitude().toString());
+            content.setCoordinates(coordinates);
+            content.setGeoLocation(coordinates.toGeoJsonPoint());
+        }
+        
+        content.setResolution(request.getResolution());
+        content.setDuration(request.getDuration());
+        content.setYoutubePreview(request.getYoutubePreview());
+        content.setPrice(request.getPrice());
+        try {
+            content.setLicenseType(DroneContent.LicenseType.valueOf(request.getLicenseType()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.error("Invalid license type for creator: {}", creatorId, e);
+            throw new RuntimeException("Invalid license type: " + request.getLicenseType());
+        }
+        content.setDroneModel(request.getDroneModel());
+        content.setShootingDate(request.getShootingDate());
+        content.setWeatherConditions(request.getWeatherConditions());
+        content.setAltitude(request.getAltitude());
+        content.setStatus(DroneContent.ContentStatus.PENDING_REVIEW);
+        content.setViews(0);
+        content.setDownloads(0);
+        content.setEarnings(0.0);
+        content.setCreatedAt(LocalDateTime.now());
+        content.setUpdatedAt(LocalDateTime.now());
+        return content;
+    }
+    
+    public ContentResponse saveUploadedContent(DroneContent content, List<DroneContent.MediaFile> uploadedFiles, User creator) {
+        // Files whose bytes are already stored are switched over to the existing object
+        List<DroneContent.MediaFile> mediaFiles = blobRegistryService.register(uploadedFiles);
+        content.setMediaFiles(mediaFiles);
+        
+        // Set thumbnail reference (first image for preview generation)
+        if (!mediaFiles.isEmpty()) {
+            content.setThumbnailFile(mediaFiles.get(0));
+        }
+        
+        // Fall back to the probed clip length when the creator left it blank
+        if (content.getDuration() == null) {
+            mediaFiles.stream()
+                    .map(DroneContent.MediaFile::getDuration)
+                    .filter(duration -> duration != null)
+                    .findFirst()
+                    .ifPresent(content::setDuration);
+        }
+        applyCaptureMetadata(content, mediaFiles);
+        
+        DroneContent savedContent;
+        try {
+            savedContent = contentRepository.save(content);
+        } catch (RuntimeException e) {
+            blobRegistryService.unregister(mediaFiles);
+            throw e;
+        }
+        eventPublisher.publishEvent(ContentChangedEvent.created(savedContent));
+        log.info("Content uploaded successfully with {} files for download-only access: {} by creator: {}", 
+                mediaFiles.size(), savedContent.getId(), content.getCreatorId());
+        
+        return convertToResponse(savedContent, creator);
+    }
+    
+    // Fill in whatever the creator left blank from the first file's EXIF/XMP telemetry
+    private void applyCaptureMetadata(DroneContent content, List<DroneContent.MediaFile> mediaFiles) {
+        DroneContent.CaptureMetadata capture = mediaFiles.stream()
+                .map(DroneContent.MediaFile::getCapture)
+                .filter(metadata -> metadata != null)
+                .findFirst()
+                .orElse(null);
+        if (capture == null) {
+            return;
+        }
+        if (content.getCoordinates() == null && capture.getLatitude() != null && capture.getLongitude() != null) {
+            DroneContent.Coordinates coordinates = new DroneContent.Coordinates();
+            coordinates.setLat(capture.getLatitude().toString());
+            coordinates.setLng(capture.getLongitude().toString());
+            content.setCoordinates(coordinates);
+            content.setGeoLocation(coordinates.toGeoJsonPoint());
+        }
+        if (isBlank(content.getAltitude()) && capture.getRelativeAltitude() != null) {
+            content.setAltitude(String.format(Locale.ROOT, "%.1f m", capture.getRelativeAltitude()));
+        }
+        if (content.getShootingDate() == null) {
+            content.setShootingDate(capture.getCapturedAt());
+        }
+        if (isBlank(content.getDroneModel())) {
+            content.setDroneModel(capture.getCameraModel());
+        }
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
     public Page<ContentResponse> getCreatorContent(String creatorId, int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                    Sort.by(sortBy).descending() : 
@@ -136,21 +245,234 @@ public class ContentService {
     }
     
     public Page<ContentResponse> searchContent(ContentSearchRequest searchRequest, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        
         Page<DroneContent> contentPage;
         
         if (searchRequest.getKeyword() != null && !searchRequest.getKeyword().trim().isEmpty()) {
-            contentPage = contentRepository.findByTitleContainingIgnoreCaseAndStatus(
-                searchRequest.getKeyword(), DroneContent.ContentStatus.APPROVED, pageable);
+            contentPage = searchIndex(searchRequest, page, size);
         } else {
-            contentPage = contentRepository.findByStatus(DroneContent.ContentStatus.APPROVED, pageable);
+            Pageable pageable = PageRequest.of(page, size, ContentQueryBuilder.sort(searchRequest));
+            contentPage = contentRepository.searchApproved(searchRequest, null, pageable);
+        }
+        
+        return convertPage(contentPage);
+    }
+    
+    /**
+     * Top approved content by views, downloads or earnings, served from the
+     * in-memory leaderboards; only the listed documents are loaded.
+     */
+    public List<ContentResponse> getTopContent(String metric, int limit) {
+        List<String> ids = leaderboardService.top(LeaderboardService.Metric.fromString(metric), limit).stream()
+                .map(TopK.Entry::key)
+                .toList();
+        return convertList(loadInOrder(ids));
+    }
+    
+    // Highest time-decayed activity first
+    public List<ContentResponse> getTrendingContent(int limit) {
+        List<String> ids = trendingService.trendingContent(limit).stream()
+                .map(TopK.Entry::key)
+                .toList();
+        return convertList(loadInOrder(ids));
+    }
+    
+    // Precomputed similar items; no similarity work happens on this path
+    public List<ContentResponse> getRelatedContent(String contentId, int limit) {
+        return convertList(loadInOrder(recommendationService.related(contentId, limit)));
+    }
+    
+    public List<ContentResponse> findNearby(double lat, double lng, double radiusKm, int limit) {
+        validatePoint(lat, lng);
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_RADIUS_KM + " km");
+        }
+        GeoResults<DroneContent> results = contentRepository.findApprovedNear(
+                new Point(lng, lat), new Distance(radiusKm, Metrics.KILOMETERS), clampGeoLimit(limit));
+        return convertGeoResults(results);
+    }
+    
+    public List<ContentResponse> findWithinBox(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        validatePoint(minLat, minLng);
+        validatePoint(maxLat, maxLng);
+        if (minLat >= maxLat || minLng >= maxLng) {
+            throw new IllegalArgumentException("Bounding box minimums must be below its maximums");
+        }
+        GeoResults<DroneContent> results = contentRepository.findApprovedWithinBox(
+                minLat, minLng, maxLat, maxLng, clampGeoLimit(limit));
+        return convertGeoResults(results);
+    }
+    
+    private List<ContentResponse> convertGeoResults(GeoResults<DroneContent> results) {
+        List<DroneContent> contents = results.getContent().stream().map(GeoResult::getContent).toList();
+        Map<String, User> creators = creatorResolver.resolveCreators(contents);
+        return results.getContent().stream()
+                .map(result -> {
+                    DroneContent content = result.getContent();
+                    ContentResponse response = convertToResponse(content, creators.get(content.getCreatorId()));
+                    response.setDistanceKm(result.getDistance().in(Metrics.KILOMETERS).getValue());
+                    return response;
+                })
+                .toList();
+    }
+    
+    private void validatePoint(double lat, double lng) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+    
+    private int clampGeoLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_GEO_RESULTS));
+    }
+    
+    /**
+     * Search plus category, resolution, licenseType and price facet counts from a
+     * single $facet aggregation. The unfiltered facet set is shared by every
+     * plain browse request, so it is cached for a short TTL.
+     */
+    public FacetedSearchResponse searchContentWithFacets(ContentSearchRequest searchRequest, int page, int size) {
+        boolean hasKeyword = searchRequest.getKeyword() != null && !searchRequest.getKeyword().trim().isEmpty();
+        
+        if (hasKeyword && RELEVANCE_SORT.equalsIgnoreCase(searchRequest.getSortBy())) {
+            // The ranked page comes from the index; facets cover every keyword hit
+            Page<DroneContent> ranked = searchIndex(searchRequest, page, size);
+            List<String> candidates = keywordHits(searchRequest);
+            FacetedContent facets = contentRepository.searchWithFacets(searchRequest, candidates, null);
+            return new FacetedSearchResponse(convertList(ranked.getContent()),
+                    ranked.getTotalElements(), ranked.getTotalPages(), facets.facets());
+        }
+        
+        List<String> candidates = hasKeyword ? keywordHits(searchRequest) : null;
+        Pageable pageable = PageRequest.of(page, size, ContentQueryBuilder.sort(searchRequest));
+        
+        if (!hasKeyword && !ContentQueryBuilder.hasFilters(searchRequest)) {
+            CachedFacets cached = unfilteredFacets;
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+                Page<DroneContent> contentPage = contentRepository.searchApproved(searchRequest, null, pageable);
+                return new FacetedSearchResponse(convertList(contentPage.getContent()),
+                        contentPage.getTotalElements(), contentPage.getTotalPages(), cached.facets());
+            }
         }
         
-        return contentPage.map(content -> {
-            User creator = userRepository.findById(content.getCreatorId()).orElse(null);
-            return convertToResponse(content, creator);
-        });
+        FacetedContent result = contentRepository.searchWithFacets(searchRequest, candidates, pageable);
+        if (!hasKeyword && !ContentQueryBuilder.hasFilters(searchRequest)) {
+            unfilteredFacets = new CachedFacets(result.facets(),
+                    System.currentTimeMillis() + facetCacheTtlSeconds * 1000L);
+        }
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) result.total() / size);
+        return new FacetedSearchResponse(convertList(result.content()), result.total(), totalPages, result.facets());
+    }
+    
+    /**
+     * Cursor-mode search for infinite scroll. Skips the total count and never
+     * uses skip(n), so every page costs the same as the first.
+     */
+    public CursorPage<ContentResponse> searchContentByCursor(ContentSearchRequest searchRequest, String cursor, int size) {
+        ContentCursor after = ContentCursor.decode(cursor);
+        boolean hasKeyword = searchRequest.getKeyword() != null && !searchRequest.getKeyword().trim().isEmpty();
+        
+        if (hasKeyword && RELEVANCE_SORT.equalsIgnoreCase(searchRequest.getSortBy())) {
+            // Ranked results live in memory, so an offset into the ranking is as cheap as a keyset
+            int offset = after != null ? after.offset() : 0;
+            ContentSearchIndex.SearchResult hits = rankedHits(searchRequest, offset, size);
+            boolean hasNext = offset + size < hits.totalHits();
+            return new CursorPage<>(
+                    convertList(loadInOrder(hits.contentIds())),
+                    hasNext ? ContentCursor.atOffset(offset + size).encode() : null,
+                    hasNext);
+        }
+        if (after != null && !after.isKeyset()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        
+        List<String> candidates = hasKeyword ? keywordHits(searchRequest) : null;
+        // Same keyset order the page mode sorts by; a cursor only continues the order it was issued for
+        String field = ContentQueryBuilder.sortField(searchRequest);
+        if (after != null && !field.equals(after.field())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(searchRequest.getSortDirection())
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+        
+        // Fetch one extra row to learn whether another page exists without counting
+        List<DroneContent> rows = contentRepository.searchApprovedAfter(
+                searchRequest, candidates, field, after, direction, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            DroneContent last = rows.get(rows.size() - 1);
+            nextCursor = ContentCursor.after(field, sortValue(last, field), last.getId()).encode();
+        }
+        return new CursorPage<>(convertList(rows), nextCursor, hasNext);
+    }
+    
+    // Value of one of ContentQueryBuilder's sortable fields, for the keyset cursor
+    private static Object sortValue(DroneContent content, String field) {
+        return switch (field) {
+            case "price" -> content.getPrice();
+            case "views" -> content.getViews();
+            case "downloads" -> content.getDownloads();
+            case "title" -> content.getTitle();
+            default -> content.getCreatedAt();
+        };
+    }
+    
+    // Rank with the in-memory index, then load only the documents on the requested page
+    private Page<DroneContent> searchIndex(ContentSearchRequest searchRequest, int page, int size) {
+        if (RELEVANCE_SORT.equalsIgnoreCase(searchRequest.getSortBy())) {
+            Pageable pageable = PageRequest.of(page, size);
+            ContentSearchIndex.SearchResult hits = rankedHits(searchRequest, (int) pageable.getOffset(), size);
+            return new PageImpl<>(loadInOrder(hits.contentIds()), pageable, hits.totalHits());
+        }
+        
+        // Explicit sort: narrow the keyword hits with one Mongo query
+        List<String> candidates = keywordHits(searchRequest);
+        Pageable pageable = PageRequest.of(page, size, ContentQueryBuilder.sort(searchRequest));
+        return contentRepository.searchApproved(searchRequest, candidates, pageable);
+    }
+    
+    // Relevance-ordered slice of keyword hits, narrowed by the request filters when any are set
+    private ContentSearchIndex.SearchResult rankedHits(ContentSearchRequest searchRequest, int offset, int limit) {
+        if (!ContentQueryBuilder.hasFilters(searchRequest)) {
+            return contentSearchIndex.search(searchRequest.getKeyword(), offset, limit);
+        }
+        
+        List<String> candidates = keywordHits(searchRequest);
+        Set<String> matching = contentRepository.findMatchingIds(searchRequest, candidates);
+        List<String> ranked = candidates.stream().filter(matching::contains).toList();
+        List<String> slice = ranked.subList(
+                Math.min(offset, ranked.size()),
+                Math.min(offset + limit, ranked.size()));
+        return new ContentSearchIndex.SearchResult(slice, ranked.size());
+    }
+    
+    /**
+     * Every keyword hit, best first. Filters, sorts and facets are applied to the
+     * whole set so totals and later pages match what a full scan would return.
+     */
+    private List<String> keywordHits(ContentSearchRequest searchRequest) {
+        return contentSearchIndex.search(searchRequest.getKeyword(), 0, Integer.MAX_VALUE).contentIds();
+    }
+    
+    private List<DroneContent> loadInOrder(List<String> contentIds) {
+        Map<String, DroneContent> loaded = new HashMap<>();
+        for (DroneContent content : contentRepository.findAllById(contentIds)) {
+            loaded.put(content.getId(), content);
+        }
+        
+        List<DroneContent> ordered = new ArrayList<>();
+        for (String id : contentIds) {
+            DroneContent content = loaded.get(id);
+            if (content != null && content.getStatus() == DroneContent.ContentStatus.APPROVED) {
+                ordered.add(content);
+            }
+        }
+        return ordered;
     }
     
     public ContentResponse getContentById(String contentId) {
@@ -181,6 +503,7 @@ public class ContentService {
         content.setUpdatedAt(LocalDateTime.now());
         
         DroneContent savedContent = contentRepository.save(content);
+        eventPublisher.publishEvent(ContentChangedEvent.updated(savedContent, savedContent.getStatus()));
         User creator = userRepository.findById(creatorId).orElse(null);
         
         return convertToResponse(savedContent, creator);
@@ -194,22 +517,38 @@ public class ContentService {
             throw new RuntimeException("You can only delete your own content");
         }
         
-        // Delete files from S3 instead of Cloudinary
+        // Shared objects stay in S3 until no content references them
         try {
-            s3Service.deleteFiles(content.getMediaFiles());
+            blobRegistryService.unregister(content.getMediaFiles());
         } catch (Exception e) {
             log.warn("Failed to delete files from S3 for content: {}", contentId, e);
         }
         
         contentRepository.delete(content);
+        eventPublisher.publishEvent(ContentChangedEvent.deleted(content));
         log.info("Content deleted: {} by creator: {}", contentId, creatorId);
     }
     
-    public void incrementViews(String contentId) {
-        contentRepository.findById(contentId).ifPresent(content -> {
-            content.setViews(content.getViews() + 1);
-            contentRepository.save(content);
-        });
+    public void incrementViews(String contentId, String viewerKey) {
+        // Buffered and flushed in bulk; see ContentCounterService and UniqueViewerService
+        contentCounterService.recordView(contentId);
+        uniqueViewerService.recordViewer(contentId, viewerKey);
+    }
+    
+    public Map<String, Object> getUniqueViewers(String contentId, String creatorId) {
+        DroneContent content = contentRepository.findById(contentId)
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+        
+        if (!content.getCreatorId().equals(creatorId)) {
+            throw new RuntimeException("You can only view stats for your own content");
+        }
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("contentId", contentId);
+        stats.put("views", content.getViews());
+        stats.put("uniqueViewers", uniqueViewerService.estimateUniqueViewers(contentId));
+        stats.put("relativeError", HyperLogLog.RELATIVE_ERROR);
+        return stats;
     }
     
     // Admin methods
@@ -220,20 +559,19 @@ public class ContentService {
                 contentRepository.findByStatus(status, pageable) :
                 contentRepository.findAll(pageable);
         
-        return contentPage.map(content -> {
-            User creator = userRepository.findById(content.getCreatorId()).orElse(null);
-            return convertToResponse(content, creator);
-        });
+        return convertPage(contentPage);
     }
     
     public ContentResponse updateContentStatus(String contentId, DroneContent.ContentStatus status, String adminReason) {
         DroneContent content = contentRepository.findById(contentId)
                 .orElseThrow(() -> new RuntimeException("Content not found"));
         
+        DroneContent.ContentStatus previousStatus = content.getStatus();
         content.setStatus(status);
         content.setUpdatedAt(LocalDateTime.now());
         
         DroneContent savedContent = contentRepository.save(content);
+        eventPublisher.publishEvent(ContentChangedEvent.updated(savedContent, previousStatus));
         User creator = userRepository.findById(content.getCreatorId()).orElse(null);
         
         log.info("Content status updated: {} to {} by admin", contentId, status);
@@ -286,16 +624,22 @@ public class ContentService {
         return contentPage.map(content -> convertToResponse(content, creator));
     }
     
-    public ContentResponse getCreatorContentStats(String creatorId) {
-        // Get aggregated stats for creator's content
-        List<DroneContent> allContent = contentRepository.findByCreatorId(creatorId, Pageable.unpaged()).getContent();
-        
-        ContentResponse stats = new ContentResponse();
-        stats.setViews(allContent.stream().mapToInt(DroneContent::getViews).sum());
-        stats.setDownloads(allContent.stream().mapToInt(DroneContent::getDownloads).sum());
-        stats.setEarnings(allContent.stream().mapToDouble(DroneContent::getEarnings).sum());
-        
-        return stats;
+    public CreatorStatsResponse getCreatorContentStats(String creatorId) {
+        // One small materialized document instead of loading every item the creator owns
+        return creatorStatsService.getStats(creatorId);
+    }
+    
+    // Resolve every creator on the page in one round trip, then map rows from that lookup
+    private Page<ContentResponse> convertPage(Page<DroneContent> contentPage) {
+        Map<String, User> creators = creatorResolver.resolveCreators(contentPage.getContent());
+        return contentPage.map(content -> convertToResponse(content, creators.get(content.getCreatorId())));
+    }
+    
+    private List<ContentResponse> convertList(List<DroneContent> contents) {
+        Map<String, User> creators = creatorResolver.resolveCreators(contents);
+        return contents.stream()
+                .map(content -> convertToResponse(content, creators.get(content.getCreatorId())))
+                .toList();
     }
     
     private ContentResponse convertToResponse(DroneContent content, User creator) {
@@ -320,6 +664,7 @@ public class ContentService {
         response.setThumbnailFile(content.getThumbnailFile());
         response.setStatus(content.getStatus());
         response.setViews(content.getViews());
+        response.setUniqueViewers(content.getUniqueViewers());
         response.setDownloads(content.getDownloads());
         response.setEarnings(content.getEarnings());
         response.setCreatedAt(content.getCreatedAt());
@@ -334,4 +679,7 @@ public class ContentService {
         }
         return response;
     }
+    
+    private record CachedFacets(Map<String, List<FacetBucket>> facets, long expiresAt) {
+    }
 }
@@ -0,0 +1,42 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.User;
+import com.skyvault.server.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CreatorResolver {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Resolve the creators of a page of content with a single findAllById
+     * round trip instead of one findById per row.
+     */
+    public Map<String, User> resolveCreators(Collection<DroneContent> contents) {
+        Set<String> creatorIds = contents.stream()
+                .map(DroneContent::getCreatorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, User> creators = new HashMap<>();
+        if (creatorIds.isEmpty()) {
+            return creators;
+        }
+
+        for (User user : userRepository.findAllById(creatorIds)) {
+            creators.put(user.getId(), user);
+        }
+        return creators;
+    }
+}
@@ -0,0 +1,200 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.CreatorStatsResponse;
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.CreatorStats;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.repository.ContentRepository;
+import com.skyvault.server.repository.CreatorStatsRepository;
+import com.skyvault.server.repository.CreatorStatusTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-creator dashboard totals served from one small creator_stats document.
+ * Counter flushes and status changes are applied as $inc updates; a missing
+ * document is rebuilt with a $group over the creator's content, and a nightly
+ * pass rebuilds every creator to correct any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CreatorStatsService {
+
+    private final CreatorStatsRepository creatorStatsRepository;
+    private final ContentRepository contentRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public CreatorStatsResponse getStats(String creatorId) {
+        CreatorStats stats = creatorStatsRepository.findById(creatorId)
+                .orElseGet(() -> rebuild(creatorId));
+        return toResponse(stats);
+    }
+
+    @EventListener
+    public void onCountersFlushed(ContentCountersEvent event) {
+        try {
+            Map<String, String> creatorIds = contentRepository.findCreatorIds(event.contentIds());
+            Map<String, Update> updates = new HashMap<>();
+            for (Map.Entry<String, String> entry : creatorIds.entrySet()) {
+                String contentId = entry.getKey();
+                Update update = updates.computeIfAbsent(entry.getValue(), id -> new Update());
+                incrementBy(update, "views", event.views().get(contentId));
+                incrementBy(update, "downloads", event.downloads().get(contentId));
+                incrementBy(update, "earnings", event.earnings().get(contentId));
+            }
+            apply(updates);
+        } catch (Exception e) {
+            // The nightly rebuild picks up whatever was missed here
+            log.error("Failed to update creator stats for {} content items", event.contentIds().size(), e);
+        }
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        DroneContent content = event.content();
+        if (content.getCreatorId() == null) {
+            return;
+        }
+
+        Update update = new Update();
+        if (event.deleted()) {
+            // Totals only cover content that still exists
+            update.inc("totalContent", -1);
+            incrementStatus(update, event.previousStatus(), -1);
+            incrementBy(update, "views", negate(content.getViews()));
+            incrementBy(update, "downloads", negate(content.getDownloads()));
+            incrementBy(update, "earnings", content.getEarnings() != null ? -content.getEarnings() : null);
+        } else if (event.previousStatus() == null) {
+            update.inc("totalContent", 1);
+            incrementStatus(update, content.getStatus(), 1);
+        } else if (event.previousStatus() != content.getStatus()) {
+            incrementStatus(update, event.previousStatus(), -1);
+            incrementStatus(update, content.getStatus(), 1);
+        } else {
+            return;
+        }
+
+        try {
+            apply(Map.of(content.getCreatorId(), update));
+        } catch (Exception e) {
+            log.error("Failed to update creator stats for creator {}", content.getCreatorId(), e);
+        }
+    }
+
+    /**
+     * Recompute one creator's totals from drone_content with a single $group.
+     */
+    public CreatorStats rebuild(String creatorId) {
+        CreatorStats stats = new CreatorStats();
+        stats.setCreatorId(creatorId);
+        fold(stats, contentRepository.aggregateCreatorTotals(creatorId));
+        return creatorStatsRepository.save(stats);
+    }
+
+    @Scheduled(cron = "${creator-stats.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, List<CreatorStatusTotals>> byCreator = new HashMap<>();
+            for (CreatorStatusTotals totals : contentRepository.aggregateCreatorTotals(null)) {
+                byCreator.computeIfAbsent(totals.creatorId(), id -> new ArrayList<>()).add(totals);
+            }
+
+            List<CreatorStats> rebuilt = new ArrayList<>();
+            for (Map.Entry<String, List<CreatorStatusTotals>> entry : byCreator.entrySet()) {
+                CreatorStats stats = new CreatorStats();
+                stats.setCreatorId(entry.getKey());
+                fold(stats, entry.getValue());
+                rebuilt.add(stats);
+            }
+            creatorStatsRepository.saveAll(rebuilt);
+            log.info("Rebuilt creator stats for {} creators in {}ms",
+                    rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild creator stats", e);
+        }
+    }
+
+    private void fold(CreatorStats stats, List<CreatorStatusTotals> rows) {
+        long views = 0;
+        long downloads = 0;
+        double earnings = 0;
+        long totalContent = 0;
+        Map<String, Long> statusCounts = new HashMap<>();
+        for (CreatorStatusTotals row : rows) {
+            views += row.views();
+            downloads += row.downloads();
+            earnings += row.earnings();
+            totalContent += row.count();
+            if (row.status() != null) {
+                statusCounts.put(row.status().name(), row.count());
+            }
+        }
+        stats.setViews(views);
+        stats.setDownloads(downloads);
+        stats.setEarnings(earnings);
+        stats.setTotalContent(totalContent);
+        stats.setStatusCounts(statusCounts);
+        stats.setRebuiltAt(LocalDateTime.now());
+    }
+
+    // No upsert: a creator without a stats document gets a full rebuild on first read instead
+    private void apply(Map<String, Update> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CreatorStats.class);
+        updates.forEach((creatorId, update) ->
+                bulk.updateOne(Query.query(Criteria.where("_id").is(creatorId)), update));
+        bulk.execute();
+    }
+
+    private static void incrementStatus(Update update, DroneContent.ContentStatus status, int delta) {
+        if (status != null) {
+            update.inc("statusCounts." + status.name(), delta);
+        }
+    }
+
+    private static void incrementBy(Update update, String field, Number delta) {
+        if (delta != null && delta.doubleValue() != 0) {
+            update.inc(field, delta);
+        }
+    }
+
+    private static Integer negate(Integer value) {
+        return value != null ? -value : null;
+    }
+
+    private CreatorStatsResponse toResponse(CreatorStats stats) {
+        CreatorStatsResponse response = new CreatorStatsResponse();
+        response.setViews(stats.getViews() != null ? stats.getViews() : 0);
+        response.setDownloads(stats.getDownloads() != null ? stats.getDownloads() : 0);
+        response.setEarnings(stats.getEarnings() != null ? stats.getEarnings() : 0);
+        response.setTotalContent(stats.getTotalContent() != null ? stats.getTotalContent() : 0);
+
+        Map<String, Long> statusCounts = new HashMap<>();
+        for (DroneContent.ContentStatus status : DroneContent.ContentStatus.values()) {
+            Long count = stats.getStatusCounts() != null ? stats.getStatusCounts().get(status.name()) : null;
+            statusCounts.put(status.getValue(), count != null ? count : 0);
+        }
+        response.setStatusCounts(statusCounts);
+        response.setRebuiltAt(stats.getRebuiltAt());
+        return response;
+    }
+}
@@ -0,0 +1,439 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.util.TilePyramid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds Deep Zoom (DZI) tile pyramids for large aerial stills so buyers can
+ * pan and zoom into detail without downloading the original. Runs in the
+ * background after upload, like {@link RenditionService}, with a periodic
+ * backfill for anything missed.
+ *
+ * The original is decoded in horizontal bands through ImageIO source
+ * regions and streamed through {@link TilePyramid}, so a 40+ megapixel
+ * photo never sits in memory as one raster. Levels up to a public size are
+ * watermarked and served to anyone; the levels above need the same access
+ * as downloading the original.
+ */
+@Service
+@Slf4j
+public class DeepZoomService {
+
+    public static final String TILE_FOLDER = "skyvault/tiles";
+    public static final String TILE_FORMAT = "jpg";
+    // Viewers that load tiles through <img> cannot add the Authorization header
+    public static final String AUTH_NOTE = "Tiles above level %d need an Authorization: Bearer header, "
+            + "which <img> tile loading does not send; load tiles with XHR/fetch instead "
+            + "(OpenSeadragon: loadTilesWithAjax with ajaxHeaders).";
+
+    private static final Set<String> IMAGE_FORMATS = Set.of("jpg", "jpeg", "png");
+    private static final int BACKFILL_BATCH = 20;
+    // Tile bytes never change, but content can be taken down or access revoked, and shared
+    // caches cannot be told; the max-age bounds how long a removed image stays reachable
+    private static final String PUBLIC_CACHE_CONTROL = "public, max-age=3600";
+    private static final String PRIVATE_CACHE_CONTROL = "private, max-age=86400";
+
+    private final MongoTemplate mongoTemplate;
+    private final S3Service s3Service;
+    private final ContentAccessService contentAccessService;
+    private final int tileSize;
+    private final int bandRows;
+    private final int minDimension;
+    private final int publicMaxDimension;
+    private final float jpegQuality;
+    private final String watermarkText;
+    private final ThreadPoolExecutor executor;
+    // Content already queued or tiling, so the backfill does not queue it twice
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public DeepZoomService(MongoTemplate mongoTemplate,
+                           S3Service s3Service,
+                           ContentAccessService contentAccessService,
+                           @Value("${deepzoom.tile-size:256}") int tileSize,
+                           @Value("${deepzoom.band-rows:1024}") int bandRows,
+                           @Value("${deepzoom.min-dimension:4000}") int minDimension,
+                           @Value("${deepzoom.public-max-dimension:2048}") int publicMaxDimension,
+                           @Value("${deepzoom.jpeg-quality:0.8}") float jpegQuality,
+                           @Value("${deepzoom.watermark-text:SKYVAULT}") String watermarkText,
+                           @Value("${deepzoom.threads:1}") int threads,
+                           @Value("${deepzoom.queue-capacity:100}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.s3Service = s3Service;
+        this.contentAccessService = contentAccessService;
+        this.tileSize = tileSize;
+        // Whole tile rows per band, so each band read fills strips exactly
+        this.bandRows = Math.max(tileSize, bandRows / tileSize * tileSize);
+        this.minDimension = minDimension;
+        this.publicMaxDimension = publicMaxDimension;
+        this.jpegQuality = jpegQuality;
+        this.watermarkText = watermarkText;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "deep-zoom-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (!event.deleted() && event.previousStatus() == null) {
+            submit(event.contentId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${deepzoom.backfill-interval-ms:900000}",
+            fixedDelayString = "${deepzoom.backfill-interval-ms:900000}")
+    public void backfill() {
+        try {
+            List<DroneContent> missing = mongoTemplate.find(backfillQuery(minDimension), DroneContent.class);
+            missing.forEach(content -> submit(content.getId()));
+            if (!missing.isEmpty()) {
+                log.info("Queued {} content items missing tile pyramids", missing.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to queue tile pyramid backfill", e);
+        }
+    }
+
+    // --- SERVING ---
+
+    /**
+     * Tile pyramids of a content's files. Public callers only see approved
+     * content; creators and buyers with access also see their own.
+     */
+    public List<DroneContent.DeepZoom> getTileSets(String contentId, String userId) {
+        DroneContent content = mongoTemplate.findById(contentId, DroneContent.class);
+        if (content == null) {
+            throw new RuntimeException("Content not found");
+        }
+        checkVisible(content, userId);
+        List<DroneContent.DeepZoom> tileSets = new ArrayList<>();
+        if (content.getMediaFiles() != null) {
+            for (DroneContent.MediaFile file : content.getMediaFiles()) {
+                if (file.getDeepZoom() != null && file.getDeepZoom().getPrefix() != null) {
+                    tileSets.add(file.getDeepZoom());
+                }
+            }
+        }
+        return tileSets;
+    }
+
+    /** The tile set with the given name, as used in tile URLs. */
+    public DroneContent.DeepZoom getTileSet(String contentId, String name, String userId) {
+        return getTileSets(contentId, userId).stream()
+                .filter(tileSet -> tileSetName(tileSet).equals(name))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Tile set not found"));
+    }
+
+    /**
+     * One tile's JPEG bytes, or null if it is outside the pyramid. Levels
+     * above the public one need the same access as downloading the original.
+     */
+    public byte[] getTile(String contentId, DroneContent.DeepZoom tileSet, int level, int column, int row,
+                          String userId) throws IOException {
+        if (level > tileSet.getPublicMaxLevel()
+                && (userId == null || !contentAccessService.hasAccess(userId, contentId))) {
+            throw new SecurityException("Full-resolution tiles require purchase");
+        }
+        if (level < 0 || level > tileSet.getMaxLevel()) {
+            return null;
+        }
+        int halvings = tileSet.getMaxLevel() - level;
+        int columns = (TilePyramid.levelSize(tileSet.getWidth(), halvings) + tileSet.getTileSize() - 1) / tileSet.getTileSize();
+        int rows = (TilePyramid.levelSize(tileSet.getHeight(), halvings) + tileSet.getTileSize() - 1) / tileSet.getTileSize();
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return null;
+        }
+        return s3Service.getBytes(tileKey(tileSet.getPrefix(), level, column, row));
+    }
+
+    public static String cacheControl(DroneContent.DeepZoom tileSet, int level) {
+        return level <= tileSet.getPublicMaxLevel() ? PUBLIC_CACHE_CONTROL : PRIVATE_CACHE_CONTROL;
+    }
+
+    /**
+     * DZI descriptor XML, as Deep Zoom viewers such as OpenSeadragon expect it.
+     * The format has no place for access rules, so a comment says which levels
+     * need a bearer token.
+     */
+    public static String descriptor(DroneContent.DeepZoom tileSet) {
+        String authNote = tileSet.getMaxLevel() > tileSet.getPublicMaxLevel()
+                ? "<!-- " + AUTH_NOTE.formatted(tileSet.getPublicMaxLevel()) + " -->\n"
+                : "";
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + authNote
+                + "<Image xmlns=\"http://schemas.microsoft.com/deepzoom/2008\" Format=\"" + TILE_FORMAT
+                + "\" Overlap=\"0\" TileSize=\"" + tileSet.getTileSize() + "\">\n"
+                + "  <Size Width=\"" + tileSet.getWidth() + "\" Height=\"" + tileSet.getHeight() + "\"/>\n"
+                + "</Image>\n";
+    }
+
+    public static String tileSetName(DroneContent.DeepZoom tileSet) {
+        return tileSet.getPrefix().substring(tileSet.getPrefix().lastIndexOf('/') + 1);
+    }
+
+    /** Every tile key of a pyramid, for deleting it. */
+    public static List<String> tileKeys(DroneContent.DeepZoom tileSet) {
+        List<String> keys = new ArrayList<>();
+        for (int level = 0; level <= tileSet.getMaxLevel(); level++) {
+            int halvings = tileSet.getMaxLevel() - level;
+            int width = TilePyramid.levelSize(tileSet.getWidth(), halvings);
+            int height = TilePyramid.levelSize(tileSet.getHeight(), halvings);
+            for (int row = 0; row * tileSet.getTileSize() < height; row++) {
+                for (int column = 0; column * tileSet.getTileSize() < width; column++) {
+                    keys.add(tileKey(tileSet.getPrefix(), level, column, row));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void checkVisible(DroneContent content, String userId) {
+        if (content.getStatus() == DroneContent.ContentStatus.APPROVED) {
+            return;
+        }
+        // Pending or rejected content: only its creator and admins
+        if (userId == null || !contentAccessService.hasAccess(userId, content.getId())) {
+            throw new SecurityException("Content is not public");
+        }
+    }
+
+    // --- BUILDING ---
+
+    private void submit(String contentId) {
+        if (!pending.add(contentId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    tileContent(contentId);
+                } catch (Exception e) {
+                    log.error("Failed to build tile pyramids for content {}", contentId, e);
+                } finally {
+                    pending.remove(contentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full; the backfill will come back for it
+            pending.remove(contentId);
+            log.warn("Tile pyramid queue full, deferring content {}", contentId);
+        }
+    }
+
+    private void tileContent(String contentId) {
+        DroneContent content = mongoTemplate.findById(contentId, DroneContent.class);
+        if (content == null || content.getMediaFiles() == null) {
+            return;
+        }
+        for (DroneContent.MediaFile file : content.getMediaFiles()) {
+            if (file.getDeepZoom() != null || !isLargeImage(file)) {
+                continue;
+            }
+            DroneContent.DeepZoom deepZoom = deepZoomFor(file);
+            // Positional update touches only this file's pyramid, so other workers' fields survive
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(contentId).and("mediaFiles._id").is(file.getId())),
+                    new Update().set("mediaFiles.$.deepZoom", deepZoom), DroneContent.class);
+        }
+    }
+
+    private DroneContent.DeepZoom deepZoomFor(DroneContent.MediaFile file) {
+        // Deduplicated uploads share an object, and so can share its tiles
+        DroneContent.DeepZoom existing = existingDeepZoom(file.getId());
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return build(file.getId());
+        } catch (Exception e) {
+            // Recorded without a prefix so the backfill does not retry an undecodable file forever
+            log.warn("Could not build tile pyramid for {}: {}", file.getId(), e.getMessage());
+            return new DroneContent.DeepZoom();
+        }
+    }
+
+    private DroneContent.DeepZoom existingDeepZoom(String s3Key) {
+        DroneContent other = mongoTemplate.findOne(sharedDeepZoomQuery(s3Key), DroneContent.class);
+        if (other == null) {
+            return null;
+        }
+        return other.getMediaFiles().stream()
+                .filter(file -> file.getId().equals(s3Key))
+                .map(DroneContent.MediaFile::getDeepZoom)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Content with large enough image files that have no tile pyramid yet
+    static Query backfillQuery(int minDimension) {
+        Query query = Query.query(Criteria.where("mediaFiles").elemMatch(
+                Criteria.where("format").in(IMAGE_FORMATS).and("deepZoom").exists(false)
+                        .orOperator(Criteria.where("width").gte(minDimension),
+                                Criteria.where("height").gte(minDimension))));
+        query.fields().include("_id");
+        query.limit(BACKFILL_BATCH);
+        return query;
+    }
+
+    // Any content whose copy of this stored object already has tiles
+    static Query sharedDeepZoomQuery(String s3Key) {
+        Query query = Query.query(Criteria.where("mediaFiles").elemMatch(
+                Criteria.where("_id").is(s3Key).and("deepZoom.prefix").exists(true)));
+        query.fields().include("mediaFiles");
+        return query;
+    }
+
+    private DroneContent.DeepZoom build(String s3Key) throws IOException {
+        long start = System.currentTimeMillis();
+        String prefix = TILE_FOLDER + "/" + objectName(s3Key);
+        List<String> written = new ArrayList<>();
+        Path original = s3Service.downloadToTempFile(s3Key);
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int maxLevel = TilePyramid.maxLevel(width, height);
+                int publicMaxLevel = TilePyramid.levelWithin(width, height, publicMaxDimension);
+
+                TilePyramid pyramid = new TilePyramid(width, height, tileSize, (level, column, row, tile) -> {
+                    boolean isPublic = level <= publicMaxLevel;
+                    String key = tileKey(prefix, level, column, row);
+                    s3Service.putBytes(key, encodeJpeg(isPublic ? watermark(tile) : tile), "image/jpeg",
+                            isPublic ? PUBLIC_CACHE_CONTROL : PRIVATE_CACHE_CONTROL);
+                    written.add(key);
+                });
+                // One band of rows at a time; each read re-scans the rows above it, but only this band is kept
+                for (int y = 0; y < height; y += bandRows) {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceRegion(new Rectangle(0, y, width, Math.min(bandRows, height - y)));
+                    pyramid.accept(reader.read(0, param));
+                }
+
+                log.info("Built {} tiles ({} levels) for {} in {}ms",
+                        written.size(), maxLevel + 1, s3Key, System.currentTimeMillis() - start);
+                return new DroneContent.DeepZoom(prefix, width, height, tileSize, maxLevel, publicMaxLevel);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Do not leave half a pyramid behind
+            s3Service.deleteKeys(written);
+            throw e;
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+
+    // Copied first: the tile is a view into the pyramid's buffer, which feeds the levels below
+    private BufferedImage watermark(BufferedImage tile) {
+        BufferedImage marked = new BufferedImage(tile.getWidth(), tile.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = marked.createGraphics();
+        try {
+            graphics.drawImage(tile, 0, 0, null);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(12, tileSize / 7)));
+            graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f));
+            graphics.setColor(Color.WHITE);
+            // Centered on the full tile grid, so edge tiles line up with their neighbours
+            graphics.rotate(-Math.PI / 6, tileSize / 2.0, tileSize / 2.0);
+            FontMetrics metrics = graphics.getFontMetrics();
+            graphics.drawString(watermarkText, (tileSize - metrics.stringWidth(watermarkText)) / 2,
+                    (tileSize + metrics.getAscent() - metrics.getDescent()) / 2);
+        } finally {
+            graphics.dispose();
+        }
+        return marked;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean isLargeImage(DroneContent.MediaFile file) {
+        return file.getFormat() != null && IMAGE_FORMATS.contains(file.getFormat().toLowerCase(Locale.ROOT))
+                && file.getWidth() != null && file.getHeight() != null
+                && Math.max(file.getWidth(), file.getHeight()) >= minDimension;
+    }
+
+    // skyvault/content/<uuid>.jpg -> <uuid>
+    private static String objectName(String s3Key) {
+        String name = s3Key.substring(s3Key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String tileKey(String prefix, int level, int column, int row) {
+        return prefix + "/" + level + "/" + column + "_" + row + "." + TILE_FORMAT;
+    }
+}
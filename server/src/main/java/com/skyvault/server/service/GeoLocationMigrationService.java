@@ -0,0 +1,75 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Backfills DroneContent.geoLocation from the legacy string coordinates so
+ * older uploads show up in spatial queries. Idempotent: only documents that
+ * have coordinates but no geoLocation are touched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeoLocationMigrationService implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        int migrated = 0;
+        int skipped = 0;
+        String lastId = null;
+
+        while (true) {
+            Criteria criteria = Criteria.where("coordinates").ne(null).and("geoLocation").exists(false);
+            if (lastId != null) {
+                criteria = criteria.and("_id").gt(lastId);
+            }
+            Query query = new Query(criteria).with(Sort.by("_id")).limit(BATCH_SIZE);
+            query.fields().include("_id").include("coordinates");
+
+            List<DroneContent> batch = mongoTemplate.find(query, DroneContent.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DroneContent.class);
+            int updates = 0;
+            for (DroneContent content : batch) {
+                GeoJsonPoint point = content.getCoordinates().toGeoJsonPoint();
+                if (point == null) {
+                    skipped++;
+                    continue;
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(content.getId())),
+                        Update.update("geoLocation", point));
+                updates++;
+            }
+            if (updates > 0) {
+                bulk.execute();
+                migrated += updates;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+
+        if (migrated > 0 || skipped > 0) {
+            log.info("Backfilled geoLocation on {} content documents ({} with unparseable coordinates skipped)",
+                    migrated, skipped);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.ContentSearchRequest;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.repository.ContentCursor;
+import com.skyvault.server.repository.ContentQueryBuilder;
+import com.skyvault.server.repository.ContentRepositoryCustomImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs explain() for every query shape the repositories and services issue and
+ * warns at startup when the winning plan falls back to a collection scan or a
+ * blocking in-memory sort. Content queries are built by the same code that
+ * sends them, so the check follows any change to their filters or sorts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexVerificationService implements CommandLineRunner {
+
+    private static final String CONTENT = "drone_content";
+    private static final String ORDERS = "orders";
+    private static final String PROBE = "probe";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${mongo.index-verification.enabled:true}")
+    private boolean enabled;
+
+    // Derived and @Query repository methods, with the sort their callers pass; values are placeholders
+    private static final List<QueryShape> REPOSITORY_SHAPES = List.of(
+        QueryShape.find("ContentRepository.findByStatus (search index rebuild)", CONTENT,
+            new Document("status", "APPROVED"), new Document("_id", 1), false),
+        QueryShape.find("ContentRepository.findByStatus (admin list)", CONTENT,
+            new Document("status", "APPROVED"), new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.findByCreatorId", CONTENT,
+            new Document("creatorId", PROBE), new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.findByCreatorIdAndStatus", CONTENT,
+            new Document("creatorId", PROBE).append("status", "APPROVED"), new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.findByCreatorIdAndCategory", CONTENT,
+            new Document("creatorId", PROBE).append("category", PROBE), new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.findByCreatorIdAndTitleContainingIgnoreCase", CONTENT,
+            new Document("creatorId", PROBE).append("title", new Document("$regex", PROBE).append("$options", "i")),
+            new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.findByCreatorIdAndTitleContainingIgnoreCaseAndStatus", CONTENT,
+            new Document("creatorId", PROBE).append("title", new Document("$regex", PROBE).append("$options", "i"))
+                .append("status", "APPROVED"), new Document("createdAt", -1), false),
+        QueryShape.find("ContentRepository.existsByMediaFileKeys", CONTENT,
+            new Document("mediaFiles._id", new Document("$in", List.of(PROBE))), null, false),
+        QueryShape.find("ContentRepository.findCreatorIds", CONTENT,
+            new Document("_id", new Document("$in", List.of(PROBE))), null, false),
+        QueryShape.find("OrderRepository.findByCreatorIdOrderByCreatedAtDesc", ORDERS,
+            new Document("creatorId", PROBE), new Document("createdAt", -1), false),
+        QueryShape.find("OrderRepository.findByBuyerIdAndStatus", ORDERS,
+            new Document("buyerId", PROBE).append("status", "APPROVED"), null, false)
+    );
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        List<QueryShape> shapes = new ArrayList<>(REPOSITORY_SHAPES);
+        shapes.addAll(contentShapes(queryMapper));
+
+        int regressions = 0;
+        for (QueryShape shape : shapes) {
+            try {
+                List<Object> plans = new ArrayList<>();
+                collectWinningPlans(explain(shape), plans);
+                String fallback = containsStage(plans, "COLLSCAN") ? "COLLSCAN"
+                        : !shape.boundedSort() && containsStage(plans, "SORT") ? "an in-memory SORT"
+                        : null;
+                if (fallback != null) {
+                    regressions++;
+                    log.warn("Query {} on {} falls back to {}: {}", shape.name(), shape.collection(), fallback,
+                            shape.describe());
+                }
+            } catch (Exception e) {
+                log.warn("Could not explain query {}: {}", shape.name(), e.getMessage());
+            }
+        }
+        log.info("Index verification completed: {} of {} queries use a collection scan or an in-memory sort",
+                regressions, shapes.size());
+    }
+
+    // Content queries from ContentQueryBuilder and the services that issue them
+    private List<QueryShape> contentShapes(QueryMapper queryMapper) {
+        List<QueryShape> shapes = new ArrayList<>();
+
+        // Plain and single-filter browses in the default order, then every other sortable field
+        List<ContentSearchRequest> browses = new ArrayList<>();
+        browses.add(new ContentSearchRequest());
+        ContentSearchRequest byCategory = new ContentSearchRequest();
+        byCategory.setCategory(PROBE);
+        browses.add(byCategory);
+        ContentSearchRequest byResolution = new ContentSearchRequest();
+        byResolution.setResolution("4K");
+        browses.add(byResolution);
+        ContentSearchRequest byLicense = new ContentSearchRequest();
+        byLicense.setLicenseType("royalty-free");
+        browses.add(byLicense);
+        ContentSearchRequest byTag = new ContentSearchRequest();
+        byTag.setTags(List.of(PROBE));
+        browses.add(byTag);
+        for (String field : List.of("price", "views", "downloads", "title")) {
+            ContentSearchRequest sorted = new ContentSearchRequest();
+            sorted.setSortBy(field);
+            browses.add(sorted);
+        }
+
+        for (ContentSearchRequest request : browses) {
+            String label = describe(request);
+            shapes.add(find(queryMapper, "ContentRepository.searchApproved " + label,
+                    ContentQueryBuilder.query(request, null).with(ContentQueryBuilder.sort(request)), false));
+
+            String field = ContentQueryBuilder.sortField(request);
+            ContentCursor cursor = ContentCursor.after(field, placeholder(field), PROBE);
+            shapes.add(find(queryMapper, "ContentRepository.searchApprovedAfter " + label,
+                    ContentQueryBuilder.keysetQuery(request, null, field, cursor, Sort.Direction.DESC, 21), false));
+        }
+
+        // Keyword searches restrict to the BM25 hits; sorting that bounded set in memory is expected
+        ContentSearchRequest keyword = new ContentSearchRequest();
+        keyword.setKeyword(PROBE);
+        shapes.add(find(queryMapper, "ContentRepository.searchApproved by keyword",
+                ContentQueryBuilder.query(keyword, List.of(PROBE)).with(ContentQueryBuilder.sort(keyword)), true));
+        shapes.add(find(queryMapper, "ContentRepository.searchApprovedAfter by keyword",
+                ContentQueryBuilder.keysetQuery(keyword, List.of(PROBE), "createdAt",
+                        ContentCursor.after("createdAt", LocalDateTime.now(), PROBE), Sort.Direction.DESC, 21), true));
+        shapes.add(find(queryMapper, "ContentRepository.findMatchingIds",
+                ContentQueryBuilder.query(byCategory, List.of(PROBE)), true));
+
+        shapes.add(aggregate(queryMapper, "ContentRepository.aggregateCreatorTotals (one creator)",
+                ContentRepositoryCustomImpl.creatorTotals(PROBE)));
+        shapes.add(aggregate(queryMapper, "ContentRepository.aggregateCreatorTotals (all creators)",
+                ContentRepositoryCustomImpl.creatorTotals(null)));
+
+        for (LeaderboardService.Metric metric : LeaderboardService.Metric.values()) {
+            shapes.add(find(queryMapper, "LeaderboardService.reconcile " + metric,
+                    LeaderboardService.reconcileQuery(metric, LeaderboardService.MAX_LIMIT), false));
+        }
+        shapes.add(find(queryMapper, "RenditionService.backfill", RenditionService.backfillQuery(), false));
+        shapes.add(find(queryMapper, "RenditionService.existingRenditions",
+                RenditionService.sharedRenditionsQuery(PROBE), false));
+        shapes.add(find(queryMapper, "DeepZoomService.backfill", DeepZoomService.backfillQuery(1), false));
+        shapes.add(find(queryMapper, "DeepZoomService.existingDeepZoom",
+                DeepZoomService.sharedDeepZoomQuery(PROBE), false));
+        return shapes;
+    }
+
+    private QueryShape find(QueryMapper queryMapper, String name, Query query, boolean boundedSort) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntity(DroneContent.class);
+        Document sort = query.isSorted() ? queryMapper.getMappedSort(query.getSortObject(), entity) : null;
+        return QueryShape.find(name, CONTENT, queryMapper.getMappedObject(query.getQueryObject(), entity), sort,
+                boundedSort);
+    }
+
+    private QueryShape aggregate(QueryMapper queryMapper, String name, TypedAggregation<DroneContent> aggregation) {
+        List<Document> pipeline = aggregation.toPipeline(new TypeBasedAggregationOperationContext(
+                DroneContent.class, mongoTemplate.getConverter().getMappingContext(), queryMapper));
+        return new QueryShape(name, CONTENT, null, null, pipeline, false);
+    }
+
+    private Document explain(QueryShape shape) {
+        var collection = mongoTemplate.getCollection(shape.collection());
+        if (shape.pipeline() != null) {
+            return collection.aggregate(shape.pipeline()).explain();
+        }
+        var find = collection.find(shape.filter());
+        if (shape.sort() != null) {
+            find = find.sort(shape.sort());
+        }
+        return find.explain();
+    }
+
+    private static String describe(ContentSearchRequest request) {
+        List<String> parts = new ArrayList<>();
+        if (request.getCategory() != null) {
+            parts.add("category");
+        }
+        if (request.getResolution() != null) {
+            parts.add("resolution");
+        }
+        if (request.getLicenseType() != null) {
+            parts.add("licenseType");
+        }
+        if (request.getTags() != null) {
+            parts.add("tags");
+        }
+        return (parts.isEmpty() ? "" : "by " + String.join(", ", parts) + " ")
+                + "sorted by " + ContentQueryBuilder.sortField(request);
+    }
+
+    // A cursor value of the sort field's stored type
+    private static Object placeholder(String field) {
+        return switch (field) {
+            case "price" -> 10.0;
+            case "views", "downloads" -> 0;
+            case "title" -> PROBE;
+            default -> LocalDateTime.now();
+        };
+    }
+
+    // Find explains have one queryPlanner; aggregations nest one per pushed-down $cursor stage
+    private static void collectWinningPlans(Object node, List<Object> plans) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if ("winningPlan".equals(entry.getKey())) {
+                    plans.add(entry.getValue());
+                } else if (!"rejectedPlans".equals(entry.getKey())) {
+                    collectWinningPlans(entry.getValue(), plans);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object child : list) {
+                collectWinningPlans(child, plans);
+            }
+        }
+    }
+
+    // Plans nest input stages (inputStage, inputStages, queryPlan) differently across server versions
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Map<?, ?> map) {
+            if (stage.equals(map.get("stage"))) {
+                return true;
+            }
+            for (Object child : map.values()) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object child : list) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One find (filter and sort) or aggregation (pipeline). boundedSort marks
+     * queries restricted to a short _id list, where sorting in memory is fine.
+     */
+    private record QueryShape(String name, String collection, Document filter, Document sort,
+                              List<Document> pipeline, boolean boundedSort) {
+
+        static QueryShape find(String name, String collection, Document filter, Document sort, boolean boundedSort) {
+            return new QueryShape(name, collection, filter, sort, null, boundedSort);
+        }
+
+        String describe() {
+            if (pipeline != null) {
+                return "pipeline=" + pipeline;
+            }
+            return "filter=" + filter.toJson() + " sort=" + (sort != null ? sort.toJson() : "{}");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.util.TopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory top-K boards of approved content by views, downloads and
+ * earnings. Counter flushes re-read the absolute counters of the touched
+ * items (one projected query) and offer them to each board, so other nodes'
+ * increments are picked up too; a periodic reconciliation reloads each board
+ * from its status/metric index to recover from restarts and missed events.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<Metric, TopK> boards = new EnumMap<>(Metric.class);
+
+    public LeaderboardService(MongoTemplate mongoTemplate,
+                              @Value("${leaderboard.capacity:200}") int capacity) {
+        this.mongoTemplate = mongoTemplate;
+        // Boards hold more than MAX_LIMIT so removals do not leave visible gaps until the next reconcile
+        for (Metric metric : Metric.values()) {
+            boards.put(metric, new TopK(Math.max(capacity, MAX_LIMIT)));
+        }
+    }
+
+    public List<TopK.Entry> top(Metric metric, int limit) {
+        return boards.get(metric).top(Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @EventListener
+    public void onCountersFlushed(ContentCountersEvent event) {
+        try {
+            Query query = Query.query(Criteria.where("_id").in(event.contentIds()));
+            query.fields().include("status", "views", "downloads", "earnings");
+            for (DroneContent content : mongoTemplate.find(query, DroneContent.class)) {
+                offer(content);
+            }
+        } catch (Exception e) {
+            // The next reconcile corrects the boards
+            log.error("Failed to update leaderboards for {} content items", event.contentIds().size(), e);
+        }
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.isPubliclyVisible()) {
+            offer(event.content());
+        } else {
+            for (TopK board : boards.values()) {
+                board.remove(event.contentId());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${leaderboard.reconcile-interval-ms:300000}",
+            fixedDelayString = "${leaderboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (Metric metric : Metric.values()) {
+            try {
+                TopK board = boards.get(metric);
+                Query query = reconcileQuery(metric, board.capacity());
+
+                Map<String, Double> fresh = new LinkedHashMap<>();
+                for (DroneContent content : mongoTemplate.find(query, DroneContent.class)) {
+                    fresh.put(content.getId(), metric.score(content));
+                }
+                board.replaceAll(fresh);
+            } catch (Exception e) {
+                log.error("Failed to reconcile {} leaderboard", metric.field, e);
+            }
+        }
+        log.debug("Leaderboards reconciled");
+    }
+
+    /**
+     * Top rows of one metric. The sort has no _id tiebreak so the status_<metric>
+     * index serves it and only the top rows are read; ties at the cutoff come
+     * in index order and the board ranks them by key.
+     */
+    static Query reconcileQuery(Metric metric, int limit) {
+        Query query = Query.query(Criteria.where("status").is(DroneContent.ContentStatus.APPROVED))
+                .with(Sort.by(Sort.Direction.DESC, metric.field))
+                .limit(limit);
+        query.fields().include(metric.field);
+        return query;
+    }
+
+    private void offer(DroneContent content) {
+        if (content.getStatus() != DroneContent.ContentStatus.APPROVED) {
+            for (TopK board : boards.values()) {
+                board.remove(content.getId());
+            }
+            return;
+        }
+        for (Metric metric : Metric.values()) {
+            boards.get(metric).offer(content.getId(), metric.score(content));
+        }
+    }
+
+    public enum Metric {
+        VIEWS("views", content -> content.getViews()),
+        DOWNLOADS("downloads", content -> content.getDownloads()),
+        EARNINGS("earnings", DroneContent::getEarnings);
+
+        private final String field;
+        private final Function<DroneContent, Number> getter;
+
+        Metric(String field, Function<DroneContent, Number> getter) {
+            this.field = field;
+            this.getter = getter;
+        }
+
+        double score(DroneContent content) {
+            Number value = getter.apply(content);
+            return value != null ? value.doubleValue() : 0;
+        }
+
+        public static Metric fromString(String value) {
+            return Metric.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+}
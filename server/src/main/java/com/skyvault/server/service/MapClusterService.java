@@ -0,0 +1,198 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.MapMarker;
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.model.DroneContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grid clusters of approved content for the map view, precomputed for every
+ * zoom level up to map.clusters.max-zoom. Each map tile is split into a
+ * GRID x GRID cell grid; a cell keeps the count and coordinate sums of the
+ * points inside it, so adding or removing one point touches one cell per
+ * zoom level and serving a tile is GRID * GRID map lookups. Beyond the
+ * maximum zoom, tiles return individual markers from the 2dsphere index.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MapClusterService {
+
+    private static final int GRID = 8;
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_TILE_POINTS = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${map.clusters.max-zoom:12}")
+    private int maxClusterZoom;
+
+    // zoom -> (cell key -> cell); cells are replaced atomically through compute()
+    private final Map<Integer, Map<Long, Cell>> cellsByZoom = new ConcurrentHashMap<>();
+    // contentId -> {lat, lng} currently counted, so a change can be undone exactly
+    private final Map<String, double[]> positions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        cellsByZoom.clear();
+        positions.clear();
+        try {
+            String lastId = null;
+            while (true) {
+                Criteria criteria = Criteria.where("status").is(DroneContent.ContentStatus.APPROVED)
+                        .and("geoLocation").ne(null);
+                if (lastId != null) {
+                    criteria = criteria.and("_id").gt(lastId);
+                }
+                Query query = new Query(criteria).with(Sort.by("_id")).limit(BATCH_SIZE);
+                query.fields().include("_id").include("geoLocation");
+
+                List<DroneContent> batch = mongoTemplate.find(query, DroneContent.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (DroneContent content : batch) {
+                    add(content.getId(), content.getGeoLocation());
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("Failed to build map clusters", e);
+        }
+        log.info("Map clusters built for {} points across zoom 0-{} in {}ms",
+                positions.size(), maxClusterZoom, System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        remove(event.contentId());
+        if (event.isPubliclyVisible()) {
+            add(event.contentId(), event.content().getGeoLocation());
+        }
+    }
+
+    /**
+     * Markers for tile z/x/y in the standard web-mercator (slippy map) scheme.
+     */
+    public List<MapMarker> getTile(int zoom, int x, int y) {
+        int tiles = 1 << zoom;
+        if (zoom < 0 || zoom > 22 || x < 0 || y < 0 || x >= tiles || y >= tiles) {
+            throw new IllegalArgumentException("Invalid tile coordinates");
+        }
+        if (zoom > maxClusterZoom) {
+            return findPointsInTile(zoom, x, y);
+        }
+
+        List<MapMarker> markers = new ArrayList<>();
+        Map<Long, Cell> cells = cellsByZoom.get(zoom);
+        if (cells == null) {
+            return markers;
+        }
+        for (int cx = x * GRID; cx < (x + 1) * GRID; cx++) {
+            for (int cy = y * GRID; cy < (y + 1) * GRID; cy++) {
+                Cell cell = cells.get(cellKey(cx, cy));
+                if (cell != null && cell.count() > 0) {
+                    markers.add(new MapMarker(cell.sumLat() / cell.count(), cell.sumLng() / cell.count(),
+                            cell.count(), null, null));
+                }
+            }
+        }
+        return markers;
+    }
+
+    private List<MapMarker> findPointsInTile(int zoom, int x, int y) {
+        double west = tileToLng(x, zoom);
+        double east = tileToLng(x + 1, zoom);
+        double north = tileToLat(y, zoom);
+        double south = tileToLat(y + 1, zoom);
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new Point(west, south), new Point(east, south),
+                new Point(east, north), new Point(west, north),
+                new Point(west, south));
+
+        Query query = new Query(Criteria.where("status").is(DroneContent.ContentStatus.APPROVED)
+                .and("geoLocation").within(box)).limit(MAX_TILE_POINTS);
+        query.fields().include("_id").include("geoLocation").include("title");
+
+        List<MapMarker> markers = new ArrayList<>();
+        for (DroneContent content : mongoTemplate.find(query, DroneContent.class)) {
+            GeoJsonPoint point = content.getGeoLocation();
+            markers.add(new MapMarker(point.getY(), point.getX(), 1, content.getId(), content.getTitle()));
+        }
+        return markers;
+    }
+
+    private void add(String contentId, GeoJsonPoint point) {
+        if (contentId == null || point == null) {
+            return;
+        }
+        double lat = point.getY();
+        double lng = point.getX();
+        positions.put(contentId, new double[]{lat, lng});
+        apply(lat, lng, 1);
+    }
+
+    private void remove(String contentId) {
+        double[] previous = positions.remove(contentId);
+        if (previous != null) {
+            apply(previous[0], previous[1], -1);
+        }
+    }
+
+    private void apply(double lat, double lng, int delta) {
+        double mx = (lng + 180.0) / 360.0;
+        double sinLat = Math.sin(Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, lat))));
+        double my = 0.5 - Math.log((1 + sinLat) / (1 - sinLat)) / (4 * Math.PI);
+
+        for (int zoom = 0; zoom <= maxClusterZoom; zoom++) {
+            long cellsPerAxis = (long) GRID << zoom;
+            int cx = (int) Math.min(cellsPerAxis - 1, Math.max(0, (long) Math.floor(mx * cellsPerAxis)));
+            int cy = (int) Math.min(cellsPerAxis - 1, Math.max(0, (long) Math.floor(my * cellsPerAxis)));
+
+            cellsByZoom.computeIfAbsent(zoom, z -> new ConcurrentHashMap<>())
+                    .compute(cellKey(cx, cy), (key, cell) -> {
+                        long count = (cell == null ? 0 : cell.count()) + delta;
+                        if (count <= 0) {
+                            return null;
+                        }
+                        return new Cell(count,
+                                (cell == null ? 0 : cell.sumLat()) + delta * lat,
+                                (cell == null ? 0 : cell.sumLng()) + delta * lng);
+                    });
+        }
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static double tileToLng(int x, int zoom) {
+        return x / (double) (1 << zoom) * 360.0 - 180.0;
+    }
+
+    private static double tileToLat(int y, int zoom) {
+        double n = Math.PI - 2.0 * Math.PI * y / (1 << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private record Cell(long count, double sumLat, double sumLng) {
+    }
+}
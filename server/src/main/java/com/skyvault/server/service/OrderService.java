@@ -1,14 +1,24 @@
 package com.skyvault.server.service;
 
+import com.skyvault.server.model.DroneContent;
 import com.skyvault.server.model.Order;
 import com.skyvault.server.model.User;
+import com.skyvault.server.repository.ContentRepository;
 import com.skyvault.server.repository.OrderRepository;
 import com.skyvault.server.repository.UserRepository;
-import com.skyvault.server.service.S3Service;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,49 +27,96 @@ public class OrderService {
     private final S3Service s3Service;
     private final UserRepository userRepository;
     private final EmailService emailService; // Inject EmailService
+    private final ContentRepository contentRepository;
+    private final ContentCounterService contentCounterService;
+    private final MongoTemplate mongoTemplate;
 
     public List<Order> getOrdersForCreator(String creatorId) {
         return orderRepository.findByCreatorIdOrderByCreatedAtDesc(creatorId);
     }
 
     public Order approveOrder(String orderId, String creatorId) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new RuntimeException("Order not found"));
-        if (!order.getCreatorId().equals(creatorId)) {
-            throw new RuntimeException("Unauthorized");
+        Order order = checkOwner(orderId, creatorId);
+        // Only the request that actually moves the order into APPROVED credits it
+        Order previous = transition(orderId, Order.Status.APPROVED);
+        if (previous != null) {
+            creditEarnings(previous, 1);
         }
-        order.setStatus(Order.Status.APPROVED);
-        order.setUpdatedAt(java.time.LocalDateTime.now());
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = orderRepository.findById(orderId).orElse(order);
 
         // Notify buyer and creator
         User buyer = userRepository.findById(order.getBuyerId()).orElse(null);
         User creator = userRepository.findById(order.getCreatorId()).orElse(null);
         if (buyer != null && creator != null) {
-            emailService.sendOrderApprovedEmail(buyer, creator, order);
+            emailService.sendOrderApprovedEmail(buyer, creator, savedOrder);
         }
         return savedOrder;
     }
 
     public Order rejectOrder(String orderId, String creatorId) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new RuntimeException("Order not found"));
-        if (!order.getCreatorId().equals(creatorId)) {
-            throw new RuntimeException("Unauthorized");
+        Order order = checkOwner(orderId, creatorId);
+        // Rejecting an approved order takes back what approving it credited
+        Order previous = transition(orderId, Order.Status.REJECTED);
+        if (previous != null && previous.getStatus() == Order.Status.APPROVED) {
+            creditEarnings(previous, -1);
         }
-        order.setStatus(Order.Status.REJECTED);
-        order.setUpdatedAt(java.time.LocalDateTime.now());
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = orderRepository.findById(orderId).orElse(order);
 
         // Notify buyer and creator
         User buyer = userRepository.findById(order.getBuyerId()).orElse(null);
         User creator = userRepository.findById(order.getCreatorId()).orElse(null);
         if (buyer != null && creator != null) {
-            emailService.sendOrderRejectedEmail(buyer, creator, order);
+            emailService.sendOrderRejectedEmail(buyer, creator, savedOrder);
         }
         return savedOrder;
     }
 
+    private Order checkOwner(String orderId, String creatorId) {
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (!order.getCreatorId().equals(creatorId)) {
+            throw new RuntimeException("Unauthorized");
+        }
+        return order;
+    }
+
+    // Atomically set the status; returns the order as it was, or null when it already had that status
+    private Order transition(String orderId, Order.Status status) {
+        return mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(orderId).and("status").ne(status)),
+            new Update().set("status", status).set("updatedAt", LocalDateTime.now()),
+            FindAndModifyOptions.options().returnNew(false),
+            Order.class);
+    }
+
+    // Each purchased item earns what the buyer paid for it; sign -1 reverses an earlier credit
+    private void creditEarnings(Order order, int sign) {
+        List<String> contentIds = order.getContentIds();
+        if (contentIds == null || contentIds.isEmpty()) {
+            return;
+        }
+        List<Double> prices = order.getContentPrices();
+        if (prices == null) {
+            // Orders placed before prices were recorded fall back to the listed price
+            prices = new ArrayList<>();
+            Map<String, Double> listed = new HashMap<>();
+            for (DroneContent content : contentRepository.findAllById(contentIds)) {
+                listed.put(content.getId(), content.getPrice());
+            }
+            for (String contentId : contentIds) {
+                prices.add(listed.get(contentId));
+            }
+        }
+        Map<String, Double> earnings = new HashMap<>();
+        for (int i = 0; i < contentIds.size() && i < prices.size(); i++) {
+            Double price = prices.get(i);
+            if (price != null && price > 0) {
+                earnings.merge(contentIds.get(i), sign * price, Double::sum);
+            }
+        }
+        contentCounterService.creditEarnings(earnings);
+    }
+
     public String getSlipDownloadUrl(Order order, int expirationMinutes) {
         // Use only for slip files, not for video/image content
         String slipUrl = order.getSlipUrl();
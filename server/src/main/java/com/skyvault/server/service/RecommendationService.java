@@ -0,0 +1,209 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.Order;
+import com.skyvault.server.util.MinHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Precomputed "similar footage" lists. A background job finds candidate
+ * pairs with MinHash/LSH over each approved item's tags, category, location
+ * words and coarse map cell, scores them by Jaccard similarity plus a
+ * co-purchase bonus from approved orders, and keeps the best few per item.
+ * Requests only look up the finished table.
+ */
+@Service
+@Slf4j
+public class RecommendationService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    // LSH buckets larger than this are generic features ("4k", a popular tag) and are skipped
+    private static final int MAX_BUCKET_SIZE = 200;
+    // Orders with more items than this say little about any particular pair
+    private static final int MAX_ORDER_ITEMS = 50;
+    private static final double GEO_CELL_DEGREES = 0.5;
+
+    private final MongoTemplate mongoTemplate;
+    private final MinHash minHash = new MinHash(BANDS, ROWS);
+    private final int perItem;
+    private final double coPurchaseWeight;
+
+    // Replaced wholesale by each rebuild; readers never see a half-built table
+    private volatile Map<String, String[]> related = Collections.emptyMap();
+
+    public RecommendationService(MongoTemplate mongoTemplate,
+                                 @Value("${recommendations.per-item:12}") int perItem,
+                                 @Value("${recommendations.co-purchase-weight:1.0}") double coPurchaseWeight) {
+        this.mongoTemplate = mongoTemplate;
+        this.perItem = Math.min(perItem, MAX_LIMIT);
+        this.coPurchaseWeight = coPurchaseWeight;
+    }
+
+    public List<String> related(String contentId, int limit) {
+        String[] ids = related.get(contentId);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return List.of(ids).subList(0, Math.min(Math.max(1, Math.min(limit, MAX_LIMIT)), ids.length));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${recommendations.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${recommendations.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Set<String>> features = loadFeatures();
+            Map<String, Map<String, Double>> scores = new HashMap<>();
+            int candidatePairs = addSimilarityScores(features, scores);
+            addCoPurchaseScores(features.keySet(), scores);
+
+            Map<String, String[]> table = new HashMap<>();
+            scores.forEach((contentId, candidates) -> table.put(contentId, best(candidates)));
+            related = table;
+            log.info("Recommendations rebuilt for {} items from {} LSH candidate pairs in {}ms",
+                    table.size(), candidatePairs, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild recommendations", e);
+        }
+    }
+
+    // contentId -> feature set, for every approved item
+    private Map<String, Set<String>> loadFeatures() {
+        Query query = Query.query(Criteria.where("status").is(DroneContent.ContentStatus.APPROVED));
+        query.fields().include("tags", "category", "location", "geoLocation");
+
+        Map<String, Set<String>> features = new HashMap<>();
+        try (Stream<DroneContent> contents = mongoTemplate.stream(query, DroneContent.class)) {
+            contents.forEach(content -> {
+                Set<String> set = new HashSet<>();
+                if (content.getTags() != null) {
+                    for (String tag : content.getTags()) {
+                        if (tag != null && !tag.isBlank()) {
+                            set.add("tag:" + tag.trim().toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                if (content.getCategory() != null) {
+                    set.add("category:" + content.getCategory().toLowerCase(Locale.ROOT));
+                }
+                for (String word : ContentSearchIndex.tokenize(content.getLocation())) {
+                    set.add("location:" + word);
+                }
+                if (content.getGeoLocation() != null) {
+                    long cellX = (long) Math.floor(content.getGeoLocation().getX() / GEO_CELL_DEGREES);
+                    long cellY = (long) Math.floor(content.getGeoLocation().getY() / GEO_CELL_DEGREES);
+                    set.add("cell:" + cellX + ":" + cellY);
+                }
+                if (!set.isEmpty()) {
+                    features.put(content.getId(), set);
+                }
+            });
+        }
+        return features;
+    }
+
+    private int addSimilarityScores(Map<String, Set<String>> features, Map<String, Map<String, Double>> scores) {
+        Map<Long, List<String>> buckets = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : features.entrySet()) {
+            for (long key : minHash.bandKeys(minHash.signature(entry.getValue()))) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        int pairs = 0;
+        Set<String> seen = new HashSet<>();
+        for (List<String> bucket : buckets.values()) {
+            if (bucket.size() < 2 || bucket.size() > MAX_BUCKET_SIZE) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                for (int j = i + 1; j < bucket.size(); j++) {
+                    String a = bucket.get(i);
+                    String b = bucket.get(j);
+                    // The same pair usually shares several bands; score it once
+                    if (!seen.add(a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a)) {
+                        continue;
+                    }
+                    double similarity = jaccard(features.get(a), features.get(b));
+                    scores.computeIfAbsent(a, k -> new HashMap<>()).merge(b, similarity, Double::sum);
+                    scores.computeIfAbsent(b, k -> new HashMap<>()).merge(a, similarity, Double::sum);
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private void addCoPurchaseScores(Set<String> approved, Map<String, Map<String, Double>> scores) {
+        Query query = Query.query(Criteria.where("status").is(Order.Status.APPROVED));
+        query.fields().include("contentIds");
+
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+        try (Stream<Order> orders = mongoTemplate.stream(query, Order.class)) {
+            orders.forEach(order -> {
+                List<String> items = order.getContentIds() == null ? List.of() : order.getContentIds().stream()
+                        .filter(approved::contains)
+                        .distinct()
+                        .toList();
+                if (items.size() < 2 || items.size() > MAX_ORDER_ITEMS) {
+                    return;
+                }
+                for (String a : items) {
+                    for (String b : items) {
+                        if (!a.equals(b)) {
+                            counts.computeIfAbsent(a, k -> new HashMap<>()).merge(b, 1, Integer::sum);
+                        }
+                    }
+                }
+            });
+        }
+
+        // Saturating bonus: the first few shared orders matter most
+        counts.forEach((a, others) -> others.forEach((b, count) ->
+                scores.computeIfAbsent(a, k -> new HashMap<>())
+                        .merge(b, coPurchaseWeight * count / (count + 1.0), Double::sum)));
+    }
+
+    private String[] best(Map<String, Double> candidates) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(perItem)
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int shared = 0;
+        for (String feature : smaller) {
+            if (larger.contains(feature)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+}
@@ -0,0 +1,327 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.model.DroneContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background worker that turns uploaded stills into a few downscaled JPEG
+ * renditions (by long edge, e.g. 320/800/1600px) so browse pages and grids
+ * fetch tens of kilobytes instead of the multi-megabyte original. New
+ * uploads are queued on a small bounded pool and the upload request returns
+ * straight away; anything that was dropped because the queue was full, or
+ * missed during a restart, is picked up by a periodic backfill.
+ *
+ * Large originals are decoded with source subsampling, so memory per job is
+ * bounded by the largest rendition rather than by the camera's resolution.
+ * Videos are skipped; ImageIO cannot decode them.
+ */
+@Service
+@Slf4j
+public class RenditionService {
+
+    public static final String RENDITION_FOLDER = "skyvault/renditions";
+
+    private static final Set<String> IMAGE_FORMATS = Set.of("jpg", "jpeg", "png");
+    // Decode at no less than this multiple of the largest rendition, so the final downscale still smooths
+    private static final double DECODE_HEADROOM = 1.5;
+    private static final int BACKFILL_BATCH = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final S3Service s3Service;
+    private final int[] sizes;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    // Content already queued or rendering, so the backfill does not queue it twice
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public RenditionService(MongoTemplate mongoTemplate,
+                            S3Service s3Service,
+                            @Value("${renditions.sizes:320,800,1600}") int[] sizes,
+                            @Value("${renditions.jpeg-quality:0.82}") float jpegQuality,
+                            @Value("${renditions.threads:2}") int threads,
+                            @Value("${renditions.queue-capacity:200}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.s3Service = s3Service;
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rendition-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ImageIO.setUseCache(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (!event.deleted() && event.previousStatus() == null) {
+            submit(event.contentId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${renditions.backfill-interval-ms:600000}",
+            fixedDelayString = "${renditions.backfill-interval-ms:600000}")
+    public void backfill() {
+        try {
+            List<DroneContent> missing = mongoTemplate.find(backfillQuery(), DroneContent.class);
+            missing.forEach(content -> submit(content.getId()));
+            if (!missing.isEmpty()) {
+                log.info("Queued {} content items missing renditions", missing.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to queue rendition backfill", e);
+        }
+    }
+
+    /**
+     * The rendition to show at the given width: the smallest at least that
+     * wide, else the largest there is. Null if the file has none.
+     */
+    public static DroneContent.Rendition pick(DroneContent.MediaFile file, int width) {
+        if (file.getRenditions() == null || file.getRenditions().isEmpty()) {
+            return null;
+        }
+        for (DroneContent.Rendition rendition : file.getRenditions()) {
+            if (rendition.getWidth() >= width) {
+                return rendition;
+            }
+        }
+        return file.getRenditions().get(file.getRenditions().size() - 1);
+    }
+
+    private void submit(String contentId) {
+        if (!pending.add(contentId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    renderContent(contentId);
+                } catch (Exception e) {
+                    log.error("Failed to render previews for content {}", contentId, e);
+                } finally {
+                    pending.remove(contentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full; the backfill will come back for it
+            pending.remove(contentId);
+            log.warn("Rendition queue full, deferring content {}", contentId);
+        }
+    }
+
+    private void renderContent(String contentId) {
+        DroneContent content = mongoTemplate.findById(contentId, DroneContent.class);
+        if (content == null || content.getMediaFiles() == null) {
+            return;
+        }
+
+        for (DroneContent.MediaFile file : content.getMediaFiles()) {
+            if (file.getRenditions() != null || !isImage(file)) {
+                continue;
+            }
+            List<DroneContent.Rendition> renditions = renditionsFor(file);
+            // Positional updates touch only this file's renditions, so concurrent writes to the
+            // content's other fields survive; the first render of a file to finish wins
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(contentId).and("mediaFiles").elemMatch(
+                            Criteria.where("_id").is(file.getId()).and("renditions").exists(false))),
+                    new Update().set("mediaFiles.$.renditions", renditions), DroneContent.class);
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(contentId).and("thumbnailFile._id").is(file.getId())
+                            .and("thumbnailFile.renditions").exists(false)),
+                    new Update().set("thumbnailFile.renditions", renditions), DroneContent.class);
+        }
+    }
+
+    private List<DroneContent.Rendition> renditionsFor(DroneContent.MediaFile file) {
+        // Deduplicated uploads share an object, and so can share its renditions
+        List<DroneContent.Rendition> existing = existingRenditions(file.getId());
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return render(file.getId());
+        } catch (Exception e) {
+            // Recorded as empty so the backfill does not retry an undecodable file forever
+            log.warn("Could not render {}: {}", file.getId(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<DroneContent.Rendition> existingRenditions(String s3Key) {
+        DroneContent other = mongoTemplate.findOne(sharedRenditionsQuery(s3Key), DroneContent.class);
+        if (other == null) {
+            return null;
+        }
+        return other.getMediaFiles().stream()
+                .filter(file -> file.getId().equals(s3Key))
+                .map(DroneContent.MediaFile::getRenditions)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Content with image files that have not been rendered yet
+    static Query backfillQuery() {
+        Query query = Query.query(Criteria.where("mediaFiles").elemMatch(
+                Criteria.where("format").in(IMAGE_FORMATS).and("renditions").exists(false)));
+        query.fields().include("_id");
+        query.limit(BACKFILL_BATCH);
+        return query;
+    }
+
+    // Any content whose copy of this stored object already has renditions
+    static Query sharedRenditionsQuery(String s3Key) {
+        Query query = Query.query(Criteria.where("mediaFiles").elemMatch(
+                Criteria.where("_id").is(s3Key).and("renditions.0").exists(true)));
+        query.fields().include("mediaFiles");
+        return query;
+    }
+
+    private List<DroneContent.Rendition> render(String s3Key) throws IOException {
+        long start = System.currentTimeMillis();
+        Path original = s3Service.downloadToTempFile(s3Key);
+        try {
+            BufferedImage image = decodeSubsampled(original, sizes[sizes.length - 1]);
+            List<DroneContent.Rendition> renditions = new ArrayList<>();
+            int longEdge = Math.max(image.getWidth(), image.getHeight());
+            // Largest first, each one scaled from the previous, so every step is a small reduction
+            BufferedImage source = image;
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                if (sizes[i] >= longEdge) {
+                    continue; // never upscale
+                }
+                double scale = (double) sizes[i] / Math.max(source.getWidth(), source.getHeight());
+                source = scale(source, Math.max(1, (int) Math.round(source.getWidth() * scale)),
+                        Math.max(1, (int) Math.round(source.getHeight() * scale)));
+                byte[] jpeg = encodeJpeg(source);
+                String key = renditionKey(s3Key, sizes[i]);
+                s3Service.putBytes(key, jpeg, "image/jpeg", "private, max-age=86400");
+                renditions.add(0, new DroneContent.Rendition(key, source.getWidth(), source.getHeight(),
+                        (long) jpeg.length));
+            }
+            log.info("Rendered {} previews of {} in {}ms", renditions.size(), s3Key, System.currentTimeMillis() - start);
+            return renditions;
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+
+    // Decode with every n-th pixel kept so the result is not much bigger than the largest rendition
+    private static BufferedImage decodeSubsampled(Path file, int largest) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int factor = Math.max(1, (int) (longEdge / (largest * DECODE_HEADROOM)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Bilinear, halving first while more than 2x too big, which keeps detail without a costlier filter
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return current.getWidth() == width && current.getHeight() == height ? current : draw(current, width, height);
+    }
+
+    // Always onto opaque RGB with a white background, since JPEG has no alpha
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean isImage(DroneContent.MediaFile file) {
+        return file.getFormat() != null && IMAGE_FORMATS.contains(file.getFormat().toLowerCase(Locale.ROOT));
+    }
+
+    // skyvault/content/<uuid>.jpg -> skyvault/renditions/<uuid>.jpg/w320.jpg
+    static String renditionKey(String s3Key, int size) {
+        return RENDITION_FOLDER + "/" + s3Key.substring(s3Key.lastIndexOf('/') + 1) + "/w" + size + ".jpg";
+    }
+}
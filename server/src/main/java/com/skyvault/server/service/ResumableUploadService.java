@@ -0,0 +1,379 @@
+package com.skyvault.server.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.skyvault.server.dto.ContentResponse;
+import com.skyvault.server.dto.ResumableUploadRequest;
+import com.skyvault.server.dto.ResumableUploadStatus;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.ResumableUpload;
+import com.skyvault.server.model.User;
+import com.skyvault.server.repository.ContentRepository;
+import com.skyvault.server.repository.ResumableUploadRepository;
+import com.skyvault.server.util.MediaProbe;
+import com.skyvault.server.util.Sha256State;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resumable single-file uploads in the style of tus. The client creates an
+ * upload, then sends the file as consecutive chunks of exactly chunkSize
+ * bytes (the last one may be shorter), each tagged with the offset it
+ * starts at. Every chunk is forwarded to S3 as one multipart part, so at
+ * most one chunk is held in memory and a dropped connection costs at most
+ * the chunk in flight. The stored offset is the resume point; the last
+ * chunk completes the multipart upload and creates the content item.
+ * Uploads that stop receiving chunks expire and their parts are discarded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    // S3 limit on parts per multipart upload
+    private static final int MAX_PARTS = 10_000;
+
+    private final ResumableUploadRepository resumableUploadRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ContentService contentService;
+    private final ContentRepository contentRepository;
+    private final S3Service s3Service;
+
+    @Value("${upload.resumable.ttl-hours:24}")
+    private int ttlHours;
+
+    @Value("${content.upload.resumable.max-file-size-mb:5120}")
+    private long maxFileSizeMb;
+
+    @Value("${upload.resumable.completing-timeout-minutes:15}")
+    private int completingTimeoutMinutes;
+
+    public ResumableUploadStatus createUpload(String creatorId, ResumableUploadRequest request) {
+        contentService.requireApprovedCreator(creatorId);
+        // Fail on bad metadata now rather than after the file is uploaded
+        contentService.buildContent(creatorId, request.getData());
+
+        String contentType = request.getContentType().toLowerCase(Locale.ROOT);
+        if (!ContentService.ALLOWED_MEDIA_TYPES.contains(contentType)) {
+            throw new RuntimeException("Invalid file type: " + request.getName() + ". Only MP4, MOV, JPG, PNG files are allowed");
+        }
+        if (request.getSize() > maxFileSizeMb * 1024 * 1024) {
+            throw new RuntimeException("File size must not exceed " + maxFileSizeMb + "MB: " + request.getName());
+        }
+        // Part sizes are whole megabytes, so every chunk but the last is whole SHA-256 blocks
+        int chunkSize = s3Service.getPartSizeBytes();
+        if ((request.getSize() + chunkSize - 1) / chunkSize > MAX_PARTS) {
+            throw new RuntimeException("File is too large for the configured chunk size: " + request.getName());
+        }
+
+        ResumableUpload upload = new ResumableUpload();
+        upload.setCreatorId(creatorId);
+        upload.setRequest(request.getData());
+        upload.setOriginalName(request.getName());
+        upload.setContentType(contentType);
+        upload.setLength(request.getSize());
+        upload.setOffset(0L);
+        upload.setChunkSize(chunkSize);
+        upload.setS3Key(s3Service.newObjectKey(ContentService.CONTENT_FOLDER, request.getName()));
+        upload.setSha256State(Sha256State.start().save());
+        upload.setStatus(ResumableUpload.Status.OPEN);
+        upload.setCreatedAt(Instant.now());
+        upload.setUpdatedAt(upload.getCreatedAt());
+        upload.setExpiresAt(upload.getCreatedAt().plus(ttlHours, ChronoUnit.HOURS));
+        upload.setUploadId(s3Service.initiateMultipartUpload(upload.getS3Key(), contentType, request.getName()));
+        try {
+            upload = resumableUploadRepository.save(upload);
+        } catch (RuntimeException e) {
+            s3Service.abortMultipartUpload(upload.getS3Key(), upload.getUploadId());
+            throw e;
+        }
+
+        log.info("Created resumable upload {} for creator {} ({} bytes)", upload.getId(), creatorId, upload.getLength());
+        return toStatus(upload);
+    }
+
+    public ResumableUploadStatus getStatus(String creatorId, String uploadId) {
+        return toStatus(load(creatorId, uploadId));
+    }
+
+    /**
+     * Store the chunk starting at offset. The request body must hold exactly
+     * the expected chunk; anything short (a dropped connection) is discarded
+     * and the offset stays where it was.
+     */
+    public ResumableUploadStatus appendChunk(String creatorId, String uploadId, long offset, InputStream body)
+            throws IOException {
+        ResumableUpload upload = load(creatorId, uploadId);
+        if (upload.getStatus() == ResumableUpload.Status.COMPLETING && offset == upload.getLength()) {
+            // Every byte is stored but completion was cut off (e.g. by a restart); retry it once stale
+            if (!reclaim(upload.getId())) {
+                throw new RuntimeException("Upload is still completing");
+            }
+            finish(upload);
+            return toStatus(upload);
+        }
+        if (upload.getStatus() != ResumableUpload.Status.OPEN || upload.getExpiresAt().isBefore(Instant.now())) {
+            throw new RuntimeException("Upload is no longer open");
+        }
+        if (offset != upload.getOffset()) {
+            throw new OffsetMismatchException(upload.getOffset());
+        }
+        if (offset == upload.getLength()) {
+            // Every byte is stored but the last chunk's request died before completing; retry it
+            complete(upload);
+            return toStatus(upload);
+        }
+
+        int expected = (int) Math.min(upload.getChunkSize(), upload.getLength() - offset);
+        byte[] chunk = body.readNBytes(expected);
+        if (chunk.length < expected) {
+            throw new RuntimeException("Incomplete chunk: expected " + expected + " bytes but received " + chunk.length);
+        }
+        if (body.read() >= 0) {
+            throw new RuntimeException("Chunk must be exactly " + expected + " bytes");
+        }
+
+        long newOffset = offset + expected;
+        String hashState = upload.getSha256State();
+        String sha256 = null;
+        if (hashState != null) {
+            Sha256State hash = Sha256State.restore(hashState, offset);
+            if (newOffset == upload.getLength()) {
+                sha256 = hash.finish(chunk, 0, expected);
+            } else {
+                hash.update(chunk, 0, expected);
+                hashState = hash.save();
+            }
+        }
+
+        int partNumber = (int) (offset / upload.getChunkSize()) + 1;
+        s3Service.uploadPart(upload.getS3Key(), upload.getUploadId(), partNumber, chunk);
+
+        // Conditional on the old offset, so a duplicate concurrent chunk cannot advance it twice
+        Update update = new Update().set("offset", newOffset)
+                .set("sha256State", hashState)
+                .set("expiresAt", Instant.now().plus(ttlHours, ChronoUnit.HOURS));
+        if (sha256 != null) {
+            update.set("sha256", sha256);
+        }
+        boolean advanced = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(uploadId)
+                        .and("status").is(ResumableUpload.Status.OPEN)
+                        .and("offset").is(offset)),
+                update,
+                ResumableUpload.class).getModifiedCount() > 0;
+        if (!advanced) {
+            throw new OffsetMismatchException(load(creatorId, uploadId).getOffset());
+        }
+
+        upload.setOffset(newOffset);
+        upload.setSha256State(hashState);
+        upload.setSha256(sha256);
+        if (newOffset == upload.getLength()) {
+            complete(upload);
+        }
+        return toStatus(upload);
+    }
+
+    public void abortUpload(String creatorId, String uploadId) {
+        ResumableUpload upload = load(creatorId, uploadId);
+        if (transition(uploadId, ResumableUpload.Status.OPEN, ResumableUpload.Status.ABORTED)) {
+            s3Service.abortMultipartUpload(upload.getS3Key(), upload.getUploadId());
+        } else {
+            throw new RuntimeException("Upload is no longer open");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${upload.sessions.cleanup-interval-ms:300000}")
+    public void expireUploads() {
+        try {
+            Instant now = Instant.now();
+            List<ResumableUpload> expired = resumableUploadRepository
+                    .findTop100ByStatusAndExpiresAtBefore(ResumableUpload.Status.OPEN, now);
+            int count = 0;
+            for (ResumableUpload upload : expired) {
+                // A chunk may have arrived since the query; only expire if still untouched
+                if (transition(upload.getId(), ResumableUpload.Status.OPEN, ResumableUpload.Status.EXPIRED)) {
+                    s3Service.abortMultipartUpload(upload.getS3Key(), upload.getUploadId());
+                    count++;
+                }
+            }
+            // Completions nobody retried; uploads from before updatedAt fall back to expiresAt
+            for (ResumableUpload upload : mongoTemplate.find(
+                    Query.query(abandoned(now)).limit(100), ResumableUpload.class)) {
+                if (mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(upload.getId())).addCriteria(abandoned(now)),
+                        new Update().set("status", ResumableUpload.Status.EXPIRED).set("updatedAt", now),
+                        ResumableUpload.class).getModifiedCount() == 0) {
+                    continue;
+                }
+                if (contentRepository.existsByMediaFileKeys(List.of(upload.getS3Key()))) {
+                    // The content was saved just before the crash; only the status update was lost
+                    setStatus(upload.getId(), ResumableUpload.Status.COMPLETED);
+                } else {
+                    discard(upload);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                log.info("Expired {} abandoned resumable uploads", count);
+            }
+        } catch (Exception e) {
+            log.error("Failed to expire resumable uploads", e);
+        }
+    }
+
+    private void complete(ResumableUpload upload) {
+        if (transition(upload.getId(), ResumableUpload.Status.OPEN, ResumableUpload.Status.COMPLETING)) {
+            finish(upload);
+        }
+    }
+
+    // Runs once the upload is COMPLETING and claimed by this request
+    private void finish(ResumableUpload upload) {
+        upload.setStatus(ResumableUpload.Status.COMPLETING);
+
+        ContentResponse response;
+        try {
+            // A retried completion may find the parts already assembled
+            if (!s3Service.doesFileExist(upload.getS3Key())) {
+                int expectedParts = (int) ((upload.getLength() + upload.getChunkSize() - 1) / upload.getChunkSize());
+                int parts = s3Service.completeMultipartUpload(upload.getS3Key(), upload.getUploadId());
+                if (parts != expectedParts) {
+                    throw new RuntimeException("Expected " + expectedParts + " parts but S3 holds " + parts);
+                }
+            }
+            ObjectMetadata metadata = s3Service.getFileMetadata(upload.getS3Key());
+            if (metadata.getContentLength() != upload.getLength()) {
+                throw new RuntimeException("Uploaded size does not match for " + upload.getOriginalName());
+            }
+
+            User creator = contentService.requireApprovedCreator(upload.getCreatorId());
+            DroneContent.MediaFile mediaFile = s3Service.toMediaFile(
+                    upload.getS3Key(), upload.getOriginalName(), upload.getLength());
+            // Hashed on the way in (null for uploads begun before that, which are then not deduplicated)
+            mediaFile.setSha256(upload.getSha256());
+            MediaProbe.Result probed = probe(upload);
+            if (probed.mediaType() == null || !ContentService.ALLOWED_MEDIA_TYPES.contains(probed.mediaType())) {
+                throw new RuntimeException("Invalid file type: " + upload.getOriginalName() + ". Only MP4, MOV, JPG, PNG files are allowed");
+            }
+            if (!probed.mediaType().equals(metadata.getContentType())) {
+                // Stored under the Content-Type the client declared; serve it as what it is
+                s3Service.replaceContentType(upload.getS3Key(), metadata, probed.mediaType());
+            }
+            S3Service.applyProbe(mediaFile, probed);
+            DroneContent content = contentService.buildContent(upload.getCreatorId(), upload.getRequest());
+            response = contentService.saveUploadedContent(content, List.of(mediaFile), creator);
+        } catch (RuntimeException e) {
+            log.warn("Resumable upload {} failed to complete: {}", upload.getId(), e.getMessage());
+            discard(upload);
+            setStatus(upload.getId(), ResumableUpload.Status.FAILED);
+            upload.setStatus(ResumableUpload.Status.FAILED);
+            throw e;
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(upload.getId())),
+                new Update().set("status", ResumableUpload.Status.COMPLETED)
+                        .set("contentId", response.getId())
+                        .set("updatedAt", Instant.now()),
+                ResumableUpload.class);
+        upload.setStatus(ResumableUpload.Status.COMPLETED);
+        upload.setContentId(response.getId());
+        log.info("Resumable upload {} completed as content {}", upload.getId(), response.getId());
+    }
+
+    // Only the headers are read, with ranged GETs that seek over the media data
+    private MediaProbe.Result probe(ResumableUpload upload) {
+        try {
+            return s3Service.probe(upload.getS3Key(), upload.getLength(), new MediaProbe());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read back " + upload.getOriginalName() + ": " + e.getMessage());
+        }
+    }
+
+    // Take over a completion that has been COMPLETING for longer than the timeout
+    private boolean reclaim(String uploadId) {
+        Instant now = Instant.now();
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(uploadId)).addCriteria(abandoned(now)),
+                new Update().set("updatedAt", now),
+                ResumableUpload.class).getModifiedCount() > 0;
+    }
+
+    private Criteria abandoned(Instant now) {
+        Instant stale = now.minus(completingTimeoutMinutes, ChronoUnit.MINUTES);
+        return Criteria.where("status").is(ResumableUpload.Status.COMPLETING)
+                .orOperator(Criteria.where("updatedAt").lt(stale),
+                        Criteria.where("updatedAt").exists(false).and("expiresAt").lt(now));
+    }
+
+    private void discard(ResumableUpload upload) {
+        s3Service.abortMultipartUpload(upload.getS3Key(), upload.getUploadId());
+        s3Service.deleteFiles(List.of(s3Service.toMediaFile(
+                upload.getS3Key(), upload.getOriginalName(), upload.getLength())));
+    }
+
+    private ResumableUpload load(String creatorId, String uploadId) {
+        ResumableUpload upload = resumableUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!upload.getCreatorId().equals(creatorId)) {
+            throw new RuntimeException("Upload not found");
+        }
+        return upload;
+    }
+
+    private boolean transition(String uploadId, ResumableUpload.Status from, ResumableUpload.Status to) {
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(uploadId).and("status").is(from)),
+                new Update().set("status", to).set("updatedAt", Instant.now()),
+                ResumableUpload.class).getModifiedCount() > 0;
+    }
+
+    private void setStatus(String uploadId, ResumableUpload.Status status) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(uploadId)),
+                new Update().set("status", status).set("updatedAt", Instant.now()), ResumableUpload.class);
+    }
+
+    private static ResumableUploadStatus toStatus(ResumableUpload upload) {
+        ResumableUploadStatus status = new ResumableUploadStatus();
+        status.setUploadId(upload.getId());
+        status.setOffset(upload.getOffset());
+        status.setLength(upload.getLength());
+        status.setChunkSize(upload.getChunkSize());
+        status.setStatus(upload.getStatus().name().toLowerCase(Locale.ROOT));
+        status.setContentId(upload.getContentId());
+        status.setExpiresAt(upload.getExpiresAt());
+        return status;
+    }
+
+    /**
+     * The chunk did not start at the stored offset; the client should resume
+     * from currentOffset.
+     */
+    public static class OffsetMismatchException extends RuntimeException {
+
+        private final long currentOffset;
+
+        public OffsetMismatchException(long currentOffset) {
+            super("Upload offset mismatch; resume from offset " + currentOffset);
+            this.currentOffset = currentOffset;
+        }
+
+        public long getCurrentOffset() {
+            return currentOffset;
+        }
+    }
+}
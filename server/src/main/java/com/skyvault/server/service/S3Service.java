@@ -2,26 +2,51 @@ package com.skyvault.server.service;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.*;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.HttpMethod;
 import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.util.ExifReader;
+import com.skyvault.server.util.MediaProbe;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -39,32 +64,95 @@ public class S3Service {
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
     
+    // Optional S3-compatible endpoint (e.g. a local MinIO) for development and tests
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+    
+    // S3 rejects multipart parts smaller than 5 MB (except the last one)
+    private static final int MIN_PART_SIZE_MB = 5;
+    // S3 accepts at most this many keys per DeleteObjects request
+    private static final int MAX_DELETE_BATCH = 1000;
+    private static final String CHECKSUM_SHA256_HEADER = "x-amz-checksum-sha256";
+    // Header probing reads ranges of this size and seeks over anything at least PROBE_SKIP_BYTES long
+    private static final int PROBE_WINDOW_BYTES = 1024 * 1024;
+    private static final int PROBE_SKIP_BYTES = 256 * 1024;
+    
+    @Value("${aws.s3.multipart.part-size-mb:8}")
+    private int partSizeMb;
+    
+    @Value("${aws.s3.multipart.part-concurrency:4}")
+    private int partConcurrency;
+    
+    @Value("${aws.s3.multipart.file-concurrency:3}")
+    private int fileConcurrency;
+    
+    @Value("${aws.s3.multipart.max-attempts:3}")
+    private int maxAttempts;
+    
     private AmazonS3 s3Client;
     
+    // Whole-file uploads and the parts of each multipart upload run on separate pools so a
+    // file task waiting on its parts can never starve them
+    private ExecutorService fileExecutor;
+    private ExecutorService partExecutor;
+    
     @PostConstruct
     public void initializeS3Client() {
         BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKey, secretKey);
-        this.s3Client = AmazonS3ClientBuilder.standard()
-                .withRegion(Regions.fromName(region))
-                .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
-                .build();
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(awsCredentials));
+        if (endpoint != null && !endpoint.isBlank()) {
+            // S3-compatible stand-ins generally only support path-style bucket addressing
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                    .withPathStyleAccessEnabled(true);
+            log.info("Using S3 endpoint override: {}", endpoint);
+        } else {
+            builder.withRegion(Regions.fromName(region));
+        }
+        this.s3Client = builder.build();
+        
+        this.fileExecutor = boundedExecutor("s3-file-upload-", fileConcurrency);
+        this.partExecutor = boundedExecutor("s3-part-upload-", fileConcurrency * partConcurrency);
         
         log.info("S3 Client initialized for bucket: {} in region: {}", bucketName, region);
     }
     
+    @PreDestroy
+    public void shutdownExecutors() {
+        fileExecutor.shutdown();
+        partExecutor.shutdown();
+    }
+    
+    /**
+     * Upload every file concurrently on the bounded file pool. If any upload
+     * fails, the files that did make it are deleted again before throwing.
+     */
     public List<DroneContent.MediaFile> uploadMultipleFiles(List<MultipartFile> files, String folderName) {
-        List<DroneContent.MediaFile> mediaFiles = new ArrayList<>();
-        
+        List<Future<DroneContent.MediaFile>> uploads = new ArrayList<>();
         for (MultipartFile file : files) {
+            uploads.add(fileExecutor.submit(() -> uploadSingleFile(file, folderName)));
+        }
+        
+        List<DroneContent.MediaFile> mediaFiles = new ArrayList<>();
+        String failedFile = null;
+        for (int i = 0; i < uploads.size(); i++) {
             try {
-                DroneContent.MediaFile mediaFile = uploadSingleFile(file, folderName);
-                mediaFiles.add(mediaFile);
-            } catch (Exception e) {
-                log.error("Failed to upload file: {}", file.getOriginalFilename(), e);
-                throw new RuntimeException("Failed to upload file: " + file.getOriginalFilename());
+                mediaFiles.add(uploads.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedFile = files.get(i).getOriginalFilename();
+            } catch (ExecutionException e) {
+                log.error("Failed to upload file: {}", files.get(i).getOriginalFilename(), e.getCause());
+                if (failedFile == null) {
+                    failedFile = files.get(i).getOriginalFilename();
+                }
             }
         }
         
+        if (failedFile != null) {
+            deleteFiles(mediaFiles);
+            throw new RuntimeException("Failed to upload file: " + failedFile);
+        }
         return mediaFiles;
     }
     
@@ -73,59 +161,475 @@ public class S3Service {
             throw new IOException("Cannot upload empty file");
         }
         
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFileName);
-        String uniqueFileName = UUID.randomUUID().toString() + "." + fileExtension;
-        String s3Key = folderName + "/" + uniqueFileName;
+        // Store the type the bytes actually have, not the one the client declared
+        String contentType;
+        try (InputStream head = file.getInputStream()) {
+            String detected = MediaProbe.detectType(head.readNBytes(MediaProbe.SNIFF_BYTES));
+            contentType = detected != null ? detected : file.getContentType();
+        }
+        try (InputStream input = file.getInputStream()) {
+            return uploadMediaFile(input, file.getOriginalFilename(), contentType, folderName);
+        }
+    }
+    
+    /**
+     * Upload one media file from a stream of unknown length, e.g. a part read
+     * straight off the request body, and describe it as a MediaFile.
+     */
+    public DroneContent.MediaFile uploadMediaFile(InputStream input, String originalFileName, String contentType,
+                                                  String folderName) throws IOException {
+        String s3Key = newObjectKey(folderName, originalFileName);
+        // Hash and probe while the bytes stream through, so nothing has to be read back afterwards
+        MessageDigest digest = newSha256();
+        MediaProbe probe = new MediaProbe();
         
+        long size;
         try {
             // Create metadata for private storage
             ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentLength(file.getSize());
-            metadata.setContentType(file.getContentType());
+            metadata.setContentType(contentType);
             metadata.setCacheControl("private, no-cache, must-revalidate"); // Strict private caching
             
             // Add custom metadata
             metadata.addUserMetadata("original-name", originalFileName);
             metadata.addUserMetadata("file-type", "download-only"); // Mark as download-only
             
-            // Upload file to S3 as STRICTLY PRIVATE (no streaming access)
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                bucketName, 
-                s3Key, 
-                file.getInputStream(), 
-                metadata
-            );
-            
-            // Set private ACL - no public access, download-only
-            putObjectRequest.setCannedAcl(CannedAccessControlList.Private);
-            
-            PutObjectResult result = s3Client.putObject(putObjectRequest);
-            
-            // Store private S3 reference (no public URL)
-            String privateUrl = String.format("s3://%s/%s", bucketName, s3Key);
-            
-            // Create MediaFile object
-            DroneContent.MediaFile mediaFile = new DroneContent.MediaFile();
-            mediaFile.setId(s3Key); // Use S3 key as ID for download access
-            mediaFile.setUrl(privateUrl); // Store private S3 reference
-            mediaFile.setType("download-only");
-            mediaFile.setFormat(fileExtension);
-            mediaFile.setSize(file.getSize());
-            mediaFile.setOriginalName(originalFileName);
-            
-            // Basic metadata without dimensions (download-only focus)
-            mediaFile.setWidth(null); // Not needed for download-only
-            mediaFile.setHeight(null);
-            mediaFile.setDuration(null); // Not needed for download-only
-            
-            log.info("Successfully uploaded private file to S3 (download-only): {} -> {}", originalFileName, s3Key);
-            return mediaFile;
-            
+            // Upload file to S3 as STRICTLY PRIVATE (no streaming access); large files go up in parallel parts
+            size = uploadStream(probe.wrap(new DigestInputStream(input, digest)), s3Key, metadata);
         } catch (Exception e) {
             log.error("Failed to upload file to S3: {}", originalFileName, e);
-            throw new IOException("S3 upload failed: " + e.getMessage());
+            throw new IOException("S3 upload failed: " + e.getMessage(), e);
+        }
+        
+        if (size == 0) {
+            deleteFile(s3Key);
+            throw new IOException("Cannot upload empty file");
+        }
+        
+        DroneContent.MediaFile mediaFile = toMediaFile(s3Key, originalFileName, size);
+        mediaFile.setSha256(HexFormat.of().formatHex(digest.digest()));
+        applyProbe(mediaFile, probe.result());
+        log.info("Successfully uploaded private file to S3 (download-only): {} -> {}", originalFileName, s3Key);
+        return mediaFile;
+    }
+    
+    // Unique private key under the folder, keeping the original extension
+    public String newObjectKey(String folderName, String originalFileName) {
+        return folderName + "/" + UUID.randomUUID() + "." + getFileExtension(originalFileName);
+    }
+    
+    // Private S3 reference stored on a MediaFile (no public URL)
+    public String privateUrl(String s3Key) {
+        return String.format("s3://%s/%s", bucketName, s3Key);
+    }
+    
+    /**
+     * Describe a stored private object as a download-only MediaFile.
+     */
+    public DroneContent.MediaFile toMediaFile(String s3Key, String originalFileName, long size) {
+        // Create MediaFile object
+        DroneContent.MediaFile mediaFile = new DroneContent.MediaFile();
+        mediaFile.setId(s3Key); // Use S3 key as ID for download access
+        mediaFile.setUrl(privateUrl(s3Key)); // Store private S3 reference
+        mediaFile.setType("download-only");
+        mediaFile.setFormat(getFileExtension(originalFileName));
+        mediaFile.setSize(size);
+        mediaFile.setOriginalName(originalFileName);
+        
+        // Dimensions and duration are filled in from the file header when it has been probed
+        mediaFile.setWidth(null);
+        mediaFile.setHeight(null);
+        mediaFile.setDuration(null);
+        return mediaFile;
+    }
+    
+    public static void applyProbe(DroneContent.MediaFile mediaFile, MediaProbe.Result result) {
+        mediaFile.setWidth(result.width());
+        mediaFile.setHeight(result.height());
+        mediaFile.setDuration(result.durationSeconds());
+        ExifReader.Telemetry telemetry = result.telemetry();
+        if (telemetry != null) {
+            mediaFile.setCapture(new DroneContent.CaptureMetadata(telemetry.latitude(), telemetry.longitude(),
+                    telemetry.relativeAltitude(), telemetry.absoluteAltitude(), telemetry.capturedAt(),
+                    telemetry.cameraModel()));
+        }
+    }
+    
+    /**
+     * Upload a stream of unknown length as a private object. A stream that
+     * fits in one part goes up with a single putObject; anything larger
+     * becomes a multipart upload with up to part-concurrency parts in flight,
+     * so memory per upload is bounded by (concurrency + 1) parts. Failed parts are
+     * retried; if the upload still fails it is aborted so no orphaned parts
+     * are left behind. Content length is set here, not by the caller.
+     * Returns the number of bytes uploaded.
+     */
+    public long uploadStream(InputStream input, String s3Key, ObjectMetadata metadata) throws IOException {
+        int partSize = partSizeBytes();
+        byte[] first = input.readNBytes(partSize);
+        if (first.length < partSize) {
+            metadata.setContentLength(first.length);
+            withRetries("putObject " + s3Key, () -> {
+                PutObjectRequest request = new PutObjectRequest(
+                        bucketName, s3Key, new ByteArrayInputStream(first), metadata);
+                request.setCannedAcl(CannedAccessControlList.Private);
+                return s3Client.putObject(request);
+            });
+            return first.length;
+        }
+        return uploadMultipart(first, input, s3Key, metadata, partSize);
+    }
+    
+    private long uploadMultipart(byte[] first, InputStream input, String s3Key, ObjectMetadata metadata,
+                                 int partSize) throws IOException {
+        InitiateMultipartUploadRequest initiate = new InitiateMultipartUploadRequest(bucketName, s3Key, metadata)
+                .withCannedACL(CannedAccessControlList.Private);
+        String uploadId = withRetries("initiate " + s3Key, () -> s3Client.initiateMultipartUpload(initiate))
+                .getUploadId();
+        
+        Semaphore inFlight = new Semaphore(partConcurrency);
+        List<Future<PartETag>> parts = new ArrayList<>();
+        long total = 0;
+        try {
+            byte[] data = first;
+            int partNumber = 1;
+            while (data.length > 0) {
+                inFlight.acquire();
+                byte[] partData = data;
+                int number = partNumber++;
+                parts.add(partExecutor.submit(() -> {
+                    try {
+                        return uploadPart(s3Key, uploadId, number, partData);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                total += data.length;
+                throwIfAnyFailed(parts);
+                data = data.length < partSize ? new byte[0] : input.readNBytes(partSize);
+            }
+            
+            List<PartETag> etags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                etags.add(part.get());
+            }
+            withRetries("complete " + s3Key, () -> s3Client.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, s3Key, uploadId, etags)));
+            log.info("Multipart upload of {} completed: {} parts, {} bytes", s3Key, etags.size(), total);
+            return total;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            parts.forEach(part -> part.cancel(true));
+            abortMultipartUpload(s3Key, uploadId);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new IOException("Multipart upload failed for " + s3Key + ": " + cause.getMessage(), cause);
+        }
+    }
+    
+    /**
+     * Upload one part of a multipart upload, retrying transient failures.
+     * Re-uploading a part number replaces the earlier copy.
+     */
+    public PartETag uploadPart(String s3Key, String uploadId, int partNumber, byte[] data) {
+        return withRetries("part " + partNumber + " of " + s3Key, () -> s3Client.uploadPart(new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(s3Key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(data.length)
+                .withInputStream(new ByteArrayInputStream(data)))
+                .getPartETag());
+    }
+    
+    // --- DIRECT BROWSER UPLOADS (presigned PUT / multipart part URLs) ---
+    
+    /**
+     * Presigned PUT for a single-request upload. The content type and the
+     * declared SHA-256 are part of the signature, so the browser must send
+     * the same Content-Type and x-amz-checksum-sha256 headers, and S3 refuses
+     * a body that does not hash to the declared value.
+     */
+    public String generatePresignedPutUrl(String s3Key, String contentType, String sha256Hex, int expirationMinutes) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, s3Key)
+                .withMethod(HttpMethod.PUT)
+                .withExpiration(expiresIn(expirationMinutes));
+        request.setContentType(contentType);
+        request.putCustomRequestHeader(CHECKSUM_SHA256_HEADER, checksumHeaderValue(sha256Hex));
+        return s3Client.generatePresignedUrl(request).toString();
+    }
+    
+    /**
+     * Replace a stored object's Content-Type, keeping its cache and user
+     * metadata. S3 can only do this by copying the object onto itself.
+     */
+    public void replaceContentType(String s3Key, ObjectMetadata current, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setCacheControl(current.getCacheControl());
+        metadata.setUserMetadata(current.getUserMetadata());
+        CopyObjectRequest request = new CopyObjectRequest(bucketName, s3Key, bucketName, s3Key)
+                .withNewObjectMetadata(metadata)
+                .withCannedAccessControlList(CannedAccessControlList.Private);
+        withRetries("retype " + s3Key, () -> s3Client.copyObject(request));
+    }
+    
+    /**
+     * Base64 form of a hex SHA-256, as S3 expects in x-amz-checksum-sha256.
+     */
+    public static String checksumHeaderValue(String sha256Hex) {
+        return Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256Hex));
+    }
+    
+    /**
+     * SHA-256 that S3 checked when the object was stored, as lowercase hex,
+     * or null if it was uploaded without one. Needs metadata from
+     * {@link #getFileMetadata(String)}, which asks S3 to include checksums.
+     */
+    public static String storedSha256Hex(ObjectMetadata metadata) {
+        Object checksum = metadata.getRawMetadataValue(CHECKSUM_SHA256_HEADER);
+        if (checksum == null || checksum.toString().contains("-")) {
+            // Multipart objects carry a checksum of part checksums ("...-<parts>"), not of the object
+            return null;
         }
+        return HexFormat.of().formatHex(Base64.getDecoder().decode(checksum.toString()));
+    }
+    
+    public String initiateMultipartUpload(String s3Key, String contentType, String originalFileName) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setCacheControl("private, no-cache, must-revalidate");
+        metadata.addUserMetadata("original-name", originalFileName);
+        metadata.addUserMetadata("file-type", "download-only");
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucketName, s3Key, metadata)
+                .withCannedACL(CannedAccessControlList.Private);
+        return withRetries("initiate " + s3Key, () -> s3Client.initiateMultipartUpload(request)).getUploadId();
+    }
+    
+    public String generatePresignedPartUrl(String s3Key, String uploadId, int partNumber, int expirationMinutes) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, s3Key)
+                .withMethod(HttpMethod.PUT)
+                .withExpiration(expiresIn(expirationMinutes));
+        request.addRequestParameter("uploadId", uploadId);
+        request.addRequestParameter("partNumber", String.valueOf(partNumber));
+        return s3Client.generatePresignedUrl(request).toString();
+    }
+    
+    /**
+     * Complete a multipart upload from the parts S3 actually holds, so the
+     * client does not have to relay ETags. Returns the number of parts.
+     */
+    public int completeMultipartUpload(String s3Key, String uploadId) {
+        List<PartETag> etags = new ArrayList<>();
+        ListPartsRequest request = new ListPartsRequest(bucketName, s3Key, uploadId);
+        PartListing listing;
+        do {
+            listing = s3Client.listParts(request);
+            for (PartSummary part : listing.getParts()) {
+                etags.add(new PartETag(part.getPartNumber(), part.getETag()));
+            }
+            request.setPartNumberMarker(listing.getNextPartNumberMarker());
+        } while (listing.isTruncated());
+        
+        if (etags.isEmpty()) {
+            throw new RuntimeException("No parts were uploaded for " + s3Key);
+        }
+        withRetries("complete " + s3Key, () -> s3Client.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(bucketName, s3Key, uploadId, etags)));
+        return etags.size();
+    }
+    
+    /**
+     * SHA-256 of a stored object, streamed through a fixed buffer.
+     */
+    public String sha256Hex(String s3Key) throws IOException {
+        return sha256Hex(s3Key, new MediaProbe());
+    }
+    
+    /**
+     * Feed a stored object's headers to a probe with ranged reads. Whatever
+     * the probe would only count past (e.g. the mdat of a clip whose moov
+     * sits at the end) is jumped over, so only headers cross the network.
+     */
+    public MediaProbe.Result probe(String s3Key, long length, MediaProbe probe) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long position = 0;
+        while (position < length && !probe.isDone()) {
+            long skippable = Math.min(probe.skippable(), length - position);
+            if (skippable >= PROBE_SKIP_BYTES) {
+                probe.skip(skippable);
+                position += skippable;
+                continue;
+            }
+            long last = Math.min(length, position + PROBE_WINDOW_BYTES) - 1;
+            try (S3Object object = s3Client.getObject(new GetObjectRequest(bucketName, s3Key).withRange(position, last))) {
+                S3ObjectInputStream input = object.getObjectContent();
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    probe.update(buffer, 0, read);
+                    position += read;
+                    if (probe.isDone() || probe.skippable() >= PROBE_SKIP_BYTES) {
+                        // Drop the rest of the range instead of draining it
+                        input.abort();
+                        break;
+                    }
+                }
+            }
+        }
+        return probe.result();
+    }
+    
+    /**
+     * SHA-256 of a stored object, also feeding the bytes to a header probe on the way.
+     */
+    public String sha256Hex(String s3Key, MediaProbe probe) throws IOException {
+        MessageDigest digest = newSha256();
+        try (S3Object object = s3Client.getObject(bucketName, s3Key);
+             InputStream input = probe.wrap(new DigestInputStream(object.getObjectContent(), digest))) {
+            byte[] buffer = new byte[64 * 1024];
+            while (input.read(buffer) >= 0) {
+                // digest is updated as the stream is read
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    // --- DERIVED OBJECTS (renditions, tiles) ---
+    
+    /**
+     * Copy an object to a local temp file for decoders that want random
+     * access. The caller deletes the file.
+     */
+    public Path downloadToTempFile(String s3Key) throws IOException {
+        Path file = Files.createTempFile("skyvault-", ".tmp");
+        try (S3Object object = s3Client.getObject(bucketName, s3Key);
+             InputStream input = object.getObjectContent()) {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+    
+    /**
+     * Store a small generated object in a single private put.
+     */
+    public void putBytes(String s3Key, byte[] data, String contentType, String cacheControl) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setContentLength(data.length);
+        metadata.setCacheControl(cacheControl);
+        withRetries("putObject " + s3Key, () -> {
+            PutObjectRequest request = new PutObjectRequest(
+                    bucketName, s3Key, new ByteArrayInputStream(data), metadata);
+            request.setCannedAcl(CannedAccessControlList.Private);
+            return s3Client.putObject(request);
+        });
+    }
+    
+    /**
+     * Read a small generated object into memory; null if it does not exist.
+     */
+    public byte[] getBytes(String s3Key) throws IOException {
+        try (S3Object object = s3Client.getObject(bucketName, s3Key);
+             InputStream input = object.getObjectContent()) {
+            return input.readAllBytes();
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Delete many objects with batched requests; failures are logged, not thrown.
+     */
+    public void deleteKeys(List<String> s3Keys) {
+        for (int from = 0; from < s3Keys.size(); from += MAX_DELETE_BATCH) {
+            List<String> batch = s3Keys.subList(from, Math.min(from + MAX_DELETE_BATCH, s3Keys.size()));
+            try {
+                s3Client.deleteObjects(new DeleteObjectsRequest(bucketName).withQuiet(true)
+                        .withKeys(batch.toArray(new String[0])));
+            } catch (Exception e) {
+                log.error("Failed to delete {} derived objects starting at {}", batch.size(), batch.get(0), e);
+            }
+        }
+    }
+    
+    public int getPartSizeBytes() {
+        return partSizeBytes();
+    }
+    
+    private static Date expiresIn(int minutes) {
+        return new Date(System.currentTimeMillis() + 1000L * 60 * minutes);
+    }
+    
+    public void abortMultipartUpload(String s3Key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, s3Key, uploadId));
+            log.info("Aborted multipart upload {} for {}", uploadId, s3Key);
+        } catch (Exception e) {
+            log.error("Failed to abort multipart upload {} for {}", uploadId, s3Key, e);
+        }
+    }
+    
+    // Stop reading further parts as soon as one has failed for good
+    private void throwIfAnyFailed(List<Future<PartETag>> parts) throws ExecutionException, InterruptedException {
+        for (Future<PartETag> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+    
+    // Retry transient failures with exponential backoff; client errors (4xx) fail immediately
+    private <T> T withRetries(String operation, Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (AmazonClientException e) {
+                boolean clientError = e instanceof AmazonServiceException service
+                        && service.getStatusCode() >= 400 && service.getStatusCode() < 500;
+                if (clientError || attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("S3 {} failed (attempt {}/{}), retrying: {}", operation, attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(200L << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private int partSizeBytes() {
+        return Math.max(partSizeMb, MIN_PART_SIZE_MB) * 1024 * 1024;
+    }
+    
+    // Fixed-size pool with a bounded queue; when it is full the submitting thread runs the task itself
+    private static ExecutorService boundedExecutor(String threadPrefix, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadPrefix + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
     
     public void deleteFiles(List<DroneContent.MediaFile> mediaFiles) {
@@ -315,7 +819,9 @@ public class S3Service {
     
     public ObjectMetadata getFileMetadata(String s3Key) {
         try {
-            return s3Client.getObjectMetadata(bucketName, s3Key);
+            GetObjectMetadataRequest request = new GetObjectMetadataRequest(bucketName, s3Key);
+            request.putCustomRequestHeader("x-amz-checksum-mode", "ENABLED");
+            return s3Client.getObjectMetadata(request);
         } catch (Exception e) {
             log.error("Failed to get metadata for file: {}", s3Key, e);
             throw new RuntimeException("Failed to get file metadata: " + e.getMessage());
@@ -0,0 +1,188 @@
+package com.skyvault.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyvault.server.dto.ContentResponse;
+import com.skyvault.server.dto.ContentUploadRequest;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.User;
+import com.skyvault.server.util.MediaProbe;
+import com.skyvault.server.util.MultipartStreamParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upload path that reads the multipart request body as it arrives and pipes
+ * each file part straight into S3, instead of letting the servlet container
+ * spool every part to disk first. Size and type limits are enforced while
+ * reading, so an oversized or disallowed file is rejected without being
+ * stored. Relies on spring.servlet.multipart.resolve-lazily so the container
+ * never consumes the body itself.
+ *
+ * Expected parts, in order: "data" (the ContentUploadRequest JSON), then one
+ * or more "files".
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamingUploadService {
+
+    private static final int MAX_DATA_PART_BYTES = 64 * 1024;
+
+    private final ContentService contentService;
+    private final S3Service s3Service;
+    private final ObjectMapper objectMapper;
+
+    @Value("${content.upload.max-file-size-mb:100}")
+    private long maxFileSizeMb;
+
+    @Value("${content.upload.max-request-size-mb:500}")
+    private long maxRequestSizeMb;
+
+    @Value("${content.upload.max-files:10}")
+    private int maxFiles;
+
+    public ContentResponse upload(String creatorId, String contentType, InputStream body) throws IOException {
+        String boundary = MultipartStreamParser.boundaryOf(contentType);
+        if (boundary == null) {
+            throw new RuntimeException("Expected a multipart/form-data request");
+        }
+        User creator = contentService.requireApprovedCreator(creatorId);
+
+        InputStream limitedBody = new LimitedInputStream(body, maxRequestSizeMb * 1024 * 1024,
+                "Upload must not exceed " + maxRequestSizeMb + "MB in total");
+        MultipartStreamParser parser = new MultipartStreamParser(limitedBody, boundary);
+        List<DroneContent.MediaFile> uploaded = new ArrayList<>();
+        try {
+            MultipartStreamParser.Part dataPart = parser.next();
+            if (dataPart == null || dataPart.isFile() || !"data".equals(dataPart.name())) {
+                throw new RuntimeException("The 'data' part must come before any files");
+            }
+            ContentUploadRequest request = readRequest(dataPart);
+            DroneContent content = contentService.buildContent(creatorId, request);
+
+            MultipartStreamParser.Part part;
+            while ((part = parser.next()) != null) {
+                if (!part.isFile() || !"files".equals(part.name())) {
+                    continue;
+                }
+                if (uploaded.size() >= maxFiles) {
+                    throw new RuntimeException("At most " + maxFiles + " files can be uploaded at once");
+                }
+                uploaded.add(uploadPart(part));
+            }
+            if (uploaded.isEmpty()) {
+                throw new RuntimeException("At least one media file is required");
+            }
+
+            return contentService.saveUploadedContent(content, uploaded, creator);
+        } catch (LimitExceededException e) {
+            s3Service.deleteFiles(uploaded);
+            throw new RuntimeException(e.getMessage());
+        } catch (RuntimeException | IOException e) {
+            // Nothing half-uploaded is left behind: aborted multipart uploads clean up themselves
+            s3Service.deleteFiles(uploaded);
+            throw e;
+        }
+    }
+
+    private ContentUploadRequest readRequest(MultipartStreamParser.Part part) throws IOException {
+        byte[] json = part.body().readNBytes(MAX_DATA_PART_BYTES + 1);
+        if (json.length > MAX_DATA_PART_BYTES) {
+            throw new RuntimeException("The 'data' part is too large");
+        }
+        try {
+            return objectMapper.readValue(json, ContentUploadRequest.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid request data format: " + e.getMessage());
+        }
+    }
+
+    private DroneContent.MediaFile uploadPart(MultipartStreamParser.Part part) throws IOException {
+        String fileName = baseName(part.filename());
+        InputStream limited = new BufferedInputStream(new LimitedInputStream(part.body(), maxFileSizeMb * 1024 * 1024,
+                "File size must not exceed " + maxFileSizeMb + "MB: " + fileName));
+
+        // The declared part Content-Type is the client's claim; the leading bytes decide
+        limited.mark(MediaProbe.SNIFF_BYTES);
+        String contentType = MediaProbe.detectType(limited.readNBytes(MediaProbe.SNIFF_BYTES));
+        limited.reset();
+        if (contentType == null || !ContentService.ALLOWED_MEDIA_TYPES.contains(contentType)) {
+            throw new RuntimeException("Invalid file type: " + fileName + ". Only MP4, MOV, JPG, PNG files are allowed");
+        }
+
+        try {
+            return s3Service.uploadMediaFile(limited, fileName, contentType, ContentService.CONTENT_FOLDER);
+        } catch (IOException e) {
+            // uploadMediaFile wraps stream errors; surface our own limit message instead
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof LimitExceededException limit) {
+                    throw limit;
+                }
+            }
+            throw e;
+        }
+    }
+
+    // Browsers may send a full client-side path as the filename
+    private static String baseName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "upload";
+        }
+        int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        return fileName.substring(slash + 1);
+    }
+
+    private static class LimitExceededException extends IOException {
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    // Fails the read as soon as more than limit bytes have passed through
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private final String message;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit, String message) {
+            super(in);
+            this.limit = limit;
+            this.message = message;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                checkLimit(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                checkLimit(read);
+            }
+            return read;
+        }
+
+        private void checkLimit(int read) throws LimitExceededException {
+            count += read;
+            if (count > limit) {
+                throw new LimitExceededException(message);
+            }
+        }
+    }
+}
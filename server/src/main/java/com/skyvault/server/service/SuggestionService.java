@@ -0,0 +1,301 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.Suggestion;
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.DroneContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over approved titles, tags and locations, weighted by popularity.
+ * Phrases live in a sorted dictionary so any prefix is a contiguous range;
+ * the top suggestions for short prefixes (where ranges are large) are cached
+ * and invalidated only when a phrase under that prefix could change the
+ * answer, so a typical keystroke is a single map lookup. Counter flushes
+ * re-read the absolute views/downloads of the touched items, so weights
+ * follow popularity between restarts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionService {
+
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int CACHED_PREFIX_LENGTH = 4;
+    private static final int MAX_PHRASE_LENGTH = 100;
+    private static final int DOWNLOAD_WEIGHT = 5;
+    private static final int BATCH_SIZE = 1000;
+    private static final char TYPE_SEPARATOR = '\u0000';
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // "phrase\0type" -> entry; \0 sorts first so a phrase prefix range covers every type
+    private final NavigableMap<String, Entry> phrases = new TreeMap<>();
+    // contentId -> phrase keys it contributed and the weight it added to each
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    // short prefix -> current top suggestions
+    private final Map<String, List<Entry>> prefixCache = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            phrases.clear();
+            contributions.clear();
+            prefixCache.clear();
+
+            String lastId = null;
+            while (true) {
+                Criteria criteria = Criteria.where("status").is(DroneContent.ContentStatus.APPROVED);
+                if (lastId != null) {
+                    criteria = criteria.and("_id").gt(lastId);
+                }
+                Query query = new Query(criteria).with(Sort.by("_id")).limit(BATCH_SIZE);
+                query.fields().include("_id").include("title").include("tags").include("location")
+                        .include("views").include("downloads").include("status");
+
+                List<DroneContent> batch = mongoTemplate.find(query, DroneContent.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (DroneContent content : batch) {
+                    addContent(content);
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("Failed to build suggestion dictionary", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Suggestion dictionary built: {} phrases in {}ms", phrases.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeContent(event.contentId());
+            if (event.isPubliclyVisible()) {
+                addContent(event.content());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onCountersFlushed(ContentCountersEvent event) {
+        List<String> ids;
+        lock.readLock().lock();
+        try {
+            ids = event.contentIds().stream().filter(contributions::containsKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<DroneContent> counters;
+        try {
+            Query query = Query.query(Criteria.where("_id").in(ids));
+            query.fields().include("views", "downloads");
+            counters = mongoTemplate.find(query, DroneContent.class);
+        } catch (Exception e) {
+            // Weights catch up on the next change or restart
+            log.error("Failed to reweight suggestions for {} content items", ids.size(), e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (DroneContent content : counters) {
+                reweight(content.getId(), weight(content));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        List<Entry> top;
+        lock.readLock().lock();
+        try {
+            if (normalized.length() <= CACHED_PREFIX_LENGTH) {
+                // Computed and stored under the read lock so a concurrent writer cannot leave a stale entry behind
+                top = prefixCache.computeIfAbsent(normalized, this::computeTop);
+            } else {
+                top = computeTop(normalized);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < top.size() && i < size; i++) {
+            suggestions.add(new Suggestion(top.get(i).display, top.get(i).type));
+        }
+        return suggestions;
+    }
+
+    // Callers must hold a lock
+    private List<Entry> computeTop(String prefix) {
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingDouble((Entry e) -> e.weight));
+        for (Entry entry : phrases.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            heap.offer(entry);
+            if (heap.size() > MAX_SUGGESTIONS) {
+                heap.poll();
+            }
+        }
+        List<Entry> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingDouble((Entry e) -> e.weight).reversed());
+        return top;
+    }
+
+    // Callers must hold the write lock
+    private void addContent(DroneContent content) {
+        double weight = weight(content);
+        List<String> keys = new ArrayList<>();
+        addPhrase(keys, content.getTitle(), "title", weight);
+        addPhrase(keys, content.getLocation(), "location", weight);
+        if (content.getTags() != null) {
+            for (String tag : content.getTags()) {
+                addPhrase(keys, tag, "tag", weight);
+            }
+        }
+        if (!keys.isEmpty()) {
+            contributions.put(content.getId(), new Contribution(keys, weight));
+        }
+    }
+
+    // Callers must hold the write lock; the content keeps its phrases, only their weight moves
+    private void reweight(String contentId, double weight) {
+        Contribution contribution = contributions.get(contentId);
+        if (contribution == null || contribution.weight() == weight) {
+            return;
+        }
+        for (String key : contribution.keys()) {
+            Entry entry = phrases.get(key);
+            if (entry != null) {
+                entry.weight += weight - contribution.weight();
+                invalidate(entry);
+            }
+        }
+        contributions.put(contentId, new Contribution(contribution.keys(), weight));
+    }
+
+    // Callers must hold the write lock
+    private void removeContent(String contentId) {
+        Contribution contribution = contributions.remove(contentId);
+        if (contribution == null) {
+            return;
+        }
+        for (String key : contribution.keys()) {
+            Entry entry = phrases.get(key);
+            if (entry == null) {
+                continue;
+            }
+            entry.weight -= contribution.weight();
+            entry.references--;
+            if (entry.references <= 0) {
+                phrases.remove(key);
+            }
+            invalidate(entry);
+        }
+    }
+
+    private void addPhrase(List<String> keys, String text, String type, double weight) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = normalized + TYPE_SEPARATOR + type;
+        if (keys.contains(key)) {
+            return;
+        }
+        Entry entry = phrases.computeIfAbsent(key, k -> new Entry(text.trim(), type, normalized));
+        entry.weight += weight;
+        entry.references++;
+        keys.add(key);
+        invalidate(entry);
+    }
+
+    // Drop cached prefixes whose answer this entry could change
+    private void invalidate(Entry entry) {
+        int maxLength = Math.min(CACHED_PREFIX_LENGTH, entry.normalized.length());
+        for (int length = 1; length <= maxLength; length++) {
+            String prefix = entry.normalized.substring(0, length);
+            List<Entry> cached = prefixCache.get(prefix);
+            if (cached == null) {
+                continue;
+            }
+            boolean affects = cached.size() < MAX_SUGGESTIONS
+                    || cached.contains(entry)
+                    || entry.weight > cached.get(cached.size() - 1).weight;
+            if (affects) {
+                prefixCache.remove(prefix);
+            }
+        }
+    }
+
+    private static double weight(DroneContent content) {
+        return 1
+                + (content.getViews() != null ? content.getViews() : 0)
+                + DOWNLOAD_WEIGHT * (content.getDownloads() != null ? content.getDownloads() : 0);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.length() > MAX_PHRASE_LENGTH ? normalized.substring(0, MAX_PHRASE_LENGTH) : normalized;
+    }
+
+    private static final class Entry {
+        private final String display;
+        private final String type;
+        private final String normalized;
+        private double weight;
+        private int references;
+
+        private Entry(String display, String type, String normalized) {
+            this.display = display;
+            this.type = type;
+            this.normalized = normalized;
+        }
+    }
+
+    private record Contribution(List<String> keys, double weight) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.dto.TrendingTag;
+import com.skyvault.server.event.ContentChangedEvent;
+import com.skyvault.server.event.ContentCountersEvent;
+import com.skyvault.server.model.AnalyticsBucket;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.util.CountMinSketch;
+import com.skyvault.server.util.TopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * "Trending now" scores with exponential time decay. Activity is weighted by
+ * e^(lambda * (t - landmark)) when it arrives (forward decay), so existing
+ * scores never need touching as time passes; a score is read back by scaling
+ * with e^(-lambda * (now - landmark)). Per-item and per-tag weights live in
+ * fixed-size Count-Min sketches and only the leaders are kept in bounded
+ * top-K boards, so memory does not grow with the catalog.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    public static final int MAX_LIMIT = 50;
+
+    // Move the landmark forward before e^exponent gets anywhere near double overflow
+    private static final double RENORMALIZE_EXPONENT = 30;
+    private static final int WARM_UP_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final double lambdaPerMilli;
+    private final double downloadWeight;
+    private final Duration halfLife;
+
+    private final CountMinSketch contentActivity;
+    private final CountMinSketch tagActivity;
+    private final TopK trendingContent;
+    private final TopK trendingTags;
+    private long landmark = System.currentTimeMillis();
+
+    public TrendingService(MongoTemplate mongoTemplate,
+                           @Value("${trending.half-life-hours:6}") double halfLifeHours,
+                           @Value("${trending.download-weight:5}") double downloadWeight,
+                           @Value("${trending.capacity:200}") int capacity,
+                           @Value("${trending.sketch-width:4096}") int sketchWidth,
+                           @Value("${trending.sketch-depth:4}") int sketchDepth) {
+        this.mongoTemplate = mongoTemplate;
+        this.halfLife = Duration.ofMinutes(Math.round(halfLifeHours * 60));
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.downloadWeight = downloadWeight;
+        this.contentActivity = new CountMinSketch(sketchWidth, sketchDepth);
+        this.tagActivity = new CountMinSketch(sketchWidth, sketchDepth);
+        this.trendingContent = new TopK(Math.max(capacity, MAX_LIMIT));
+        this.trendingTags = new TopK(Math.max(capacity, MAX_LIMIT));
+    }
+
+    public List<TopK.Entry> trendingContent(int limit) {
+        return decayed(trendingContent, limit);
+    }
+
+    public List<TrendingTag> trendingTags(int limit) {
+        List<TrendingTag> tags = new ArrayList<>();
+        for (TopK.Entry entry : decayed(trendingTags, limit)) {
+            tags.add(new TrendingTag(entry.key(), entry.score()));
+        }
+        return tags;
+    }
+
+    @EventListener
+    public void onCountersFlushed(ContentCountersEvent event) {
+        try {
+            Map<String, Double> activity = new HashMap<>();
+            event.views().forEach((id, count) -> activity.merge(id, (double) count, Double::sum));
+            event.downloads().forEach((id, count) -> activity.merge(id, count * downloadWeight, Double::sum));
+            if (!activity.isEmpty()) {
+                record(activity, event.occurredAt().toEpochMilli());
+            }
+        } catch (Exception e) {
+            log.error("Failed to update trending scores for {} content items", event.contentIds().size(), e);
+        }
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        if (!event.isPubliclyVisible()) {
+            trendingContent.remove(event.contentId());
+        }
+    }
+
+    /**
+     * Replay the recent hourly analytics buckets so a restarted node does not
+     * start from an empty feed. Activity older than four half-lives is worth
+     * less than 7% and is skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        Instant since = Instant.now().minus(halfLife.multipliedBy(4));
+        Query query = Query.query(Criteria.where("granularity").is(AnalyticsBucket.Granularity.HOURLY)
+                .and("scope").is(AnalyticsBucket.Scope.CONTENT)
+                .and("bucketStart").gte(since));
+        query.fields().include("ownerId", "bucketStart", "views", "downloads");
+
+        int replayed = 0;
+        try (Stream<AnalyticsBucket> stream = mongoTemplate.stream(query, AnalyticsBucket.class)) {
+            Iterator<AnalyticsBucket> buckets = stream.iterator();
+            Map<Long, Map<String, Double>> byHour = new HashMap<>();
+            int buffered = 0;
+            while (buckets.hasNext()) {
+                AnalyticsBucket bucket = buckets.next();
+                double weight = (bucket.getViews() != null ? bucket.getViews() : 0)
+                        + (bucket.getDownloads() != null ? bucket.getDownloads() : 0) * downloadWeight;
+                if (weight > 0) {
+                    // Mid-hour is the best guess for when the bucket's activity happened
+                    long at = bucket.getBucketStart().toEpochMilli() + Duration.ofMinutes(30).toMillis();
+                    byHour.computeIfAbsent(at, h -> new HashMap<>()).merge(bucket.getOwnerId(), weight, Double::sum);
+                    buffered++;
+                    replayed++;
+                }
+                if (buffered >= WARM_UP_BATCH_SIZE) {
+                    byHour.forEach((at, activity) -> record(activity, at));
+                    byHour.clear();
+                    buffered = 0;
+                }
+            }
+            byHour.forEach((at, activity) -> record(activity, at));
+        } catch (Exception e) {
+            log.error("Failed to warm up trending scores", e);
+        }
+        log.info("Trending scores warmed up from {} hourly buckets in {}ms",
+                replayed, System.currentTimeMillis() - start);
+    }
+
+    private void record(Map<String, Double> activity, long at) {
+        // Load outside the monitor so readers are never stuck behind a query
+        apply(loadTrendingFields(activity.keySet()), activity, at);
+    }
+
+    private synchronized void apply(List<DroneContent> contents, Map<String, Double> activity, long at) {
+        if (lambdaPerMilli * (at - landmark) > RENORMALIZE_EXPONENT) {
+            renormalize(at);
+        }
+        double growth = Math.exp(lambdaPerMilli * (at - landmark));
+
+        for (DroneContent content : contents) {
+            if (content.getStatus() != DroneContent.ContentStatus.APPROVED) {
+                continue;
+            }
+            double weight = activity.get(content.getId()) * growth;
+            contentActivity.add(content.getId(), weight);
+            trendingContent.offer(content.getId(), contentActivity.estimate(content.getId()));
+
+            if (content.getTags() != null) {
+                for (String rawTag : content.getTags()) {
+                    String tag = rawTag == null ? "" : rawTag.trim().toLowerCase(Locale.ROOT);
+                    if (!tag.isEmpty()) {
+                        tagActivity.add(tag, weight);
+                        trendingTags.offer(tag, tagActivity.estimate(tag));
+                    }
+                }
+            }
+        }
+    }
+
+    // Callers hold the monitor
+    private void renormalize(long newLandmark) {
+        double factor = Math.exp(-lambdaPerMilli * (newLandmark - landmark));
+        contentActivity.scale(factor);
+        tagActivity.scale(factor);
+        trendingContent.scale(factor);
+        trendingTags.scale(factor);
+        landmark = newLandmark;
+        log.debug("Trending landmark moved to {}", Instant.ofEpochMilli(newLandmark));
+    }
+
+    private List<DroneContent> loadTrendingFields(Collection<String> contentIds) {
+        Query query = Query.query(Criteria.where("_id").in(contentIds));
+        query.fields().include("status", "tags");
+        return mongoTemplate.find(query, DroneContent.class);
+    }
+
+    // Board and landmark are read together so a concurrent renormalize cannot skew the scale
+    private synchronized List<TopK.Entry> decayed(TopK board, int limit) {
+        double decay = Math.exp(-lambdaPerMilli * (System.currentTimeMillis() - landmark));
+        List<TopK.Entry> result = new ArrayList<>();
+        for (TopK.Entry entry : board.top(Math.min(limit, MAX_LIMIT))) {
+            result.add(new TopK.Entry(entry.key(), entry.score() * decay));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.ViewerSketch;
+import com.skyvault.server.repository.ViewerSketchRepository;
+import com.skyvault.server.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate distinct-viewer counts per content item. Viewers are offered to
+ * an in-memory HyperLogLog per item and periodically merged into the
+ * persisted sketch; the resulting estimate is mirrored onto
+ * DroneContent.uniqueViewers so rankings can use it without the registers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniqueViewerService {
+
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    private final ViewerSketchRepository viewerSketchRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // Sketches with viewers not yet merged into the persisted copy. They start sparse, so items
+    // seen by a few viewers per flush cost a few bytes rather than a full register array.
+    private final Map<String, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public void recordViewer(String contentId, String viewerKey) {
+        if (viewerKey == null || viewerKey.isEmpty()) {
+            return;
+        }
+        // Offered inside compute so flush() cannot take the sketch away between lookup and offer
+        pending.compute(contentId, (id, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.offer(viewerKey);
+            return target;
+        });
+    }
+
+    public long estimateUniqueViewers(String contentId) {
+        HyperLogLog sketch = viewerSketchRepository.findById(contentId)
+                .map(saved -> HyperLogLog.fromRegisters(saved.getRegisters()))
+                .orElseGet(HyperLogLog::new);
+        HyperLogLog unsaved = pending.get(contentId);
+        if (unsaved != null) {
+            sketch.merge(unsaved);
+        }
+        return sketch.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${views.sketch-flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, HyperLogLog> batch = new HashMap<>();
+        for (String contentId : new ArrayList<>(pending.keySet())) {
+            // Atomic with recordViewer's compute: each viewer lands in this batch or the next sketch
+            HyperLogLog sketch = pending.remove(contentId);
+            if (sketch != null) {
+                batch.put(contentId, sketch);
+            }
+        }
+
+        Map<String, Long> estimates = new HashMap<>();
+        Map<String, ViewerSketch> saved = new HashMap<>();
+        for (ViewerSketch sketch : viewerSketchRepository.findAllById(batch.keySet())) {
+            saved.put(sketch.getContentId(), sketch);
+        }
+        for (Map.Entry<String, HyperLogLog> entry : batch.entrySet()) {
+            try {
+                estimates.put(entry.getKey(), merge(entry.getKey(), entry.getValue(), saved.get(entry.getKey())));
+            } catch (Exception e) {
+                log.error("Failed to merge viewer sketch for content {}; will retry", entry.getKey(), e);
+                pending.compute(entry.getKey(), (id, sketch) -> {
+                    HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+                    target.merge(entry.getValue());
+                    return target;
+                });
+            }
+        }
+
+        if (!estimates.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DroneContent.class);
+            estimates.forEach((contentId, estimate) -> bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(contentId)),
+                    Update.update("uniqueViewers", estimate)));
+            bulk.execute();
+        }
+    }
+
+    // Register-wise max is idempotent, so a version conflict with another node just means reload and merge again
+    private long merge(String contentId, HyperLogLog delta, ViewerSketch saved) {
+        for (int attempt = 1; ; attempt++) {
+            ViewerSketch target = saved;
+            if (target == null) {
+                target = new ViewerSketch();
+                target.setContentId(contentId);
+            }
+            HyperLogLog merged = HyperLogLog.fromRegisters(target.getRegisters());
+            merged.merge(delta);
+            target.setRegisters(merged.toRegisters());
+            target.setEstimate(merged.estimate());
+            target.setUpdatedAt(LocalDateTime.now());
+            try {
+                viewerSketchRepository.save(target);
+                return target.getEstimate();
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt >= MAX_MERGE_ATTEMPTS) {
+                    throw e;
+                }
+                saved = viewerSketchRepository.findById(contentId).orElse(null);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+}
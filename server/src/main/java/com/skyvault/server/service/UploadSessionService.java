@@ -0,0 +1,433 @@
+package com.skyvault.server.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.skyvault.server.dto.ContentResponse;
+import com.skyvault.server.dto.UploadSessionRequest;
+import com.skyvault.server.dto.UploadSessionResponse;
+import com.skyvault.server.dto.UploadSessionStatus;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.UploadSession;
+import com.skyvault.server.model.User;
+import com.skyvault.server.repository.ContentRepository;
+import com.skyvault.server.repository.UploadSessionRepository;
+import com.skyvault.server.util.MediaProbe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Direct-to-S3 uploads. Opening a session hands the browser presigned PUT
+ * URLs (one per file, or one per part for files larger than the multipart
+ * part size), so media bytes never pass through this server. Completing the
+ * session finishes any multipart uploads, checks every stored object against
+ * its declared size and SHA-256, and only then creates the content item.
+ *
+ * Single PUTs are signed with the declared SHA-256, so S3 itself rejects a
+ * body that does not match and reports the checksum it verified; only the
+ * media headers are read back. S3 has no whole-object SHA-256 for multipart
+ * uploads, so sessions with multipart files are hashed by a background job
+ * and the client polls the session until it is completed or failed.
+ * Sessions that are never completed, or whose completion was abandoned
+ * (e.g. by a restart), are cleaned up once they expire.
+ *
+ * Setting aws.s3.endpoint points all of this at a local S3-compatible
+ * server (e.g. MinIO) for testing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    // S3 limit on parts per multipart upload
+    private static final int MAX_PARTS = 10_000;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ContentService contentService;
+    private final ContentRepository contentRepository;
+    private final S3Service s3Service;
+
+    @Value("${upload.sessions.ttl-minutes:60}")
+    private int ttlMinutes;
+
+    @Value("${content.upload.direct.max-file-size-mb:5120}")
+    private long maxFileSizeMb;
+
+    @Value("${content.upload.max-files:10}")
+    private int maxFiles;
+
+    @Value("${upload.sessions.completing-timeout-minutes:60}")
+    private int completingTimeoutMinutes;
+
+    @Value("${upload.sessions.verify-threads:2}")
+    private int verifyThreads;
+
+    @Value("${upload.sessions.verify-queue-capacity:50}")
+    private int verifyQueueCapacity;
+
+    private ThreadPoolExecutor verifier;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        verifier = new ThreadPoolExecutor(verifyThreads, verifyThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(verifyQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-verify-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Sessions cut off here stay COMPLETING and are expired later
+        verifier.shutdownNow();
+    }
+
+    public UploadSessionResponse createSession(String creatorId, UploadSessionRequest request) {
+        contentService.requireApprovedCreator(creatorId);
+        // Fail on bad metadata now rather than after the files are uploaded
+        contentService.buildContent(creatorId, request.getData());
+
+        if (request.getFiles().size() > maxFiles) {
+            throw new RuntimeException("At most " + maxFiles + " files can be uploaded at once");
+        }
+        long partSize = s3Service.getPartSizeBytes();
+        List<UploadSession.SessionFile> files = new ArrayList<>();
+        for (UploadSessionRequest.FileSpec spec : request.getFiles()) {
+            files.add(toSessionFile(spec, partSize));
+        }
+
+        UploadSession session = new UploadSession();
+        session.setCreatorId(creatorId);
+        session.setRequest(request.getData());
+        session.setStatus(UploadSession.Status.OPEN);
+        session.setCreatedAt(Instant.now());
+        session.setUpdatedAt(session.getCreatedAt());
+        session.setExpiresAt(session.getCreatedAt().plus(ttlMinutes, ChronoUnit.MINUTES));
+        session.setFiles(files);
+
+        try {
+            for (UploadSession.SessionFile file : files) {
+                if (file.getPartCount() != null) {
+                    file.setUploadId(s3Service.initiateMultipartUpload(
+                            file.getS3Key(), file.getContentType(), file.getOriginalName()));
+                }
+            }
+            session = uploadSessionRepository.save(session);
+        } catch (RuntimeException e) {
+            cleanUp(session);
+            throw e;
+        }
+
+        log.info("Opened upload session {} for creator {} with {} files", session.getId(), creatorId, files.size());
+        return toResponse(session, partSize);
+    }
+
+    /**
+     * Complete a session. Sessions of single-PUT files are verified and
+     * completed before this returns; those with multipart files are left
+     * COMPLETING while the background job hashes them.
+     */
+    public UploadSessionStatus completeSession(String creatorId, String sessionId) {
+        UploadSession session = claim(creatorId, sessionId);
+        boolean multipart = session.getFiles().stream().anyMatch(file -> file.getUploadId() != null);
+        if (!multipart) {
+            finish(session);
+        } else {
+            try {
+                verifier.execute(() -> {
+                    try {
+                        finish(session);
+                    } catch (RuntimeException e) {
+                        // Already recorded on the session for the client to see
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                transition(sessionId, UploadSession.Status.COMPLETING, UploadSession.Status.OPEN);
+                throw new RuntimeException("Too many uploads are being verified, please try again shortly");
+            }
+        }
+        return toStatus(session);
+    }
+
+    public UploadSessionStatus getStatus(String creatorId, String sessionId) {
+        return toStatus(load(creatorId, sessionId));
+    }
+
+    public void abortSession(String creatorId, String sessionId) {
+        UploadSession session = claim(creatorId, sessionId);
+        cleanUp(session);
+        setStatus(sessionId, UploadSession.Status.ABORTED);
+    }
+
+    @Scheduled(fixedDelayString = "${upload.sessions.cleanup-interval-ms:300000}")
+    public void expireSessions() {
+        try {
+            Instant now = Instant.now();
+            int count = 0;
+            for (UploadSession session : uploadSessionRepository
+                    .findTop100ByStatusAndExpiresAtBefore(UploadSession.Status.OPEN, now)) {
+                // A concurrent complete or abort may have claimed it first
+                if (transition(session.getId(), UploadSession.Status.OPEN, UploadSession.Status.EXPIRED) != null) {
+                    cleanUp(session);
+                    count++;
+                }
+            }
+            // Completions abandoned part way, e.g. by a restart; sessions from before updatedAt fall back to expiresAt
+            Instant stale = now.minus(completingTimeoutMinutes, ChronoUnit.MINUTES);
+            Criteria abandoned = Criteria.where("status").is(UploadSession.Status.COMPLETING)
+                    .orOperator(Criteria.where("updatedAt").lt(stale),
+                            Criteria.where("updatedAt").exists(false).and("expiresAt").lt(stale));
+            for (UploadSession session : mongoTemplate.find(Query.query(abandoned).limit(100), UploadSession.class)) {
+                if (mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(session.getId())).addCriteria(abandoned),
+                        new Update().set("status", UploadSession.Status.EXPIRED).set("updatedAt", now),
+                        UploadSession.class) == null) {
+                    continue;
+                }
+                if (contentRepository.existsByMediaFileKeys(keys(session))) {
+                    // The content was saved just before the crash; only the status update was lost
+                    setStatus(session.getId(), UploadSession.Status.COMPLETED);
+                } else {
+                    cleanUp(session);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                log.info("Expired {} abandoned upload sessions", count);
+            }
+        } catch (Exception e) {
+            log.error("Failed to expire upload sessions", e);
+        }
+    }
+
+    private UploadSession.SessionFile toSessionFile(UploadSessionRequest.FileSpec spec, long partSize) {
+        String contentType = spec.getContentType().toLowerCase(Locale.ROOT);
+        if (!ContentService.ALLOWED_MEDIA_TYPES.contains(contentType)) {
+            throw new RuntimeException("Invalid file type: " + spec.getName() + ". Only MP4, MOV, JPG, PNG files are allowed");
+        }
+        if (spec.getSize() > maxFileSizeMb * 1024 * 1024) {
+            throw new RuntimeException("File size must not exceed " + maxFileSizeMb + "MB: " + spec.getName());
+        }
+
+        UploadSession.SessionFile file = new UploadSession.SessionFile();
+        file.setOriginalName(spec.getName());
+        file.setContentType(contentType);
+        file.setSize(spec.getSize());
+        file.setSha256(spec.getSha256().toLowerCase(Locale.ROOT));
+        file.setS3Key(s3Service.newObjectKey(ContentService.CONTENT_FOLDER, spec.getName()));
+        if (spec.getSize() > partSize) {
+            long parts = (spec.getSize() + partSize - 1) / partSize;
+            if (parts > MAX_PARTS) {
+                throw new RuntimeException("File is too large for the configured part size: " + spec.getName());
+            }
+            file.setPartCount((int) parts);
+        }
+        return file;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, long partSize) {
+        List<UploadSessionResponse.FileTarget> targets = new ArrayList<>();
+        for (UploadSession.SessionFile file : session.getFiles()) {
+            UploadSessionResponse.FileTarget target = new UploadSessionResponse.FileTarget();
+            target.setName(file.getOriginalName());
+            if (file.getUploadId() == null) {
+                target.setUrl(s3Service.generatePresignedPutUrl(
+                        file.getS3Key(), file.getContentType(), file.getSha256(), ttlMinutes));
+                target.setHeaders(Map.of(
+                        "Content-Type", file.getContentType(),
+                        "x-amz-checksum-sha256", S3Service.checksumHeaderValue(file.getSha256())));
+            } else {
+                List<UploadSessionResponse.PartTarget> parts = new ArrayList<>(file.getPartCount());
+                for (int partNumber = 1; partNumber <= file.getPartCount(); partNumber++) {
+                    parts.add(new UploadSessionResponse.PartTarget(partNumber, s3Service.generatePresignedPartUrl(
+                            file.getS3Key(), file.getUploadId(), partNumber, ttlMinutes)));
+                }
+                target.setPartSize(partSize);
+                target.setParts(parts);
+            }
+            targets.add(target);
+        }
+
+        UploadSessionResponse response = new UploadSessionResponse();
+        response.setSessionId(session.getId());
+        response.setExpiresAt(session.getExpiresAt());
+        response.setFiles(targets);
+        return response;
+    }
+
+    // Verify every file and create the content; on failure the session is cleaned up and marked FAILED
+    private void finish(UploadSession session) {
+        ContentResponse response;
+        try {
+            User creator = contentService.requireApprovedCreator(session.getCreatorId());
+            List<DroneContent.MediaFile> mediaFiles = new ArrayList<>();
+            for (UploadSession.SessionFile file : session.getFiles()) {
+                mediaFiles.add(verify(file));
+            }
+            // Hashing may have outlasted the completing timeout; don't create content whose files were cleaned up
+            if (mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(session.getId()).and("status").is(UploadSession.Status.COMPLETING)),
+                    new Update().set("updatedAt", Instant.now()),
+                    UploadSession.class) == null) {
+                throw new RuntimeException("Upload session expired while it was being verified");
+            }
+
+            DroneContent content = contentService.buildContent(session.getCreatorId(), session.getRequest());
+            response = contentService.saveUploadedContent(content, mediaFiles, creator);
+        } catch (RuntimeException e) {
+            log.warn("Upload session {} failed to complete: {}", session.getId(), e.getMessage());
+            if (transition(session.getId(), UploadSession.Status.COMPLETING, UploadSession.Status.FAILED) != null) {
+                cleanUp(session);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(session.getId())),
+                        new Update().set("error", e.getMessage()), UploadSession.class);
+            }
+            session.setStatus(UploadSession.Status.FAILED);
+            session.setError(e.getMessage());
+            throw e;
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(session.getId())),
+                new Update().set("status", UploadSession.Status.COMPLETED)
+                        .set("contentId", response.getId())
+                        .set("updatedAt", Instant.now()),
+                UploadSession.class);
+        session.setStatus(UploadSession.Status.COMPLETED);
+        session.setContentId(response.getId());
+        log.info("Upload session {} completed as content {}", session.getId(), response.getId());
+    }
+
+    private DroneContent.MediaFile verify(UploadSession.SessionFile file) {
+        if (file.getUploadId() != null) {
+            int parts = s3Service.completeMultipartUpload(file.getS3Key(), file.getUploadId());
+            if (parts != file.getPartCount()) {
+                throw new RuntimeException("Expected " + file.getPartCount() + " parts but received " + parts
+                        + ": " + file.getOriginalName());
+            }
+        }
+        if (!s3Service.doesFileExist(file.getS3Key())) {
+            throw new RuntimeException("File was not uploaded: " + file.getOriginalName());
+        }
+        ObjectMetadata metadata = s3Service.getFileMetadata(file.getS3Key());
+        if (metadata.getContentLength() != file.getSize()) {
+            throw new RuntimeException("Uploaded size does not match for " + file.getOriginalName());
+        }
+        MediaProbe probe = new MediaProbe();
+        MediaProbe.Result probed;
+        try {
+            String stored = S3Service.storedSha256Hex(metadata);
+            if (stored != null) {
+                // S3 checked the body against this when it was PUT; only the headers need reading
+                probed = s3Service.probe(file.getS3Key(), file.getSize(), probe);
+            } else {
+                // Multipart objects have no whole-object SHA-256 in S3 (nor do stores without
+                // checksum support); this runs on the background verifier
+                stored = s3Service.sha256Hex(file.getS3Key(), probe);
+                probed = probe.result();
+            }
+            if (!file.getSha256().equals(stored)) {
+                throw new RuntimeException("Checksum mismatch for " + file.getOriginalName());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to verify " + file.getOriginalName() + ": " + e.getMessage());
+        }
+        // The browser chose the Content-Type it uploaded with; the stored bytes must agree
+        if (probed.mediaType() == null || !ContentService.ALLOWED_MEDIA_TYPES.contains(probed.mediaType())) {
+            throw new RuntimeException("Invalid file type: " + file.getOriginalName() + ". Only MP4, MOV, JPG, PNG files are allowed");
+        }
+        if (!probed.mediaType().equals(metadata.getContentType())) {
+            // Stored under the Content-Type the browser declared; serve it as what it is
+            s3Service.replaceContentType(file.getS3Key(), metadata, probed.mediaType());
+        }
+        // Verified against the stored bytes, so it is safe to deduplicate on
+        DroneContent.MediaFile mediaFile = s3Service.toMediaFile(file.getS3Key(), file.getOriginalName(), file.getSize());
+        mediaFile.setSha256(file.getSha256());
+        S3Service.applyProbe(mediaFile, probed);
+        return mediaFile;
+    }
+
+    // Take an open, unexpired session out of OPEN so only one complete/abort can act on it
+    private UploadSession claim(String creatorId, String sessionId) {
+        UploadSession session = load(creatorId, sessionId);
+        if (session.getStatus() != UploadSession.Status.OPEN || session.getExpiresAt().isBefore(Instant.now())) {
+            throw new RuntimeException("Upload session is no longer open");
+        }
+        if (transition(sessionId, UploadSession.Status.OPEN, UploadSession.Status.COMPLETING) == null) {
+            throw new RuntimeException("Upload session is no longer open");
+        }
+        session.setStatus(UploadSession.Status.COMPLETING);
+        return session;
+    }
+
+    private UploadSession load(String creatorId, String sessionId) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found"));
+        if (!session.getCreatorId().equals(creatorId)) {
+            throw new RuntimeException("Upload session not found");
+        }
+        return session;
+    }
+
+    private UploadSession transition(String sessionId, UploadSession.Status from, UploadSession.Status to) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(sessionId).and("status").is(from)),
+                new Update().set("status", to).set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+    }
+
+    private void setStatus(String sessionId, UploadSession.Status status) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(sessionId)),
+                new Update().set("status", status).set("updatedAt", Instant.now()), UploadSession.class);
+    }
+
+    private static List<String> keys(UploadSession session) {
+        return session.getFiles().stream().map(UploadSession.SessionFile::getS3Key).toList();
+    }
+
+    private static UploadSessionStatus toStatus(UploadSession session) {
+        UploadSessionStatus status = new UploadSessionStatus();
+        status.setSessionId(session.getId());
+        status.setStatus(session.getStatus().name().toLowerCase(Locale.ROOT));
+        status.setContentId(session.getContentId());
+        status.setMessage(session.getError());
+        status.setExpiresAt(session.getExpiresAt());
+        return status;
+    }
+
+    // Abort unfinished multipart uploads and delete whatever objects already landed
+    private void cleanUp(UploadSession session) {
+        List<DroneContent.MediaFile> stored = new ArrayList<>();
+        for (UploadSession.SessionFile file : session.getFiles()) {
+            if (file.getUploadId() != null) {
+                s3Service.abortMultipartUpload(file.getS3Key(), file.getUploadId());
+            }
+            stored.add(s3Service.toMediaFile(file.getS3Key(), file.getOriginalName(), file.getSize()));
+        }
+        s3Service.deleteFiles(stored);
+    }
+}
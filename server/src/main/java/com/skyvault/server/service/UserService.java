@@ -3,12 +3,14 @@ package com.skyvault.server.service;
 import com.skyvault.server.dto.AuthResponse;
 import com.skyvault.server.dto.ContentResponse;
 import com.skyvault.server.dto.SignupRequest;
+import com.skyvault.server.event.ContentChangedEvent;
 import com.skyvault.server.exception.PendingApprovalException;
 import com.skyvault.server.model.DroneContent;
 import com.skyvault.server.model.User;
 import com.skyvault.server.repository.ContentRepository;
 import com.skyvault.server.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +19,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +28,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final ContentRepository contentRepository;
+    private final CreatorResolver creatorResolver;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse registerUser(SignupRequest request) {
         if (userRepository.existsByEmail(request.getEmail().toLowerCase())) {
@@ -131,6 +136,7 @@ public class UserService {
         Page<DroneContent> contentPage = (status != null)
                 ? contentRepository.findByStatus(status, pageable)
                 : contentRepository.findAll(pageable);
+        Map<String, User> creators = creatorResolver.resolveCreators(contentPage.getContent());
         return contentPage.map(content -> {
             ContentResponse resp = new ContentResponse();
             resp.setId(content.getId());
@@ -139,7 +145,8 @@ public class UserService {
             resp.setCategory(content.getCategory());
             resp.setLocation(content.getLocation());
             resp.setCreatedAt(content.getCreatedAt());
-            resp.setCreatorName(userRepository.findById(content.getCreatorId()).map(u -> u.getName()).orElse("Unknown"));
+            User creator = creators.get(content.getCreatorId());
+            resp.setCreatorName(creator != null ? creator.getName() : "Unknown");
             // ...add more fields as needed...
             return resp;
         });
@@ -148,10 +155,12 @@ public class UserService {
     public ContentResponse updateContentStatus(String contentId, DroneContent.ContentStatus status, String reason) {
         DroneContent content = contentRepository.findById(contentId)
                 .orElseThrow(() -> new RuntimeException("Content not found"));
+        DroneContent.ContentStatus previousStatus = content.getStatus();
         content.setStatus(status);
         content.setUpdatedAt(java.time.LocalDateTime.now());
         // Optionally store reason somewhere if needed
         DroneContent saved = contentRepository.save(content);
+        eventPublisher.publishEvent(ContentChangedEvent.updated(saved, previousStatus));
 
         ContentResponse resp = new ContentResponse();
         resp.setId(saved.getId());
@@ -0,0 +1,56 @@
+package com.skyvault.server.util;
+
+/**
+ * Count-Min sketch over string keys with double-valued counters, so it can
+ * hold time-decayed weights. Memory is fixed at width * depth doubles no
+ * matter how many keys are offered; an estimate never undercounts and
+ * overcounts by at most e / width of the total weight with probability
+ * 1 - e^-depth.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final double[][] counters;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new double[depth][width];
+    }
+
+    public synchronized void add(String key, double weight) {
+        long hash = HyperLogLog.hash64(key);
+        for (int row = 0; row < depth; row++) {
+            counters[row][index(hash, row)] += weight;
+        }
+    }
+
+    public synchronized double estimate(String key) {
+        long hash = HyperLogLog.hash64(key);
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    // Multiply every counter, e.g. to move decayed weights onto a new time landmark
+    public synchronized void scale(double factor) {
+        for (double[] row : counters) {
+            for (int i = 0; i < width; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,356 @@
+package com.skyvault.server.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Capture metadata from the APP1 segments at the front of a JPEG: the EXIF
+ * TIFF block (camera make/model, DateTimeOriginal, GPS position and
+ * altitude) and the XMP packet, where DJI aircraft also write the altitude
+ * relative to the take-off point. Segments are handed over one at a time by
+ * {@link MediaProbe} as they stream past; only IFD0 and the EXIF and GPS
+ * sub-IFDs are visited, so a segment costs a few hundred byte reads.
+ *
+ * Values found in EXIF win over their XMP duplicates. Not thread-safe.
+ */
+public class ExifReader {
+
+    private static final byte[] EXIF_ID = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] XMP_ID = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final int TAG_MAKE = 0x010f;
+    private static final int TAG_MODEL = 0x0110;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD = 0x8769;
+    private static final int TAG_GPS_IFD = 0x8825;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_GPS_LATITUDE_REF = 1;
+    private static final int TAG_GPS_LATITUDE = 2;
+    private static final int TAG_GPS_LONGITUDE_REF = 3;
+    private static final int TAG_GPS_LONGITUDE = 4;
+    private static final int TAG_GPS_ALTITUDE_REF = 5;
+    private static final int TAG_GPS_ALTITUDE = 6;
+
+    private static final int TYPE_BYTE = 1;
+    private static final int TYPE_ASCII = 2;
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_RATIONAL = 5;
+    private static final int[] TYPE_SIZES = {0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8};
+
+    private static final DateTimeFormatter EXIF_DATE = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+
+    private static final Pattern XMP_RELATIVE_ALTITUDE = xmpPattern("drone-dji:RelativeAltitude");
+    private static final Pattern XMP_ABSOLUTE_ALTITUDE = xmpPattern("drone-dji:AbsoluteAltitude");
+    private static final Pattern XMP_LATITUDE = xmpPattern("drone-dji:GpsLatitude");
+    // Older DJI firmware misspells the longitude property
+    private static final Pattern XMP_LONGITUDE = xmpPattern("drone-dji:GpsLong(?:t)?itude");
+    private static final Pattern XMP_MAKE = xmpPattern("tiff:Make");
+    private static final Pattern XMP_MODEL = xmpPattern("tiff:Model");
+    private static final Pattern XMP_CREATE_DATE = xmpPattern("(?:exif:DateTimeOriginal|xmp:CreateDate)");
+
+    private Double latitude;
+    private Double longitude;
+    private Double relativeAltitude;
+    private Double absoluteAltitude;
+    private LocalDateTime capturedAt;
+    private String make;
+    private String model;
+
+    /**
+     * What was found; every field may be null.
+     */
+    public record Telemetry(Double latitude, Double longitude, Double relativeAltitude, Double absoluteAltitude,
+                            LocalDateTime capturedAt, String cameraModel) {
+
+        public boolean hasPosition() {
+            return latitude != null && longitude != null;
+        }
+    }
+
+    /**
+     * Read one APP1 payload (the bytes after the segment length). Payloads
+     * that are neither EXIF nor XMP are ignored.
+     */
+    public void readApp1(byte[] segment) {
+        if (startsWith(segment, segment.length, EXIF_ID)) {
+            try {
+                readTiff(new Tiff(segment, EXIF_ID.length));
+            } catch (IndexOutOfBoundsException e) {
+                // Truncated or corrupt EXIF: keep whatever was read before the bad offset
+            }
+        } else if (startsWith(segment, segment.length, XMP_ID)) {
+            readXmp(new String(segment, XMP_ID.length, segment.length - XMP_ID.length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The combined result, or null if no metadata was found.
+     */
+    public Telemetry result() {
+        String cameraModel = model;
+        if (model != null && make != null && !model.toLowerCase(Locale.ROOT).startsWith(make.toLowerCase(Locale.ROOT))) {
+            cameraModel = make + " " + model;
+        }
+        Telemetry telemetry = new Telemetry(latitude, longitude, relativeAltitude, absoluteAltitude,
+                capturedAt, cameraModel);
+        boolean empty = latitude == null && longitude == null && relativeAltitude == null
+                && absoluteAltitude == null && capturedAt == null && cameraModel == null;
+        return empty ? null : telemetry;
+    }
+
+    private void readTiff(Tiff tiff) {
+        int ifd0 = tiff.firstIfd();
+        if (ifd0 < 0) {
+            return;
+        }
+        int exifIfd = -1;
+        int gpsIfd = -1;
+        int count = tiff.u16(ifd0);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd0 + 2 + i * 12;
+            switch (tiff.u16(entry)) {
+                case TAG_MAKE -> make = firstNonNull(make, tiff.ascii(entry));
+                case TAG_MODEL -> model = firstNonNull(model, tiff.ascii(entry));
+                case TAG_DATE_TIME -> capturedAt = firstNonNull(capturedAt, exifDate(tiff.ascii(entry)));
+                case TAG_EXIF_IFD -> exifIfd = (int) tiff.unsigned(entry);
+                case TAG_GPS_IFD -> gpsIfd = (int) tiff.unsigned(entry);
+                default -> {
+                }
+            }
+        }
+        if (exifIfd > 0) {
+            readExifIfd(tiff, exifIfd);
+        }
+        if (gpsIfd > 0) {
+            readGpsIfd(tiff, gpsIfd);
+        }
+    }
+
+    private void readExifIfd(Tiff tiff, int ifd) {
+        int count = tiff.u16(ifd);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (tiff.u16(entry) == TAG_DATE_TIME_ORIGINAL) {
+                // The shutter time beats IFD0's DateTime, which editors rewrite
+                LocalDateTime original = exifDate(tiff.ascii(entry));
+                if (original != null) {
+                    capturedAt = original;
+                }
+            }
+        }
+    }
+
+    private void readGpsIfd(Tiff tiff, int ifd) {
+        String latitudeRef = null;
+        String longitudeRef = null;
+        Double lat = null;
+        Double lng = null;
+        Double altitude = null;
+        boolean belowSeaLevel = false;
+        int count = tiff.u16(ifd);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd + 2 + i * 12;
+            switch (tiff.u16(entry)) {
+                case TAG_GPS_LATITUDE_REF -> latitudeRef = tiff.ascii(entry);
+                case TAG_GPS_LATITUDE -> lat = tiff.degrees(entry);
+                case TAG_GPS_LONGITUDE_REF -> longitudeRef = tiff.ascii(entry);
+                case TAG_GPS_LONGITUDE -> lng = tiff.degrees(entry);
+                case TAG_GPS_ALTITUDE_REF -> belowSeaLevel = tiff.unsigned(entry) == 1;
+                case TAG_GPS_ALTITUDE -> altitude = tiff.rational(entry, 0);
+                default -> {
+                }
+            }
+        }
+        if (lat != null && lng != null && isPosition(lat, lng)) {
+            latitude = "S".equalsIgnoreCase(latitudeRef) ? -lat : lat;
+            longitude = "W".equalsIgnoreCase(longitudeRef) ? -lng : lng;
+        }
+        if (altitude != null) {
+            absoluteAltitude = belowSeaLevel ? -altitude : altitude;
+        }
+    }
+
+    // 0,0 is what receivers without a fix write; anything out of range would fail the geo index
+    private static boolean isPosition(double lat, double lng) {
+        return (lat != 0 || lng != 0) && Math.abs(lat) <= 90 && Math.abs(lng) <= 180;
+    }
+
+    private void readXmp(String xmp) {
+        relativeAltitude = firstNonNull(relativeAltitude, number(xmpValue(XMP_RELATIVE_ALTITUDE, xmp)));
+        absoluteAltitude = firstNonNull(absoluteAltitude, number(xmpValue(XMP_ABSOLUTE_ALTITUDE, xmp)));
+        if (latitude == null || longitude == null) {
+            Double lat = number(xmpValue(XMP_LATITUDE, xmp));
+            Double lng = number(xmpValue(XMP_LONGITUDE, xmp));
+            if (lat != null && lng != null && isPosition(lat, lng)) {
+                latitude = lat;
+                longitude = lng;
+            }
+        }
+        make = firstNonNull(make, xmpValue(XMP_MAKE, xmp));
+        model = firstNonNull(model, xmpValue(XMP_MODEL, xmp));
+        if (capturedAt == null) {
+            capturedAt = isoDate(xmpValue(XMP_CREATE_DATE, xmp));
+        }
+    }
+
+    // Matches both the attribute form (name="value") and the element form (<name>value</name>)
+    private static Pattern xmpPattern(String name) {
+        return Pattern.compile(name + "\\s*=\\s*\"([^\"]*)\"|<" + name + ">([^<]*)</");
+    }
+
+    private static String xmpValue(Pattern pattern, String xmp) {
+        Matcher matcher = pattern.matcher(xmp);
+        if (!matcher.find()) {
+            return null;
+        }
+        String value = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Double number(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value.startsWith("+") ? value.substring(1) : value);
+            return Double.isFinite(parsed) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime exifDate(String value) {
+        if (value == null || value.length() < 19) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.substring(0, 19), EXIF_DATE);
+        } catch (DateTimeParseException e) {
+            return null; // cameras without a clock write "0000:00:00 00:00:00"
+        }
+    }
+
+    private static LocalDateTime isoDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static <T> T firstNonNull(T current, T candidate) {
+        return current != null ? current : candidate;
+    }
+
+    private static boolean startsWith(byte[] data, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A TIFF block inside a byte array; offsets in the block are relative to its header
+    private static final class Tiff {
+
+        private final byte[] data;
+        private final int base;
+        private final boolean littleEndian;
+
+        Tiff(byte[] data, int base) {
+            this.data = data;
+            this.base = base;
+            this.littleEndian = data[base] == 'I' && data[base + 1] == 'I';
+        }
+
+        int firstIfd() {
+            if (u16(2) != 42) {
+                return -1;
+            }
+            return (int) u32(4);
+        }
+
+        int u16(int offset) {
+            int a = data[base + offset] & 0xff;
+            int b = data[base + offset + 1] & 0xff;
+            return littleEndian ? b << 8 | a : a << 8 | b;
+        }
+
+        long u32(int offset) {
+            long high = u16(littleEndian ? offset + 2 : offset);
+            long low = u16(littleEndian ? offset : offset + 2);
+            return high << 16 | low;
+        }
+
+        // Where an entry's value lives: inline if it fits in four bytes, otherwise at the stored offset
+        int valueOffset(int entry) {
+            int type = u16(entry + 2);
+            long count = u32(entry + 4);
+            int size = type < TYPE_SIZES.length ? TYPE_SIZES[type] : 1;
+            return size * count <= 4 ? entry + 8 : (int) u32(entry + 8);
+        }
+
+        long unsigned(int entry) {
+            int type = u16(entry + 2);
+            int at = valueOffset(entry);
+            return switch (type) {
+                case TYPE_BYTE -> data[base + at] & 0xff;
+                case TYPE_SHORT -> u16(at);
+                case TYPE_LONG -> u32(at);
+                default -> -1;
+            };
+        }
+
+        String ascii(int entry) {
+            if (u16(entry + 2) != TYPE_ASCII) {
+                return null;
+            }
+            int count = (int) Math.min(u32(entry + 4), 256);
+            int at = base + valueOffset(entry);
+            int end = at;
+            while (end < at + count && end < data.length && data[end] != 0) {
+                end++;
+            }
+            String value = new String(data, at, end - at, StandardCharsets.ISO_8859_1).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        Double rational(int entry, int index) {
+            if (u16(entry + 2) != TYPE_RATIONAL || u32(entry + 4) <= index) {
+                return null;
+            }
+            int at = valueOffset(entry) + index * 8;
+            long denominator = u32(at + 4);
+            return denominator == 0 ? null : (double) u32(at) / denominator;
+        }
+
+        // Degrees, minutes, seconds as three rationals
+        Double degrees(int entry) {
+            Double d = rational(entry, 0);
+            Double m = rational(entry, 1);
+            Double s = rational(entry, 2);
+            if (d == null || m == null || s == null) {
+                return null;
+            }
+            return d + m / 60 + s / 3600;
+        }
+    }
+}
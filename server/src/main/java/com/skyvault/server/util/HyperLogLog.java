@@ -0,0 +1,181 @@
+package com.skyvault.server.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter with 2^12 one-byte registers: 4 KB per sketch
+ * and a standard error of about 1.04 / sqrt(4096), i.e. ~1.6%. Sketches merge
+ * by taking the register-wise maximum, so partial sketches from different
+ * flushes or nodes combine losslessly.
+ *
+ * A new sketch starts sparse, holding only its non-empty registers as sorted
+ * (index, rank) entries, and switches to the dense array once it has
+ * SPARSE_LIMIT of them; most per-flush sketches see a handful of viewers.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+    public static final double RELATIVE_ERROR = 1.04 / Math.sqrt(REGISTER_COUNT);
+
+    // 256 four-byte entries: a quarter of the dense size
+    static final int SPARSE_LIMIT = REGISTER_COUNT / 16;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    // Null while sparse
+    private byte[] registers;
+    // index << 8 | rank, sorted by index; null once dense
+    private int[] sparse;
+    private int sparseSize;
+
+    public HyperLogLog() {
+        this.sparse = new int[8];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromRegisters(byte[] registers) {
+        byte[] copy = new byte[REGISTER_COUNT];
+        if (registers != null && registers.length == REGISTER_COUNT) {
+            System.arraycopy(registers, 0, copy, 0, REGISTER_COUNT);
+        }
+        return new HyperLogLog(copy);
+    }
+
+    public synchronized void offer(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Rank of the first set bit in the remaining 52 bits, capped so an all-zero tail still fits
+        long tail = hash << PRECISION;
+        int rank = tail == 0 ? 64 - PRECISION + 1 : Long.numberOfLeadingZeros(tail) + 1;
+        set(index, rank);
+    }
+
+    public synchronized void merge(HyperLogLog other) {
+        int[] entries = other.sparseEntries();
+        if (entries != null) {
+            for (int entry : entries) {
+                set(entry >>> 8, entry & 0xff);
+            }
+            return;
+        }
+        byte[] source = other.toRegisters();
+        densify();
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (source[i] > registers[i]) {
+                registers[i] = source[i];
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers == null) {
+            // Empty registers each add 1 / 2^0
+            zeros = REGISTER_COUNT - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xff));
+            }
+        } else {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        // Small-range correction: linear counting is more accurate while many registers are empty
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized byte[] toRegisters() {
+        if (registers != null) {
+            return registers.clone();
+        }
+        byte[] dense = new byte[REGISTER_COUNT];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) (sparse[i] & 0xff);
+        }
+        return dense;
+    }
+
+    synchronized boolean isSparse() {
+        return registers == null;
+    }
+
+    // Copy of the sparse entries, or null once dense
+    private synchronized int[] sparseEntries() {
+        return registers == null ? Arrays.copyOf(sparse, sparseSize) : null;
+    }
+
+    // Callers must hold the lock
+    private void set(int index, int rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = sparse[mid] >>> 8;
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                if (rank > (sparse[mid] & 0xff)) {
+                    sparse[mid] = index << 8 | rank;
+                }
+                return;
+            }
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            densify();
+            registers[index] = (byte) rank;
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(sparse.length * 2, SPARSE_LIMIT));
+        }
+        System.arraycopy(sparse, low, sparse, low + 1, sparseSize - low);
+        sparse[low] = index << 8 | rank;
+        sparseSize++;
+    }
+
+    // Callers must hold the lock
+    private void densify() {
+        if (registers == null) {
+            registers = toRegisters();
+            sparse = null;
+            sparseSize = 0;
+        }
+    }
+
+    // FNV-1a over UTF-8 bytes followed by the MurmurHash3 finalizer for full avalanche
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
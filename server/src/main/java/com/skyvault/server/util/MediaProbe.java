@@ -0,0 +1,560 @@
+package com.skyvault.server.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Streaming header parser for the media formats we accept. Bytes are pushed
+ * through as they are uploaded and the probe keeps only what it needs: the
+ * first few bytes to identify the format from its magic number, then
+ * PNG IHDR, the JPEG SOF and EXIF/XMP segments, or the MP4/MOV moov box
+ * (mvhd for duration, tkhd for the video track's size). Everything else is skipped by
+ * counting, so memory stays small whatever the file size and the moov box
+ * is found whether it sits before or after the media data.
+ *
+ * Not thread-safe; use one probe per file.
+ */
+public class MediaProbe {
+
+    /** Bytes needed by {@link #detectType(byte[])}. */
+    public static final int SNIFF_BYTES = 16;
+
+    // A moov this large is not a real camera file; stop rather than buffer it
+    private static final int MAX_MOOV_BYTES = 32 * 1024 * 1024;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final Set<String> MP4_BRANDS = Set.of(
+            "isom", "iso2", "iso3", "iso4", "iso5", "iso6", "mp41", "mp42", "avc1", "M4V ", "XAVC", "MSNV", "dash");
+    // Top-level atoms an old QuickTime file without ftyp can start with
+    private static final Set<String> QUICKTIME_ATOMS = Set.of("moov", "mdat", "wide", "free", "skip", "pnot");
+
+    private final byte[] head = new byte[SNIFF_BYTES];
+    private int headLength;
+    private Parser parser;
+    private boolean done;
+
+    private String mediaType;
+    private Integer width;
+    private Integer height;
+    private Integer durationSeconds;
+    private final ExifReader exif = new ExifReader();
+
+    /**
+     * telemetry is the EXIF/XMP capture metadata of a JPEG, or null.
+     */
+    public record Result(String mediaType, Integer width, Integer height, Integer durationSeconds,
+                         ExifReader.Telemetry telemetry) {
+    }
+
+    /**
+     * Identify a file from its leading bytes: one of image/jpeg, image/png,
+     * video/mp4 or video/quicktime, or null if it is none of them.
+     */
+    public static String detectType(byte[] head) {
+        return detectType(head, head.length);
+    }
+
+    public static String detectType(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff) {
+            return "image/jpeg";
+        }
+        if (length >= PNG_SIGNATURE.length && startsWith(head, PNG_SIGNATURE)) {
+            return "image/png";
+        }
+        if (length >= 12 && "ftyp".equals(ascii(head, 4))) {
+            String brand = ascii(head, 8);
+            if ("qt  ".equals(brand)) {
+                return "video/quicktime";
+            }
+            // HEIF/AVIF stills use ftyp too, so only known video brands count
+            return MP4_BRANDS.contains(brand) ? "video/mp4" : null;
+        }
+        if (length >= 8 && QUICKTIME_ATOMS.contains(ascii(head, 4))) {
+            return "video/quicktime";
+        }
+        return null;
+    }
+
+    /**
+     * Wrap a stream so everything read through it is also fed to this probe.
+     */
+    public InputStream wrap(InputStream input) {
+        return new FilterInputStream(input) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    update(new byte[]{(byte) b}, 0, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    update(buffer, offset, read);
+                }
+                return read;
+            }
+        };
+    }
+
+    public void update(byte[] buffer, int offset, int length) {
+        if (done || length <= 0) {
+            return;
+        }
+        if (parser == null) {
+            int copied = Math.min(length, SNIFF_BYTES - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copied);
+            headLength += copied;
+            if (headLength < SNIFF_BYTES) {
+                return;
+            }
+            start();
+            if (done) {
+                return;
+            }
+            // Parsers see the stream from its first byte
+            feed(head, 0, headLength);
+            offset += copied;
+            length -= copied;
+        }
+        if (!done && length > 0) {
+            feed(buffer, offset, length);
+        }
+    }
+
+    /** True once the probe has everything it can learn; later bytes are ignored. */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * How many of the next bytes the probe would only count past, such as
+     * the mdat box of a clip. A reader that can seek may jump over them and
+     * report the jump with {@link #skip(long)} instead of feeding them.
+     */
+    public long skippable() {
+        return done || parser == null ? 0 : parser.skippable();
+    }
+
+    public void skip(long count) {
+        long skipped = Math.min(count, skippable());
+        if (skipped > 0) {
+            parser.skip(skipped);
+        }
+    }
+
+    /**
+     * What was learned from the bytes seen so far. Fields the file did not
+     * contain, or that lay beyond a malformed structure, are null.
+     */
+    public Result result() {
+        if (parser == null && !done && headLength > 0) {
+            // Shorter than SNIFF_BYTES; still enough to recognise some formats
+            start();
+            if (!done) {
+                feed(head, 0, headLength);
+            }
+        }
+        if (parser != null && !done) {
+            parser.finish();
+        }
+        return new Result(mediaType, width, height, durationSeconds, exif.result());
+    }
+
+    private void start() {
+        mediaType = detectType(head, headLength);
+        if (mediaType == null) {
+            done = true;
+        } else if (mediaType.equals("image/png")) {
+            parser = new PngParser();
+        } else if (mediaType.equals("image/jpeg")) {
+            parser = new JpegParser();
+        } else {
+            parser = new IsoBoxParser();
+        }
+    }
+
+    private void feed(byte[] buffer, int offset, int length) {
+        if (parser.feed(buffer, offset, length)) {
+            done = true;
+        }
+    }
+
+    private void setDimensions(long w, long h) {
+        if (w > 0 && h > 0 && w <= Integer.MAX_VALUE && h <= Integer.MAX_VALUE) {
+            width = (int) w;
+            height = (int) h;
+        }
+    }
+
+    private interface Parser {
+        /** Consume bytes; return true once nothing more is needed. */
+        boolean feed(byte[] buffer, int offset, int length);
+
+        /** End of stream reached before the parser was done. */
+        default void finish() {
+        }
+
+        /** Upcoming bytes that would be ignored. */
+        default long skippable() {
+            return 0;
+        }
+
+        /** Advance past count of the skippable bytes without seeing them. */
+        default void skip(long count) {
+        }
+    }
+
+    // Signature (8), IHDR length (4), "IHDR" (4), width (4), height (4)
+    private final class PngParser implements Parser {
+
+        private final byte[] header = new byte[24];
+        private int filled;
+
+        @Override
+        public boolean feed(byte[] buffer, int offset, int length) {
+            int copied = Math.min(length, header.length - filled);
+            System.arraycopy(buffer, offset, header, filled, copied);
+            filled += copied;
+            if (filled < header.length) {
+                return false;
+            }
+            if ("IHDR".equals(ascii(header, 12))) {
+                setDimensions(u32(header, 16), u32(header, 20));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Walks the marker segments up to the first SOFn, which holds the frame
+     * size, handing APP1 segments (EXIF, XMP) to the ExifReader on the way.
+     * Entropy-coded data starts at SOS, so the walk never goes past it.
+     */
+    private final class JpegParser implements Parser {
+
+        private static final int PREFIX = 0;
+        private static final int CODE = 1;
+        private static final int LENGTH_HIGH = 2;
+        private static final int LENGTH_LOW = 3;
+        private static final int SKIP = 4;
+        private static final int COLLECT = 5;
+        private static final int APP1 = 0xe1;
+
+        private int state = PREFIX;
+        private int marker;
+        private int segmentLength;
+        private long skip;
+        private byte[] segment;
+        private int segmentFilled;
+
+        @Override
+        public boolean feed(byte[] buffer, int offset, int length) {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                switch (state) {
+                    case PREFIX -> {
+                        if ((buffer[i++] & 0xff) != 0xff) {
+                            return true; // not at a marker: corrupt or unsupported
+                        }
+                        state = CODE;
+                    }
+                    case CODE -> {
+                        marker = buffer[i++] & 0xff;
+                        if (marker == 0xff) {
+                            break; // fill byte before the marker code
+                        }
+                        if (marker == 0xd9 || marker == 0xda) {
+                            return true; // end of image or start of scan, and no SOF seen
+                        }
+                        state = marker == 0xd8 || marker == 0x01 || (marker >= 0xd0 && marker <= 0xd7)
+                                ? PREFIX : LENGTH_HIGH;
+                    }
+                    case LENGTH_HIGH -> {
+                        segmentLength = (buffer[i++] & 0xff) << 8;
+                        state = LENGTH_LOW;
+                    }
+                    case LENGTH_LOW -> {
+                        segmentLength |= buffer[i++] & 0xff;
+                        if (segmentLength < 2) {
+                            return true;
+                        }
+                        if (isStartOfFrame(marker) || marker == APP1) {
+                            segment = new byte[segmentLength - 2];
+                            segmentFilled = 0;
+                            state = COLLECT;
+                        } else {
+                            skip = segmentLength - 2;
+                            state = SKIP;
+                        }
+                        if (segmentLength == 2) {
+                            state = PREFIX;
+                        }
+                    }
+                    case SKIP -> {
+                        int skipped = (int) Math.min(skip, end - i);
+                        i += skipped;
+                        skip -= skipped;
+                        if (skip == 0) {
+                            state = PREFIX;
+                        }
+                    }
+                    case COLLECT -> {
+                        int copied = Math.min(segment.length - segmentFilled, end - i);
+                        System.arraycopy(buffer, i, segment, segmentFilled, copied);
+                        i += copied;
+                        segmentFilled += copied;
+                        if (segmentFilled < segment.length) {
+                            break;
+                        }
+                        if (marker == APP1) {
+                            exif.readApp1(segment);
+                            segment = null;
+                            state = PREFIX;
+                            break;
+                        }
+                        // precision (1), height (2), width (2)
+                        if (segment.length >= 5) {
+                            setDimensions(u16(segment, 3), u16(segment, 1));
+                        }
+                        return true;
+                    }
+                    default -> throw new IllegalStateException();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long skippable() {
+            return state == SKIP ? skip : 0;
+        }
+
+        @Override
+        public void skip(long count) {
+            skip -= count;
+            if (skip == 0) {
+                state = PREFIX;
+            }
+        }
+
+        // SOF0..SOF15, except DHT (C4), JPG (C8) and DAC (CC) which share the range
+        private static boolean isStartOfFrame(int marker) {
+            return marker >= 0xc0 && marker <= 0xcf && marker != 0xc4 && marker != 0xc8 && marker != 0xcc;
+        }
+    }
+
+    /**
+     * Walks top-level ISO BMFF / QuickTime boxes, skipping each by its size
+     * until moov, which is buffered and parsed. moov holds only sample
+     * tables, so even for long clips it is a small fraction of the file.
+     */
+    private final class IsoBoxParser implements Parser {
+
+        private final byte[] header = new byte[16];
+        private int headerFilled;
+        private int headerLength = 8;
+        private long skip;
+        private ByteArrayOutputStream moov;
+        private long moovRemaining;
+        private boolean moovToEnd;
+
+        @Override
+        public boolean feed(byte[] buffer, int offset, int length) {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                if (moov != null) {
+                    int copied = (int) Math.min(moovRemaining, end - i);
+                    moov.write(buffer, i, copied);
+                    i += copied;
+                    moovRemaining -= copied;
+                    if (moov.size() > MAX_MOOV_BYTES) {
+                        return true;
+                    }
+                    if (moovRemaining == 0) {
+                        parseMoov(moov.toByteArray());
+                        return true;
+                    }
+                } else if (skip > 0) {
+                    int skipped = (int) Math.min(skip, end - i);
+                    i += skipped;
+                    skip -= skipped;
+                } else {
+                    int copied = Math.min(headerLength - headerFilled, end - i);
+                    System.arraycopy(buffer, i, header, headerFilled, copied);
+                    i += copied;
+                    headerFilled += copied;
+                    if (headerFilled == headerLength && !startBox()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long skippable() {
+            return moov == null ? skip : 0;
+        }
+
+        @Override
+        public void skip(long count) {
+            skip -= count;
+        }
+
+        @Override
+        public void finish() {
+            // A moov with size 0 runs to the end of the file
+            if (moov != null && moovToEnd) {
+                parseMoov(moov.toByteArray());
+            }
+        }
+
+        // Header complete: decide what to do with the payload. False if the box is malformed.
+        private boolean startBox() {
+            long size = u32(header, 0);
+            if (size == 1 && headerLength == 8) {
+                headerLength = 16; // 64-bit size follows the type
+                return true;
+            }
+            if (headerLength == 16) {
+                size = u64(header, 8);
+            }
+            String type = ascii(header, 4);
+            long payload = size == 0 ? Long.MAX_VALUE : size - headerLength;
+            headerFilled = 0;
+            headerLength = 8;
+            if (payload < 0) {
+                return false;
+            }
+            if ("moov".equals(type)) {
+                if (payload != Long.MAX_VALUE && payload > MAX_MOOV_BYTES) {
+                    return false;
+                }
+                moov = new ByteArrayOutputStream(payload == Long.MAX_VALUE ? 64 * 1024 : (int) payload);
+                moovRemaining = payload;
+                moovToEnd = size == 0;
+                return payload > 0;
+            }
+            skip = payload;
+            return true;
+        }
+
+        private void parseMoov(byte[] data) {
+            forEachBox(data, 0, data.length, (type, body, end) -> {
+                if ("mvhd".equals(type)) {
+                    parseMovieHeader(data, body, end);
+                } else if ("trak".equals(type) && width == null) {
+                    forEachBox(data, body, end, (childType, childBody, childEnd) -> {
+                        if ("tkhd".equals(childType) && width == null) {
+                            parseTrackHeader(data, childBody, childEnd);
+                        }
+                    });
+                }
+            });
+        }
+
+        private void parseMovieHeader(byte[] data, int body, int end) {
+            if (body >= end) {
+                return;
+            }
+            int version = data[body] & 0xff;
+            int timescaleAt = body + 4 + (version == 1 ? 16 : 8);
+            int durationAt = timescaleAt + 4;
+            if (durationAt + (version == 1 ? 8 : 4) > end) {
+                return;
+            }
+            long timescale = u32(data, timescaleAt);
+            long duration = version == 1 ? u64(data, durationAt) : u32(data, durationAt);
+            boolean unknown = version == 1 ? duration == -1L : duration == 0xffffffffL;
+            if (timescale > 0 && duration > 0 && !unknown) {
+                durationSeconds = (int) Math.min(Integer.MAX_VALUE, Math.round((double) duration / timescale));
+            }
+        }
+
+        // Audio tracks have zero width and height, so the first non-zero tkhd is the video track
+        private void parseTrackHeader(byte[] data, int body, int end) {
+            if (body >= end) {
+                return;
+            }
+            int version = data[body] & 0xff;
+            int matrixAt = body + 4 + (version == 1 ? 32 : 20) + 16;
+            int sizeAt = matrixAt + 36;
+            if (sizeAt + 8 > end) {
+                return;
+            }
+            long w = u32(data, sizeAt) >>> 16; // 16.16 fixed point
+            long h = u32(data, sizeAt + 4) >>> 16;
+            // A 90 or 270 degree display matrix (a = 0, b = +-1) shows the frame on its side
+            boolean quarterTurn = (int) u32(data, matrixAt) == 0 && (int) u32(data, matrixAt + 4) != 0;
+            if (quarterTurn) {
+                setDimensions(h, w);
+            } else {
+                setDimensions(w, h);
+            }
+        }
+    }
+
+    private interface BoxVisitor {
+        void visit(String type, int body, int end);
+    }
+
+    // Children of a container box held in memory; stops at the first malformed size
+    private static void forEachBox(byte[] data, int from, int to, BoxVisitor visitor) {
+        int position = from;
+        while (position + 8 <= to) {
+            long size = u32(data, position);
+            int headerLength = 8;
+            if (size == 1) {
+                if (position + 16 > to) {
+                    return;
+                }
+                size = u64(data, position + 8);
+                headerLength = 16;
+            } else if (size == 0) {
+                size = to - position;
+            }
+            if (size < headerLength || size > to - position) {
+                return;
+            }
+            int end = (int) (position + size);
+            visitor.visit(ascii(data, position + 4), position + headerLength, end);
+            position = end;
+        }
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(byte[] data, int offset) {
+        return new String(data, offset, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int u16(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 8 | data[offset + 1] & 0xff;
+    }
+
+    private static long u32(byte[] data, int offset) {
+        return (long) (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16
+                | (data[offset + 2] & 0xff) << 8 | data[offset + 3] & 0xff;
+    }
+
+    private static long u64(byte[] data, int offset) {
+        return u32(data, offset) << 32 | u32(data, offset + 4);
+    }
+}
@@ -0,0 +1,70 @@
+package com.skyvault.server.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * MinHash signatures with LSH banding. Two feature sets agree on each
+ * signature slot with probability equal to their Jaccard similarity; with
+ * the signature cut into b bands of r rows, sets of similarity s share at
+ * least one band key with probability 1 - (1 - s^r)^b.
+ */
+public class MinHash {
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    public MinHash(int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        // Fixed seeds so signatures are comparable across rebuilds and nodes
+        long seed = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < seeds.length; i++) {
+            seed = mix(seed + 0x9e3779b97f4a7c15L);
+            seeds[i] = seed;
+        }
+    }
+
+    public long[] signature(Collection<String> features) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String feature : features) {
+            long hash = HyperLogLog.hash64(feature);
+            for (int i = 0; i < seeds.length; i++) {
+                long value = mix(hash ^ seeds[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // One key per band; the band index is folded in so equal rows in different bands do not collide
+    public long[] bandKeys(long[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * 31 + signature[band * rows + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,250 @@
+package com.skyvault.server.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental multipart/form-data parser over a raw request body. Parts are
+ * handed out one at a time with a body stream that ends at the next
+ * boundary, so a part can be piped straight to its destination without ever
+ * being buffered whole. Memory use is one fixed read buffer.
+ *
+ * The body stream of a part is only valid until {@link #next()} is called
+ * again; any unread remainder is skipped at that point.
+ */
+public class MultipartStreamParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream input;
+    private final byte[] delimiter; // CRLF "--" boundary
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean started;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStreamParser(InputStream input, String boundary) {
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("Invalid multipart boundary");
+        }
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+    }
+
+    /**
+     * Extract the boundary parameter from a multipart Content-Type header, or
+     * null if the header is not multipart/form-data.
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+        return parameters(contentType).get("boundary");
+    }
+
+    /**
+     * Advance to the next part, or return null after the closing boundary.
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            // The first boundary has no leading CRLF; pretend it does so one delimiter scan handles every case
+            started = true;
+            buffer[0] = '\r';
+            buffer[1] = '\n';
+            tail = 2;
+            new PartInputStream().skipRest();
+        } else if (current != null) {
+            current.skipRest();
+        }
+
+        int first = readByte();
+        int second = readByte();
+        if (first == '-' && second == '-') {
+            finished = true;
+            current = null;
+            return null;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("Malformed multipart boundary line");
+        }
+
+        Map<String, String> headers = readHeaders();
+        Map<String, String> disposition = parameters(headers.getOrDefault("content-disposition", ""));
+        current = new PartInputStream();
+        return new Part(disposition.get("name"), disposition.get("filename"),
+                headers.get("content-type"), current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int total = 0;
+        while (true) {
+            int b = readByte();
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers too large");
+            }
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                if (length == 0) {
+                    return headers;
+                }
+                String header = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                int colon = header.indexOf(':');
+                if (colon > 0) {
+                    headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                            header.substring(colon + 1).trim());
+                }
+                line.reset();
+            } else {
+                line.write(b);
+            }
+        }
+    }
+
+    // Parameters of a header value such as: form-data; name="files"; filename="clip.mp4"
+    private static Map<String, String> parameters(String value) {
+        Map<String, String> parameters = new HashMap<>();
+        int i = value.indexOf(';');
+        while (i >= 0 && i < value.length()) {
+            int equals = value.indexOf('=', i);
+            if (equals < 0) {
+                break;
+            }
+            String key = value.substring(i + 1, equals).trim().toLowerCase(Locale.ROOT);
+            int end;
+            String parameter;
+            if (equals + 1 < value.length() && value.charAt(equals + 1) == '"') {
+                StringBuilder quoted = new StringBuilder();
+                end = equals + 2;
+                while (end < value.length() && value.charAt(end) != '"') {
+                    if (value.charAt(end) == '\\' && end + 1 < value.length()) {
+                        end++;
+                    }
+                    quoted.append(value.charAt(end++));
+                }
+                parameter = quoted.toString();
+                end = value.indexOf(';', end);
+            } else {
+                end = value.indexOf(';', equals);
+                parameter = value.substring(equals + 1, end < 0 ? value.length() : end).trim();
+            }
+            parameters.put(key, parameter);
+            i = end;
+        }
+        return parameters;
+    }
+
+    private int readByte() throws IOException {
+        if (head == tail) {
+            fill();
+            if (head == tail) {
+                throw new IOException("Unexpected end of multipart stream");
+            }
+        }
+        return buffer[head++] & 0xff;
+    }
+
+    // Compact the unread bytes to the front and read more behind them
+    private void fill() throws IOException {
+        if (eof) {
+            return;
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = input.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            eof = true;
+        } else {
+            tail += read;
+        }
+    }
+
+    // First delimiter start in [head, limit], or -1; callers only need to look as far as they will copy
+    private int indexOfDelimiter(int limit) {
+        int last = Math.min(tail - delimiter.length, limit);
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    public record Part(String name, String filename, String contentType, InputStream body) {
+
+        public boolean isFile() {
+            return filename != null;
+        }
+    }
+
+    private final class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                int index = indexOfDelimiter(head + length);
+                if (index == head) {
+                    head += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                // Without a full delimiter in view, the last delimiter-1 bytes may still start one
+                int safe = index >= 0 ? index - head : tail - head - (delimiter.length - 1);
+                if (safe > 0) {
+                    int count = Math.min(length, safe);
+                    System.arraycopy(buffer, head, target, offset, count);
+                    head += count;
+                    return count;
+                }
+                if (eof) {
+                    throw new IOException("Unexpected end of multipart stream");
+                }
+                fill();
+            }
+        }
+
+        void skipRest() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.skyvault.server.util;
+
+import java.util.HexFormat;
+
+/**
+ * SHA-256 whose progress can be saved and picked up again by another
+ * request, or another server. MessageDigest keeps its state private, so a
+ * file arriving over many requests would otherwise have to be read back to
+ * be hashed. Data goes in whole 64-byte blocks until the final piece, which
+ * keeps the saved state down to the eight chaining words.
+ *
+ * Not thread-safe.
+ */
+public final class Sha256State {
+
+    public static final int BLOCK_BYTES = 64;
+
+    private static final int[] K = {
+            0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+            0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+            0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+            0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+            0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+            0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+            0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+            0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private static final int[] INITIAL = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private final int[] h;
+    private final int[] w = new int[64];
+    private long length;
+
+    private Sha256State(int[] h, long length) {
+        this.h = h;
+        this.length = length;
+    }
+
+    public static Sha256State start() {
+        return new Sha256State(INITIAL.clone(), 0);
+    }
+
+    /**
+     * Continue from a state returned by {@link #save()} after length bytes.
+     */
+    public static Sha256State restore(String saved, long length) {
+        byte[] bytes = HexFormat.of().parseHex(saved);
+        if (bytes.length != 32 || length % BLOCK_BYTES != 0) {
+            throw new IllegalArgumentException("Invalid SHA-256 state");
+        }
+        int[] h = new int[8];
+        for (int i = 0; i < 8; i++) {
+            h[i] = readInt(bytes, i * 4);
+        }
+        return new Sha256State(h, length);
+    }
+
+    /** Chaining words as 64 hex characters; the byte count is kept by the caller. */
+    public String save() {
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < 8; i++) {
+            writeInt(bytes, i * 4, h[i]);
+        }
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /** Absorb whole blocks; anything else must go to {@link #finish}. */
+    public void update(byte[] data, int offset, int count) {
+        if (count % BLOCK_BYTES != 0) {
+            throw new IllegalArgumentException("Only whole " + BLOCK_BYTES + "-byte blocks can be added before the end");
+        }
+        for (int i = offset; i < offset + count; i += BLOCK_BYTES) {
+            compress(data, i);
+        }
+        length += count;
+    }
+
+    /**
+     * Absorb the final piece, of any length, and return the digest as
+     * lowercase hex. The state must not be used afterwards.
+     */
+    public String finish(byte[] data, int offset, int count) {
+        int whole = count - count % BLOCK_BYTES;
+        update(data, offset, whole);
+        int rest = count - whole;
+        long bits = (length + rest) * 8;
+
+        // Padding: 0x80, zeros, then the bit length in the last 8 bytes of one or two blocks
+        byte[] tail = new byte[rest + 9 <= BLOCK_BYTES ? BLOCK_BYTES : 2 * BLOCK_BYTES];
+        System.arraycopy(data, offset + whole, tail, 0, rest);
+        tail[rest] = (byte) 0x80;
+        writeInt(tail, tail.length - 8, (int) (bits >>> 32));
+        writeInt(tail, tail.length - 4, (int) bits);
+        for (int i = 0; i < tail.length; i += BLOCK_BYTES) {
+            compress(tail, i);
+        }
+        return save();
+    }
+
+    private void compress(byte[] block, int offset) {
+        for (int t = 0; t < 16; t++) {
+            w[t] = readInt(block, offset + t * 4);
+        }
+        for (int t = 16; t < 64; t++) {
+            int s0 = Integer.rotateRight(w[t - 15], 7) ^ Integer.rotateRight(w[t - 15], 18) ^ (w[t - 15] >>> 3);
+            int s1 = Integer.rotateRight(w[t - 2], 17) ^ Integer.rotateRight(w[t - 2], 19) ^ (w[t - 2] >>> 10);
+            w[t] = w[t - 16] + s0 + w[t - 7] + s1;
+        }
+        int a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], k = h[7];
+        for (int t = 0; t < 64; t++) {
+            int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+            int t1 = k + s1 + ((e & f) ^ (~e & g)) + K[t] + w[t];
+            int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+            int t2 = s0 + ((a & b) ^ (a & c) ^ (b & c));
+            k = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+        h[0] += a;
+        h[1] += b;
+        h[2] += c;
+        h[3] += d;
+        h[4] += e;
+        h[5] += f;
+        h[6] += g;
+        h[7] += k;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16
+                | (data[offset + 2] & 0xff) << 8 | (data[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,163 @@
+package com.skyvault.server.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Streaming builder for a Deep Zoom (DZI) tile pyramid. The full-resolution
+ * image is pushed in horizontal bands, top to bottom; each level holds one
+ * strip of tile-height rows, cuts it into tiles once it is full and hands a
+ * half-size copy down to the level below. Memory is about two strips of the
+ * full width whatever the image height, so a 40+ megapixel still never has
+ * to be decoded into one raster.
+ *
+ * Levels follow the DZI convention: level 0 is 1x1, the top level is the
+ * original size and each level in between halves the one above, rounding up.
+ * Tiles have no overlap; edge tiles are smaller.
+ *
+ * Not thread-safe; use one pyramid per image.
+ */
+public class TilePyramid {
+
+    /** Receives each tile once its pixels are final. */
+    public interface TileSink {
+        /**
+         * @param tile a view into the pyramid's buffer, valid only for the
+         *             duration of the call; copy it before drawing on it
+         */
+        void accept(int level, int column, int row, BufferedImage tile) throws IOException;
+    }
+
+    private final int tileSize;
+    private final TileSink sink;
+    private final Level top;
+
+    public TilePyramid(int width, int height, int tileSize, TileSink sink) {
+        if (width <= 0 || height <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Image and tile sizes must be positive");
+        }
+        this.tileSize = tileSize;
+        this.sink = sink;
+        int max = maxLevel(width, height);
+        Level level = null;
+        for (int index = 0; index <= max; index++) {
+            level = new Level(index, levelSize(width, max - index), levelSize(height, max - index), level);
+        }
+        this.top = level;
+    }
+
+    /** Index of the full-resolution level: enough halvings to reach 1x1. */
+    public static int maxLevel(int width, int height) {
+        int longEdge = Math.max(width, height);
+        return longEdge <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(longEdge - 1);
+    }
+
+    /** Highest level whose long edge is at most the given number of pixels. */
+    public static int levelWithin(int width, int height, int maxDimension) {
+        int max = maxLevel(width, height);
+        for (int level = max; level > 0; level--) {
+            if (levelSize(Math.max(width, height), max - level) <= maxDimension) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    /** Width or height after halving it the given number of times, rounding up. */
+    public static int levelSize(int size, int halvings) {
+        return (int) ((size + (1L << halvings) - 1) >> halvings);
+    }
+
+    /**
+     * Push the next rows of the full-resolution image. The band must be the
+     * image's full width; any number of rows, as long as no more arrive
+     * than the image has.
+     */
+    public void accept(BufferedImage band) throws IOException {
+        if (band.getWidth() != top.width) {
+            throw new IllegalArgumentException("Band width " + band.getWidth() + " does not match image width " + top.width);
+        }
+        top.accept(band);
+    }
+
+    /** True once every row of the image has been pushed and every tile emitted. */
+    public boolean isComplete() {
+        return top.received == top.height;
+    }
+
+    private final class Level {
+        private final int index;
+        private final int width;
+        private final int height;
+        private final Level below;
+        private final BufferedImage strip;
+        private int filled;
+        private int received;
+        private int row;
+
+        private Level(int index, int width, int height, Level below) {
+            this.index = index;
+            this.width = width;
+            this.height = height;
+            this.below = below;
+            this.strip = new BufferedImage(width, Math.min(tileSize, height), BufferedImage.TYPE_INT_RGB);
+        }
+
+        private void accept(BufferedImage rows) throws IOException {
+            if (received + rows.getHeight() > height) {
+                throw new IllegalArgumentException("More rows than the image has at level " + index);
+            }
+            int consumed = 0;
+            while (consumed < rows.getHeight()) {
+                int take = Math.min(strip.getHeight() - filled, rows.getHeight() - consumed);
+                Graphics2D graphics = strip.createGraphics();
+                try {
+                    // Opaque white under any transparency, as the tiles are JPEG
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, filled, width, take);
+                    graphics.drawImage(rows, 0, filled, width, filled + take,
+                            0, consumed, width, consumed + take, null);
+                } finally {
+                    graphics.dispose();
+                }
+                filled += take;
+                consumed += take;
+                received += take;
+                if (filled == strip.getHeight() || received == height) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            for (int column = 0; column * tileSize < width; column++) {
+                int x = column * tileSize;
+                sink.accept(index, column, row, strip.getSubimage(x, 0, Math.min(tileSize, width - x), filled));
+            }
+            if (below != null) {
+                below.accept(halve(strip, width, filled));
+            }
+            row++;
+            filled = 0;
+        }
+    }
+
+    // Bilinear at exactly 2:1 averages each 2x2 block
+    private static BufferedImage halve(BufferedImage source, int width, int height) {
+        int halfWidth = (width + 1) / 2;
+        int halfHeight = (height + 1) / 2;
+        BufferedImage target = new BufferedImage(halfWidth, halfHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, halfWidth, halfHeight, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,100 @@
+package com.skyvault.server.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded leaderboard holding the K highest-scoring keys. Scores are kept in
+ * a sorted set (highest first, ties by key) next to a key -> score map, so
+ * updates, evictions and a top-n read are O(log K) / O(n).
+ */
+public class TopK {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::key);
+
+    private final int capacity;
+    private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final Map<String, Double> scores = new HashMap<>();
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Set the absolute score of a key. A key outside the board only gets in if
+     * it beats the current lowest entry once the board is full.
+     */
+    public synchronized void offer(String key, double score) {
+        Double previous = scores.remove(key);
+        if (previous != null) {
+            ranked.remove(new Entry(key, previous));
+        }
+        if (ranked.size() >= capacity && ORDER.compare(new Entry(key, score), ranked.last()) > 0) {
+            return;
+        }
+        ranked.add(new Entry(key, score));
+        scores.put(key, score);
+        if (ranked.size() > capacity) {
+            Entry evicted = ranked.pollLast();
+            scores.remove(evicted.key());
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Double previous = scores.remove(key);
+        if (previous != null) {
+            ranked.remove(new Entry(key, previous));
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return scores.containsKey(key);
+    }
+
+    public synchronized List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(n, ranked.size())));
+        for (Entry entry : ranked) {
+            if (result.size() >= n) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // Swap in a freshly loaded board, e.g. after reconciling with the database
+    public synchronized void replaceAll(Map<String, Double> fresh) {
+        ranked.clear();
+        scores.clear();
+        fresh.forEach(this::offer);
+    }
+
+    // Multiply every score by a positive factor; the ranking is unchanged
+    public synchronized void scale(double factor) {
+        List<Entry> entries = new ArrayList<>(ranked);
+        ranked.clear();
+        for (Entry entry : entries) {
+            ranked.add(new Entry(entry.key(), entry.score() * factor));
+            scores.put(entry.key(), entry.score() * factor);
+        }
+    }
+
+    public synchronized int size() {
+        return ranked.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public record Entry(String key, double score) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.skyvault.server.service;
+
+import com.skyvault.server.model.DroneContent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RenditionServiceTests {
+
+	@Test
+	void picksSmallestRenditionAtLeastAsWideElseTheLargest() {
+		DroneContent.MediaFile file = new DroneContent.MediaFile();
+		file.setRenditions(List.of(rendition(320), rendition(800), rendition(1600)));
+
+		assertEquals(320, RenditionService.pick(file, 0).getWidth());
+		assertEquals(800, RenditionService.pick(file, 321).getWidth());
+		assertEquals(800, RenditionService.pick(file, 800).getWidth());
+		assertEquals(1600, RenditionService.pick(file, 4000).getWidth());
+	}
+
+	@Test
+	void picksNothingForFilesWithoutRenditions() {
+		DroneContent.MediaFile file = new DroneContent.MediaFile();
+		assertNull(RenditionService.pick(file, 320));
+
+		// Recorded as empty when the original could not be decoded
+		file.setRenditions(List.of());
+		assertNull(RenditionService.pick(file, 320));
+	}
+
+	@Test
+	void renditionKeysNestUnderTheOriginalsFileName() {
+		assertEquals("skyvault/renditions/3f2a.jpg/w320.jpg",
+				RenditionService.renditionKey("skyvault/content/3f2a.jpg", 320));
+		assertEquals("skyvault/renditions/3f2a.png/w1600.jpg",
+				RenditionService.renditionKey("3f2a.png", 1600));
+	}
+
+	private static DroneContent.Rendition rendition(int width) {
+		return new DroneContent.Rendition("skyvault/renditions/a.jpg/w" + width + ".jpg", width, width * 2 / 3, 1000L);
+	}
+}
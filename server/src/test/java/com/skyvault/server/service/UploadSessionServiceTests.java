@@ -0,0 +1,192 @@
+package com.skyvault.server.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.skyvault.server.dto.ContentResponse;
+import com.skyvault.server.dto.UploadSessionStatus;
+import com.skyvault.server.model.DroneContent;
+import com.skyvault.server.model.UploadSession;
+import com.skyvault.server.model.User;
+import com.skyvault.server.repository.ContentRepository;
+import com.skyvault.server.repository.UploadSessionRepository;
+import com.skyvault.server.util.MediaProbe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTests {
+
+	private static final String SHA256 = "ab".repeat(32);
+	private static final String S3_KEY = "skyvault/content/clip.jpg";
+	private static final long SIZE = 1000;
+
+	private final UploadSessionRepository repository = mock(UploadSessionRepository.class);
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ContentService contentService = mock(ContentService.class);
+	private final ContentRepository contentRepository = mock(ContentRepository.class);
+	private final S3Service s3Service = mock(S3Service.class);
+	private UploadSessionService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new UploadSessionService(repository, mongoTemplate, contentService, contentRepository, s3Service);
+		ReflectionTestUtils.setField(service, "completingTimeoutMinutes", 60);
+
+		// Status transitions and the pre-save renewal always win
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(UploadSession.class))).thenAnswer(invocation -> new UploadSession());
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(UploadSession.class)))
+				.thenAnswer(invocation -> new UploadSession());
+
+		when(contentService.requireApprovedCreator("creator-1")).thenReturn(new User());
+		when(contentService.buildContent(eq("creator-1"), any())).thenReturn(new DroneContent());
+		ContentResponse saved = new ContentResponse();
+		saved.setId("content-1");
+		when(contentService.saveUploadedContent(any(), anyList(), any())).thenReturn(saved);
+
+		when(s3Service.doesFileExist(S3_KEY)).thenReturn(true);
+		when(s3Service.toMediaFile(anyString(), anyString(), anyLong())).thenAnswer(invocation -> {
+			DroneContent.MediaFile file = new DroneContent.MediaFile();
+			file.setId(invocation.getArgument(0));
+			return file;
+		});
+		when(s3Service.probe(eq(S3_KEY), eq(SIZE), any(MediaProbe.class)))
+				.thenReturn(new MediaProbe.Result("image/jpeg", 4000, 3000, null, null));
+	}
+
+	@Test
+	void completesFromTheChecksumS3Verified() throws Exception {
+		storedObject(SIZE, SHA256);
+		openSession(session(null));
+
+		UploadSessionStatus status = service.completeSession("creator-1", "session-1");
+
+		assertEquals("completed", status.getStatus());
+		assertEquals("content-1", status.getContentId());
+		// Only the headers were probed; the object was not read back to hash it
+		verify(s3Service, never()).sha256Hex(anyString(), any());
+		verify(s3Service, never()).deleteFiles(anyList());
+		verify(s3Service, never()).replaceContentType(anyString(), any(), anyString());
+	}
+
+	@Test
+	void storedContentTypeIsReplacedWithTheDetectedOne() {
+		ObjectMetadata metadata = storedObject(SIZE, SHA256);
+		metadata.setContentType("image/png");
+		openSession(session(null));
+
+		service.completeSession("creator-1", "session-1");
+
+		verify(s3Service).replaceContentType(S3_KEY, metadata, "image/jpeg");
+	}
+
+	@Test
+	void sizeMismatchFailsAndCleansUp() {
+		storedObject(SIZE - 1, SHA256);
+		openSession(session(null));
+
+		RuntimeException e = assertThrows(RuntimeException.class,
+				() -> service.completeSession("creator-1", "session-1"));
+
+		assertTrue(e.getMessage().startsWith("Uploaded size does not match"));
+		verify(s3Service).deleteFiles(anyList());
+		verify(contentService, never()).saveUploadedContent(any(), anyList(), any());
+	}
+
+	@Test
+	void checksumMismatchFailsAndCleansUp() {
+		storedObject(SIZE, "cd".repeat(32));
+		openSession(session(null));
+
+		RuntimeException e = assertThrows(RuntimeException.class,
+				() -> service.completeSession("creator-1", "session-1"));
+
+		assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+		verify(s3Service).deleteFiles(anyList());
+		verify(contentService, never()).saveUploadedContent(any(), anyList(), any());
+	}
+
+	@Test
+	void expiresOpenAndAbandonedCompletingSessions() {
+		UploadSession open = session(null);
+		UploadSession abandoned = session("upload-1");
+		abandoned.setStatus(UploadSession.Status.COMPLETING);
+		abandoned.setUpdatedAt(Instant.now().minus(2, ChronoUnit.HOURS));
+		when(repository.findTop100ByStatusAndExpiresAtBefore(eq(UploadSession.Status.OPEN), any()))
+				.thenReturn(List.of(open));
+		when(mongoTemplate.find(any(Query.class), eq(UploadSession.class))).thenReturn(List.of(abandoned));
+		when(contentRepository.existsByMediaFileKeys(List.of(S3_KEY))).thenReturn(false);
+
+		service.expireSessions();
+
+		verify(s3Service).abortMultipartUpload(S3_KEY, "upload-1");
+		verify(s3Service, times(2)).deleteFiles(anyList());
+	}
+
+	@Test
+	void abandonedSessionWhoseContentWasSavedIsKept() {
+		UploadSession abandoned = session(null);
+		abandoned.setStatus(UploadSession.Status.COMPLETING);
+		when(mongoTemplate.find(any(Query.class), eq(UploadSession.class))).thenReturn(List.of(abandoned));
+		when(contentRepository.existsByMediaFileKeys(List.of(S3_KEY))).thenReturn(true);
+
+		service.expireSessions();
+
+		verify(s3Service, never()).deleteFiles(anyList());
+	}
+
+	private ObjectMetadata storedObject(long size, String sha256) {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(size);
+		metadata.setContentType("image/jpeg");
+		metadata.setHeader("x-amz-checksum-sha256", S3Service.checksumHeaderValue(sha256));
+		when(s3Service.getFileMetadata(S3_KEY)).thenReturn(metadata);
+		return metadata;
+	}
+
+	private void openSession(UploadSession session) {
+		when(repository.findById("session-1")).thenReturn(Optional.of(session));
+	}
+
+	private static UploadSession session(String uploadId) {
+		UploadSession.SessionFile file = new UploadSession.SessionFile();
+		file.setOriginalName("clip.jpg");
+		file.setContentType("image/jpeg");
+		file.setSize(SIZE);
+		file.setSha256(SHA256);
+		file.setS3Key(S3_KEY);
+		file.setUploadId(uploadId);
+		file.setPartCount(uploadId == null ? null : 2);
+
+		UploadSession session = new UploadSession();
+		session.setId("session-1");
+		session.setCreatorId("creator-1");
+		session.setStatus(UploadSession.Status.OPEN);
+		session.setCreatedAt(Instant.now());
+		session.setExpiresAt(session.getCreatedAt().plus(1, ChronoUnit.HOURS));
+		session.setFiles(List.of(file));
+		return session;
+	}
+}
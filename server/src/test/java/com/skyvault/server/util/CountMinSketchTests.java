@@ -0,0 +1,31 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTests {
+
+	@Test
+	void neverUndercountsAndStaysCloseForHeavyKeys() {
+		CountMinSketch sketch = new CountMinSketch(1024, 4);
+		for (int i = 0; i < 5_000; i++) {
+			sketch.add("tag:" + i, 1);
+		}
+		sketch.add("tag:mountains", 500);
+
+		double estimate = sketch.estimate("tag:mountains");
+		assertTrue(estimate >= 500);
+		// Error bound is e / width of the total weight (5,500)
+		assertTrue(estimate - 500 <= Math.E / 1024 * 5_500 * 2, "estimate " + estimate);
+	}
+
+	@Test
+	void scaleAppliesToEveryCounter() {
+		CountMinSketch sketch = new CountMinSketch(64, 3);
+		sketch.add("coast", 8);
+		sketch.scale(0.25);
+		assertEquals(2, sketch.estimate("coast"), 1e-9);
+	}
+}
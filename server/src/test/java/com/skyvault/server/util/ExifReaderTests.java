@@ -0,0 +1,188 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExifReaderTests {
+
+	private static final String XMP = "http://ns.adobe.com/xap/1.0/\0"
+			+ "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\"><rdf:RDF><rdf:Description"
+			+ " drone-dji:AbsoluteAltitude=\"+152.43\" drone-dji:RelativeAltitude=\"+119.80\""
+			+ " drone-dji:GpsLatitude=\"13.7563\" drone-dji:GpsLongtitude=\"100.5018\">"
+			+ "<tiff:Model>FC3582</tiff:Model></rdf:Description></rdf:RDF></x:xmpmeta>";
+
+	@Test
+	void readsGpsTimeAndCameraFromExif() {
+		for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+			ExifReader reader = new ExifReader();
+			reader.readApp1(exifSegment(order));
+
+			ExifReader.Telemetry telemetry = reader.result();
+
+			assertEquals(-33.8568, telemetry.latitude(), 1e-4);
+			assertEquals(151.2153, telemetry.longitude(), 1e-4);
+			assertEquals(95.5, telemetry.absoluteAltitude(), 1e-9);
+			assertNull(telemetry.relativeAltitude());
+			assertEquals(LocalDateTime.of(2024, 3, 9, 17, 45, 12), telemetry.capturedAt());
+			assertEquals("DJI FC3582", telemetry.cameraModel());
+		}
+	}
+
+	@Test
+	void dropsOutOfRangeExifPosition() {
+		ExifReader reader = new ExifReader();
+		reader.readApp1(exifSegment(ByteOrder.BIG_ENDIAN, 91));
+
+		ExifReader.Telemetry telemetry = reader.result();
+
+		assertFalse(telemetry.hasPosition());
+		assertEquals(95.5, telemetry.absoluteAltitude(), 1e-9);
+	}
+
+	@Test
+	void takesRelativeAltitudeAndFallbacksFromDjiXmp() {
+		ExifReader reader = new ExifReader();
+		reader.readApp1(XMP.getBytes(StandardCharsets.UTF_8));
+
+		ExifReader.Telemetry telemetry = reader.result();
+
+		assertEquals(119.8, telemetry.relativeAltitude(), 1e-9);
+		assertEquals(152.43, telemetry.absoluteAltitude(), 1e-9);
+		assertEquals(13.7563, telemetry.latitude(), 1e-9);
+		assertEquals(100.5018, telemetry.longitude(), 1e-9);
+		assertEquals("FC3582", telemetry.cameraModel());
+	}
+
+	@Test
+	void exifPositionWinsOverXmp() {
+		ExifReader reader = new ExifReader();
+		reader.readApp1(exifSegment(ByteOrder.BIG_ENDIAN));
+		reader.readApp1(XMP.getBytes(StandardCharsets.UTF_8));
+
+		ExifReader.Telemetry telemetry = reader.result();
+
+		assertEquals(-33.8568, telemetry.latitude(), 1e-4);
+		assertEquals(95.5, telemetry.absoluteAltitude(), 1e-9);
+		assertEquals(119.8, telemetry.relativeAltitude(), 1e-9);
+	}
+
+	@Test
+	void probeHandsJpegMetadataSegmentsToTheReader() throws IOException {
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		jpeg.write(new byte[]{(byte) 0xff, (byte) 0xd8});
+		segment(jpeg, 0xe1, exifSegment(ByteOrder.LITTLE_ENDIAN));
+		segment(jpeg, 0xe1, XMP.getBytes(StandardCharsets.UTF_8));
+		segment(jpeg, 0xc0, new byte[]{8, 0x0e, 0x40, 0x15, 0x60, 3});
+		segment(jpeg, 0xda, new byte[10]);
+
+		MediaProbe probe = new MediaProbe();
+		try (InputStream input = probe.wrap(new ByteArrayInputStream(jpeg.toByteArray()))) {
+			byte[] buffer = new byte[13];
+			while (input.read(buffer) >= 0) {
+				// probe sees every byte as it passes
+			}
+		}
+		MediaProbe.Result result = probe.result();
+
+		assertEquals(5472, result.width());
+		assertEquals(119.8, result.telemetry().relativeAltitude(), 1e-9);
+		assertEquals("DJI FC3582", result.telemetry().cameraModel());
+	}
+
+	@Test
+	void corruptExifDoesNotThrow() {
+		byte[] segment = exifSegment(ByteOrder.BIG_ENDIAN);
+		byte[] truncated = new byte[40];
+		System.arraycopy(segment, 0, truncated, 0, truncated.length);
+
+		ExifReader reader = new ExifReader();
+		reader.readApp1(truncated);
+
+		ExifReader.Telemetry telemetry = reader.result();
+		assertTrue(telemetry == null || !telemetry.hasPosition());
+	}
+
+	// Exif header, TIFF header, IFD0 (Make, Model, ExifIFD, GPSIFD), Exif IFD, GPS IFD, then out-of-line values
+	private static byte[] exifSegment(ByteOrder order) {
+		return exifSegment(order, 33);
+	}
+
+	private static byte[] exifSegment(ByteOrder order, int latitudeDegrees) {
+		ByteBuffer tiff = ByteBuffer.allocate(400).order(order);
+		tiff.put(order == ByteOrder.BIG_ENDIAN ? new byte[]{'M', 'M'} : new byte[]{'I', 'I'});
+		tiff.putShort((short) 42).putInt(8);
+
+		int ifd0 = 8;
+		int exifIfd = ifd0 + 2 + 4 * 12 + 4;
+		int gpsIfd = exifIfd + 2 + 12 + 4;
+		int data = gpsIfd + 2 + 6 * 12 + 4;
+
+		tiff.position(ifd0).putShort((short) 4);
+		int model = data;
+		int dateTime = model + 8;
+		int latitude = dateTime + 20;
+		int longitude = latitude + 24;
+		int altitude = longitude + 24;
+		inlineAscii(tiff, 0x010f, "DJI");
+		entry(tiff, 0x0110, 2, 7, model);
+		entry(tiff, 0x8769, 4, 1, exifIfd);
+		entry(tiff, 0x8825, 4, 1, gpsIfd);
+		tiff.putInt(0);
+
+		tiff.position(exifIfd).putShort((short) 1);
+		entry(tiff, 0x9003, 2, 20, dateTime);
+		tiff.putInt(0);
+
+		tiff.position(gpsIfd).putShort((short) 6);
+		inlineAscii(tiff, 1, "S");
+		entry(tiff, 2, 5, 3, latitude);
+		inlineAscii(tiff, 3, "E");
+		entry(tiff, 4, 5, 3, longitude);
+		tiff.putShort((short) 5).putShort((short) 1).putInt(1).put((byte) 0).put(new byte[3]);
+		entry(tiff, 6, 5, 1, altitude);
+		tiff.putInt(0);
+
+		tiff.position(model).put("FC3582\0".getBytes(StandardCharsets.US_ASCII));
+		tiff.position(dateTime).put("2024:03:09 17:45:12\0".getBytes(StandardCharsets.US_ASCII));
+		// 33 deg 51' 24.48" S, 151 deg 12' 55.08" E, 95.5 m
+		tiff.position(latitude).putInt(latitudeDegrees).putInt(1).putInt(51).putInt(1).putInt(2448).putInt(100);
+		tiff.position(longitude).putInt(151).putInt(1).putInt(12).putInt(1).putInt(5508).putInt(100);
+		tiff.position(altitude).putInt(955).putInt(10);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.writeBytes("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+		out.write(tiff.array(), 0, altitude + 8);
+		return out.toByteArray();
+	}
+
+	private static void entry(ByteBuffer tiff, int tag, int type, int count, int value) {
+		tiff.putShort((short) tag).putShort((short) type).putInt(count).putInt(value);
+	}
+
+	// Values of up to four bytes live in the entry itself
+	private static void inlineAscii(ByteBuffer tiff, int tag, String value) {
+		tiff.putShort((short) tag).putShort((short) 2).putInt(value.length() + 1);
+		tiff.put(value.getBytes(StandardCharsets.US_ASCII)).put(new byte[4 - value.length()]);
+	}
+
+	private static void segment(ByteArrayOutputStream out, int marker, byte[] payload) {
+		out.write(0xff);
+		out.write(marker);
+		out.write((payload.length + 2) >> 8);
+		out.write((payload.length + 2) & 0xff);
+		out.writeBytes(payload);
+	}
+}
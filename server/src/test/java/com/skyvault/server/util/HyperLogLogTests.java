@@ -0,0 +1,93 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTests {
+
+	@Test
+	void estimatesDistinctCountWithinErrorBound() {
+		HyperLogLog sketch = new HyperLogLog();
+		int distinct = 100_000;
+		for (int i = 0; i < distinct; i++) {
+			sketch.offer("user:" + i);
+			sketch.offer("user:" + i); // repeats must not inflate the count
+		}
+
+		double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+		assertTrue(error < 4 * HyperLogLog.RELATIVE_ERROR, "relative error " + error);
+	}
+
+	@Test
+	void smallCardinalitiesAreNearExact() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < 50; i++) {
+			sketch.offer("anon:10.0.0." + i);
+		}
+		assertEquals(50, sketch.estimate(), 2);
+	}
+
+	@Test
+	void mergeMatchesSketchOfUnion() {
+		HyperLogLog left = new HyperLogLog();
+		HyperLogLog right = new HyperLogLog();
+		HyperLogLog union = new HyperLogLog();
+		for (int i = 0; i < 20_000; i++) {
+			String viewer = "user:" + i;
+			(i % 2 == 0 ? left : right).offer(viewer);
+			union.offer(viewer);
+		}
+
+		HyperLogLog restored = HyperLogLog.fromRegisters(left.toRegisters());
+		restored.merge(right);
+		assertEquals(union.estimate(), restored.estimate());
+	}
+
+	@Test
+	void sparseSketchMatchesDenseUntilAndAfterSwitching() {
+		HyperLogLog sparse = new HyperLogLog();
+		HyperLogLog dense = HyperLogLog.fromRegisters(new byte[HyperLogLog.REGISTER_COUNT]);
+		for (int i = 0; i < 5_000; i++) {
+			sparse.offer("user:" + i);
+			dense.offer("user:" + i);
+			if (i == 100) {
+				assertTrue(sparse.isSparse());
+				assertEquals(dense.estimate(), sparse.estimate());
+				assertArrayEquals(dense.toRegisters(), sparse.toRegisters());
+			}
+		}
+
+		assertFalse(sparse.isSparse());
+		assertArrayEquals(dense.toRegisters(), sparse.toRegisters());
+	}
+
+	@Test
+	void sparseSketchesMergeIntoEitherForm() {
+		HyperLogLog few = new HyperLogLog();
+		HyperLogLog many = new HyperLogLog();
+		HyperLogLog union = HyperLogLog.fromRegisters(null);
+		for (int i = 0; i < 40; i++) {
+			few.offer("anon:" + i);
+			union.offer("anon:" + i);
+		}
+		for (int i = 0; i < 3_000; i++) {
+			many.offer("user:" + i);
+			union.offer("user:" + i);
+		}
+
+		HyperLogLog sparseFirst = new HyperLogLog();
+		sparseFirst.merge(few);
+		assertTrue(sparseFirst.isSparse());
+		sparseFirst.merge(many);
+		assertArrayEquals(union.toRegisters(), sparseFirst.toRegisters());
+
+		HyperLogLog denseFirst = HyperLogLog.fromRegisters(many.toRegisters());
+		denseFirst.merge(few);
+		assertArrayEquals(union.toRegisters(), denseFirst.toRegisters());
+	}
+
+}
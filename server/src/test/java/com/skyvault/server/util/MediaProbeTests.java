@@ -0,0 +1,178 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaProbeTests {
+
+	@Test
+	void readsPngDimensionsFromIhdr() {
+		ByteBuffer png = ByteBuffer.allocate(64);
+		png.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+		png.putInt(13).put(ascii("IHDR")).putInt(4000).putInt(3000);
+
+		MediaProbe.Result result = probe(png.array(), 5);
+
+		assertEquals("image/png", result.mediaType());
+		assertEquals(4000, result.width());
+		assertEquals(3000, result.height());
+		assertNull(result.durationSeconds());
+	}
+
+	@Test
+	void readsJpegFrameSizeAfterApplicationSegments() throws IOException {
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		jpeg.write(new byte[]{(byte) 0xff, (byte) 0xd8});
+		// APP1 with a large payload the probe has to skip
+		segment(jpeg, 0xe1, new byte[40_000]);
+		segment(jpeg, 0xdb, new byte[64]);
+		// SOF0: precision, height 3648, width 5472, components
+		segment(jpeg, 0xc0, new byte[]{8, 0x0e, 0x40, 0x15, 0x60, 3});
+		segment(jpeg, 0xda, new byte[10]);
+		jpeg.write(new byte[1000]);
+
+		MediaProbe.Result result = probe(jpeg.toByteArray(), 7);
+
+		assertEquals("image/jpeg", result.mediaType());
+		assertEquals(5472, result.width());
+		assertEquals(3648, result.height());
+	}
+
+	@Test
+	void findsMoovAfterMediaData() {
+		byte[] mdat = new byte[200_000];
+		new Random(7).nextBytes(mdat);
+		byte[] mp4 = concat(
+				box("ftyp", concat(ascii("isom"), new byte[4], ascii("isomavc1"))),
+				box("mdat", mdat),
+				box("moov", concat(
+						mvhd(90_000, 90_000L * 125),
+						box("trak", tkhd(0, 0, false)), // audio track first
+						box("trak", tkhd(3840, 2160, false)))));
+
+		MediaProbe.Result result = probe(mp4, 1000);
+
+		assertEquals("video/mp4", result.mediaType());
+		assertEquals(3840, result.width());
+		assertEquals(2160, result.height());
+		assertEquals(125, result.durationSeconds());
+	}
+
+	@Test
+	void seekingReaderCanJumpOverMediaData() {
+		byte[] head = concat(
+				box("ftyp", concat(ascii("isom"), new byte[4], ascii("isomavc1"))),
+				ByteBuffer.allocate(8).putInt(8 + 50_000_000).put(ascii("mdat")).array());
+		byte[] moov = box("moov", concat(mvhd(1000, 42_000), box("trak", tkhd(1920, 1080, false))));
+
+		MediaProbe probe = new MediaProbe();
+		probe.update(head, 0, head.length);
+		assertEquals(50_000_000, probe.skippable());
+		probe.skip(probe.skippable());
+		probe.update(moov, 0, moov.length);
+
+		assertTrue(probe.isDone());
+		assertEquals(1920, probe.result().width());
+		assertEquals(42, probe.result().durationSeconds());
+	}
+
+	@Test
+	void swapsDimensionsForRotatedQuickTimeTrack() {
+		byte[] mov = concat(
+				box("ftyp", concat(ascii("qt  "), new byte[4], ascii("qt  "))),
+				box("moov", concat(mvhd(600, 600 * 30), box("trak", tkhd(1920, 1080, true)))),
+				box("mdat", new byte[5000]));
+
+		MediaProbe.Result result = probe(mov, 3);
+
+		assertEquals("video/quicktime", result.mediaType());
+		assertEquals(1080, result.width());
+		assertEquals(1920, result.height());
+		assertEquals(30, result.durationSeconds());
+	}
+
+	@Test
+	void sniffsTypeFromMagicBytesOnly() {
+		assertEquals("image/jpeg", MediaProbe.detectType(new byte[]{(byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0}));
+		assertEquals("video/mp4", MediaProbe.detectType(box("ftyp", concat(ascii("mp42"), new byte[4]))));
+		// HEIC stills share the ftyp box but are not video
+		assertNull(MediaProbe.detectType(box("ftyp", concat(ascii("heic"), new byte[4]))));
+		assertNull(MediaProbe.detectType("<html><body>not media</body></html>".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	void unknownContentYieldsNothing() {
+		MediaProbe.Result result = probe("GIF89a and then some more bytes".getBytes(StandardCharsets.US_ASCII), 4);
+
+		assertNull(result.mediaType());
+		assertNull(result.width());
+	}
+
+	private static MediaProbe.Result probe(byte[] data, int readSize) {
+		MediaProbe probe = new MediaProbe();
+		try (InputStream input = probe.wrap(new ByteArrayInputStream(data))) {
+			byte[] buffer = new byte[readSize];
+			while (input.read(buffer) >= 0) {
+				// probe sees every byte as it passes
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return probe.result();
+	}
+
+	private static byte[] mvhd(int timescale, long duration) {
+		ByteBuffer body = ByteBuffer.allocate(100);
+		body.putInt(0).putInt(0).putInt(0).putInt(timescale).putInt((int) duration);
+		return box("mvhd", body.array());
+	}
+
+	private static byte[] tkhd(int width, int height, boolean quarterTurn) {
+		ByteBuffer body = ByteBuffer.allocate(84);
+		body.putInt(0).putInt(0).putInt(0).putInt(1).putInt(0).putInt(0);
+		body.put(new byte[8]).putShort((short) 0).putShort((short) 0).putShort((short) 0).putShort((short) 0);
+		int one = 0x00010000;
+		int[] matrix = quarterTurn
+				? new int[]{0, one, 0, -one, 0, 0, 0, 0, 0x40000000}
+				: new int[]{one, 0, 0, 0, one, 0, 0, 0, 0x40000000};
+		for (int value : matrix) {
+			body.putInt(value);
+		}
+		body.putInt(width << 16).putInt(height << 16);
+		return box("tkhd", body.array());
+	}
+
+	private static byte[] box(String type, byte[] payload) {
+		return ByteBuffer.allocate(8 + payload.length).putInt(8 + payload.length).put(ascii(type)).put(payload).array();
+	}
+
+	private static void segment(ByteArrayOutputStream out, int marker, byte[] payload) throws IOException {
+		out.write(new byte[]{(byte) 0xff, (byte) marker});
+		out.write((payload.length + 2) >> 8);
+		out.write((payload.length + 2) & 0xff);
+		out.write(payload);
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+}
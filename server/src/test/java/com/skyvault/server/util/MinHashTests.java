@@ -0,0 +1,42 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTests {
+
+	@Test
+	void signatureAgreementTracksJaccardSimilarity() {
+		MinHash minHash = new MinHash(32, 8);
+		Set<String> a = IntStream.range(0, 100).mapToObj(i -> "tag:" + i).collect(Collectors.toSet());
+		Set<String> b = IntStream.range(50, 150).mapToObj(i -> "tag:" + i).collect(Collectors.toSet());
+
+		long[] sa = minHash.signature(a);
+		long[] sb = minHash.signature(b);
+		int agree = 0;
+		for (int i = 0; i < sa.length; i++) {
+			if (sa[i] == sb[i]) {
+				agree++;
+			}
+		}
+		// True Jaccard is 50 / 150
+		assertEquals(1.0 / 3, agree / (double) sa.length, 0.15);
+	}
+
+	@Test
+	void identicalSetsShareEveryBand() {
+		MinHash minHash = new MinHash(16, 4);
+		Set<String> features = new HashSet<>(Set.of("tag:coast", "category:nature", "location:bali"));
+		long[] first = minHash.bandKeys(minHash.signature(features));
+		long[] second = minHash.bandKeys(minHash.signature(new HashSet<>(features)));
+		assertTrue(Arrays.equals(first, second));
+	}
+}
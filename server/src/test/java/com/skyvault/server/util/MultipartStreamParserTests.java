@@ -0,0 +1,97 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultipartStreamParserTests {
+
+	private static final String BOUNDARY = "----skyvault7MA4YWxkTrZu0gW";
+
+	@Test
+	void streamsPartsAcrossSmallReads() throws IOException {
+		byte[] video = new byte[300_000];
+		new Random(42).nextBytes(video);
+		byte[] body = concat(
+				("--" + BOUNDARY + "\r\n"
+						+ "Content-Disposition: form-data; name=\"data\"\r\n\r\n"
+						+ "{\"title\":\"Coast\"}\r\n"
+						+ "--" + BOUNDARY + "\r\n"
+						+ "Content-Disposition: form-data; name=\"files\"; filename=\"clip.mp4\"\r\n"
+						+ "Content-Type: video/mp4\r\n\r\n").getBytes(StandardCharsets.UTF_8),
+				video,
+				("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+		MultipartStreamParser parser = new MultipartStreamParser(trickle(body), BOUNDARY);
+
+		MultipartStreamParser.Part data = parser.next();
+		assertEquals("data", data.name());
+		assertEquals("{\"title\":\"Coast\"}", new String(data.body().readAllBytes(), StandardCharsets.UTF_8));
+
+		MultipartStreamParser.Part file = parser.next();
+		assertTrue(file.isFile());
+		assertEquals("clip.mp4", file.filename());
+		assertEquals("video/mp4", file.contentType());
+		assertArrayEquals(video, file.body().readAllBytes());
+
+		assertNull(parser.next());
+	}
+
+	@Test
+	void unreadPartIsSkippedAndTruncatedBodyFails() throws IOException {
+		byte[] body = ("--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"skipped\"\r\n\r\n"
+				+ "ignored value\r\n"
+				+ "--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"files\"; filename=\"a.png\"\r\n\r\n"
+				+ "partial").getBytes(StandardCharsets.UTF_8);
+
+		MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+		assertEquals("skipped", parser.next().name());
+		MultipartStreamParser.Part file = parser.next();
+		assertEquals("a.png", file.filename());
+		assertThrows(IOException.class, () -> file.body().readAllBytes());
+	}
+
+	@Test
+	void extractsBoundaryFromContentType() {
+		assertEquals("abc", MultipartStreamParser.boundaryOf("multipart/form-data; boundary=abc"));
+		assertEquals("a b", MultipartStreamParser.boundaryOf("multipart/form-data; charset=utf-8; boundary=\"a b\""));
+		assertNull(MultipartStreamParser.boundaryOf("application/json"));
+	}
+
+	private static byte[] concat(byte[]... chunks) {
+		int length = 0;
+		for (byte[] chunk : chunks) {
+			length += chunk.length;
+		}
+		byte[] all = new byte[length];
+		int offset = 0;
+		for (byte[] chunk : chunks) {
+			System.arraycopy(chunk, 0, all, offset, chunk.length);
+			offset += chunk.length;
+		}
+		return all;
+	}
+
+	// Hands out at most 7 bytes per read so delimiters straddle buffer refills
+	private static InputStream trickle(byte[] bytes) {
+		return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				return super.read(buffer, offset, Math.min(length, 7));
+			}
+		};
+	}
+}
@@ -0,0 +1,53 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Sha256StateTests {
+
+	@Test
+	void matchesMessageDigestAcrossPaddingBoundaries() throws NoSuchAlgorithmException {
+		Random random = new Random(11);
+		for (int size : new int[]{0, 1, 55, 56, 63, 64, 65, 119, 120, 128, 1000}) {
+			byte[] data = new byte[size];
+			random.nextBytes(data);
+
+			assertEquals(expected(data), Sha256State.start().finish(data, 0, size), "size " + size);
+		}
+	}
+
+	@Test
+	void resumesFromSavedStateBetweenChunks() throws NoSuchAlgorithmException {
+		byte[] data = new byte[3 * 4096 + 777];
+		new Random(3).nextBytes(data);
+
+		String saved = Sha256State.start().save();
+		long offset = 0;
+		while (data.length - offset > 4096) {
+			Sha256State state = Sha256State.restore(saved, offset);
+			state.update(data, (int) offset, 4096);
+			saved = state.save();
+			offset += 4096;
+		}
+		String digest = Sha256State.restore(saved, offset).finish(data, (int) offset, (int) (data.length - offset));
+
+		assertEquals(expected(data), digest);
+	}
+
+	@Test
+	void rejectsPartialBlocksBeforeTheEnd() {
+		assertThrows(IllegalArgumentException.class, () -> Sha256State.start().update(new byte[100], 0, 100));
+		assertThrows(IllegalArgumentException.class, () -> Sha256State.restore("00", 0));
+	}
+
+	private static String expected(byte[] data) throws NoSuchAlgorithmException {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+	}
+}
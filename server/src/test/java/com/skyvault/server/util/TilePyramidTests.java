@@ -0,0 +1,93 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TilePyramidTests {
+
+	@Test
+	void levelsFollowDziConvention() {
+		assertEquals(0, TilePyramid.maxLevel(1, 1));
+		assertEquals(8, TilePyramid.maxLevel(256, 100));
+		assertEquals(9, TilePyramid.maxLevel(257, 100));
+		assertEquals(13, TilePyramid.maxLevel(8000, 5000));
+		assertEquals(2000, TilePyramid.levelSize(8000, 2));
+		assertEquals(3, TilePyramid.levelSize(5, 1));
+		// 8000 -> 4000 -> 2000, the first that fits in 2048
+		assertEquals(11, TilePyramid.levelWithin(8000, 5000, 2048));
+	}
+
+	@Test
+	void emitsEveryTileOfEveryLevelFromOddSizedBands() throws IOException {
+		Map<String, int[]> tiles = new HashMap<>();
+		TilePyramid pyramid = new TilePyramid(600, 300, 256,
+				(level, column, row, tile) -> tiles.put(level + "/" + column + "_" + row,
+						new int[]{tile.getWidth(), tile.getHeight()}));
+
+		for (int y = 0; y < 300; y += 70) {
+			pyramid.accept(solid(600, Math.min(70, 300 - y), Color.GRAY));
+		}
+
+		assertTrue(pyramid.isComplete());
+		// Level 10 is 600x300: three columns, two rows, smaller at the edges
+		assertEquals(256, tiles.get("10/0_0")[0]);
+		assertEquals(88, tiles.get("10/2_1")[0]);
+		assertEquals(44, tiles.get("10/2_1")[1]);
+		// Level 9 is 300x150, level 0 a single pixel
+		assertEquals(44, tiles.get("9/1_0")[0]);
+		assertEquals(150, tiles.get("9/1_0")[1]);
+		assertEquals(1, tiles.get("0/0_0")[0]);
+		int expected = 0;
+		for (int level = 0; level <= 10; level++) {
+			int width = TilePyramid.levelSize(600, 10 - level);
+			int height = TilePyramid.levelSize(300, 10 - level);
+			expected += ((width + 255) / 256) * ((height + 255) / 256);
+		}
+		assertEquals(expected, tiles.size());
+	}
+
+	@Test
+	void lowerLevelsAreDownscaledFromTheRowsAbove() throws IOException {
+		Map<String, Integer> samples = new HashMap<>();
+		TilePyramid pyramid = new TilePyramid(1024, 1024, 256, (level, column, row, tile) -> {
+			if (level == 8) {
+				// 256x256: top half came from the red band, bottom half from the blue one
+				samples.put("top", tile.getRGB(128, 32));
+				samples.put("bottom", tile.getRGB(128, 224));
+			}
+		});
+
+		pyramid.accept(solid(1024, 512, Color.RED));
+		pyramid.accept(solid(1024, 512, Color.BLUE));
+
+		assertEquals(Color.RED.getRGB(), samples.get("top"));
+		assertEquals(Color.BLUE.getRGB(), samples.get("bottom"));
+	}
+
+	@Test
+	void rejectsBandsThatDoNotFit() {
+		TilePyramid pyramid = new TilePyramid(100, 10, 256, (level, column, row, tile) -> { });
+
+		assertThrows(IllegalArgumentException.class, () -> pyramid.accept(solid(99, 5, Color.RED)));
+		assertThrows(IllegalArgumentException.class, () -> pyramid.accept(solid(100, 11, Color.RED)));
+	}
+
+	private static BufferedImage solid(int width, int height, Color color) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		return image;
+	}
+}
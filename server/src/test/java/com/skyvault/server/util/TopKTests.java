@@ -0,0 +1,47 @@
+package com.skyvault.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKTests {
+
+	@Test
+	void keepsOnlyTheHighestScores() {
+		TopK board = new TopK(3);
+		for (int i = 1; i <= 10; i++) {
+			board.offer("content:" + i, i);
+		}
+
+		List<String> keys = board.top(5).stream().map(TopK.Entry::key).toList();
+		assertEquals(List.of("content:10", "content:9", "content:8"), keys);
+		assertFalse(board.contains("content:7"));
+	}
+
+	@Test
+	void nonPositiveLimitIsEmpty() {
+		TopK board = new TopK(3);
+		board.offer("a", 1);
+
+		assertTrue(board.top(0).isEmpty());
+		assertTrue(board.top(-5).isEmpty());
+	}
+
+	@Test
+	void updatedScoreReordersAndRemovalFreesASlot() {
+		TopK board = new TopK(3);
+		board.offer("a", 5);
+		board.offer("b", 4);
+		board.offer("c", 3);
+		board.offer("c", 9);
+		assertEquals("c", board.top(1).get(0).key());
+
+		board.remove("a");
+		board.offer("d", 1);
+		assertEquals(List.of("c", "b", "d"), board.top(3).stream().map(TopK.Entry::key).toList());
+	}
+}